@@ -1,9 +1,48 @@
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import controller.BatchCoordinator;
+import controller.BatchWorker;
+import controller.IsolatedProcessController;
 import controller.SynchronousController;
 import controller.SynchronousControllerImpl;
+import model.date.Date;
+import model.job.JobJournal;
+import model.money.MoneyAmount;
+import model.parser.csv.TransactionCsvImporter;
 import model.parser.pdf.PDFParser;
 import model.parser.pdf.PDFParserImpl;
+import model.query.TransactionIndex;
+import model.query.TransactionQuery;
+import model.recurring.RecurringChargeDetector;
+import model.transactions.AbstractTransaction;
+import model.transactions.Payment;
+import model.transactions.TransactionType;
+import model.transfer.TransferMatcher;
+import view.AsyncStatementView;
 import view.StatementExporter;
+import view.CompressedStatementFileWriter;
+import view.CsvRowFormat;
+import view.ExternalSortExporter;
+import view.JsonLinesRowFormat;
+import view.LedgerFileWriter;
+import view.MultiFormatExporter;
+import view.RecurringChargeReportWriter;
+import view.RollingSummaryExporter;
+import view.RowFormat;
 import view.StatementFileWriter;
+import view.StatementQueryPrinter;
 import view.StatementTextView;
 import view.StatementView;
 
@@ -13,12 +52,67 @@ import static java.lang.System.exit;
  * Runs the program using implementations of necessary interfaces.
  */
 public class StatementParserRunner {
+  // Options accepted in every mode, bounding the resources spent on one file.
+  private static final Set<String> LIMIT_OPTIONS = Set.of("timeout", "max-heap", "isolate");
+
+  // Options selecting the transactions to keep, applied while each statement is parsed.
+  private static final Set<String> FILTER_OPTIONS = Set.of("type", "from", "to", "min", "max", "prefix");
+
+  // Options which record each statement as complete across runs, so cannot be combined with the
+  // filter options: the filtered transactions would be recorded in place of the whole statement.
+  private static final List<String> RECORDING_OPTIONS = List.of("ledger", "rollup", "journal");
+
+  // Options of the batch mode which configure the coordinator rather than its workers.
+  private static final List<String> BATCH_OPTIONS = List.of("list", "workers", "bind", "port", "quiet", "journal");
 
   /**
    * Main method to run the program.
    *
    * @param args program arguments, which should include the filepath of the PDF file as the
-   *             first one.
+   *             first one, optionally followed by {@code --summary} to also write monthly,
+   *             per-merchant, and overall totals to a summary CSV file, {@code --gzip} to write
+   *             a gzip-compressed {@code .csv.gz} file compressed on every core, either of which
+   *             may be combined with the other, or
+   *             {@code --ledger <path>} to merge the statement into a running ledger file
+   *             instead of writing a CSV file of its own, or {@code --formats <list>} to write
+   *             any comma-separated combination of {@code csv}, {@code jsonl}, and
+   *             {@code summary} from a single parse. Any of these may be combined with
+   *             {@code --rollup <file>} to also record the statement in a store of monthly,
+   *             year-to-date, and trailing twelve month totals, under the account named by
+   *             {@code --account <name>}. Alternatively, the
+   *             first argument may be {@code query}, followed by the filepath of the PDF file
+   *             and any of the options {@code --type}, {@code --from}, {@code --to},
+   *             {@code --min}, {@code --max}, and {@code --prefix}, to print the matching
+   *             transactions instead of exporting them; given a ledger or consolidated CSV file
+   *             instead, its transactions are indexed once, and with {@code --stdin} each line of
+   *             standard input is answered from the index as a further query. The first
+   *             argument may also be
+   *             {@code batch}, followed by any number of PDF filepaths and optionally
+   *             {@code --list <file>} naming a file of further filepaths, one per line, to
+   *             process them all across {@code --workers <n>} worker JVMs (default one per
+   *             core) coordinated over a socket on {@code --bind <address>} and
+   *             {@code --port <n>}, showing only per-file results with {@code --quiet}, and
+   *             skipping files completed by an earlier run recorded in {@code --journal <file>};
+   *             the export options above apply to every file. Workers on
+   *             other hosts sharing the filesystem are started with {@code worker} followed by
+   *             {@code --coordinator <host>:<port>} and the same export options. The first
+   *             argument may also be {@code consolidate}, followed by the filepath of a CSV file
+   *             and any number of PDF filepaths, to write the transactions of every PDF file to
+   *             the one CSV file in date order, sorting on disk in runs of
+   *             {@code --run-size <n>} transactions, and with {@code --transfers flag} or
+   *             {@code --transfers exclude} to flag or leave out the payments and deposits
+   *             which are transfers between the statements' accounts, paired by amount within
+   *             {@code --transfer-window <days>} (default 5). The first argument may also be
+   *             {@code recurring}, followed by the filepath of a CSV file written by
+   *             {@code consolidate}, to print the subscriptions and bills found among its
+   *             payments with their cadence and next expected date, and to also write them to
+   *             {@code --report <file>}. The export, batch, and consolidate modes also accept
+   *             the options of {@code query} to keep only the matching transactions, checked
+   *             while each statement is parsed, except alongside {@code --ledger},
+   *             {@code --rollup}, or {@code --journal}. Every mode also accepts
+   *             {@code --timeout <seconds>} and {@code --max-heap <MB>} to bound the time and
+   *             memory spent on the file, and {@code --isolate} to process the file in a child
+   *             JVM which is killed if it outlives the timeout.
    */
   public static void main(String[] args) {
     if (args.length == 0) {
@@ -26,33 +120,646 @@ public class StatementParserRunner {
       exit(1);
     }
 
-    String inFile = args[0];
+    List<String> arguments = new ArrayList<>(Arrays.asList(args));
+    if (arguments.remove("--isolate")) {
+      runIsolated(arguments);
+      return;
+    }
 
-    if (!inFile.endsWith(".pdf")) {
-      System.out.println("Please provide a PDF file.");
-      exit(2);
+    if (args[0].equals("query")) {
+      runQuery(args);
+      return;
     }
 
-    String outFile = inFile.replace(".pdf", ".csv");
+    if (args[0].equals("batch")) {
+      runBatch(args);
+      return;
+    }
 
-    if (inFile.equals("") || outFile.equals("")) {
+    if (args[0].equals("worker")) {
+      runWorker(args);
+      return;
+    }
+
+    if (args[0].equals("consolidate")) {
+      runConsolidate(args);
+      return;
+    }
+
+    if (args[0].equals("recurring")) {
+      runRecurring(args);
+      return;
+    }
+
+    String inFile = args[0];
+    validateInputFile(inFile);
+
+    if (inFile.equals("")) {
       System.out.println("Please provide input and output file paths.");
       exit(3);
     }
 
+    Map<String, String> options = null;
+    TransactionQuery filter = null;
+    try {
+      options = parseOptions(args, 1);
+      filter = buildFilter(options);
+      checkFilterOptions(options);
+      checkExportOptions(options);
+    } catch (IllegalArgumentException e) {
+      System.out.println("Invalid options: " + e.getMessage());
+      exit(4);
+    }
+
+    StatementExporter exporter = null;
     try {
-      StatementView view = new StatementTextView(System.out);
-      PDFParser pdfParser = new PDFParserImpl();
-      StatementExporter exporter = new StatementFileWriter(outFile);
-      SynchronousController controller = new SynchronousControllerImpl(view, pdfParser, exporter, inFile);
+      exporter = buildExporter(inFile, options);
+    } catch (IllegalArgumentException e) {
+      System.out.println("Invalid formats: " + e.getMessage());
+      exit(4);
+    } catch (IllegalStateException e) {
+      System.out.println("Encountered an error: " + e.getMessage());
+      exit(5);
+    }
+
+    runController(inFile, exporter, options, filter);
+  }
+
+  // Builds the exporter selected by the --ledger, --formats, --gzip, and --summary options, which
+  // also records the statement in the store named by --rollup under the account named by --account.
+  private static StatementExporter buildExporter(String inFile, Map<String, String> options) throws IllegalArgumentException, IllegalStateException {
+    StatementExporter exporter = buildFileExporter(inFile, options);
+    if (!options.containsKey("rollup")) {
+      return exporter;
+    }
+
+    return new RollingSummaryExporter(exporter, options.get("rollup"), options.getOrDefault("account", "default"),
+      JobJournal.hashOf(inFile));
+  }
+
+  // Builds the exporter selected by the --ledger, --formats, --gzip, and --summary options.
+  private static StatementExporter buildFileExporter(String inFile, Map<String, String> options) throws IllegalArgumentException {
+    if (options.containsKey("ledger")) {
+      return new LedgerFileWriter(options.get("ledger"));
+    }
+
+    if (options.containsKey("formats")) {
+      return buildMultiFormatExporter(inFile.replace(".pdf", ""), options.get("formats"));
+    }
+
+    String outFile = inFile.replace(".pdf", ".csv");
+    String summaryFile = options.containsKey("summary") ? inFile.replace(".pdf", ".summary.csv") : null;
+    if (options.containsKey("gzip")) {
+      return new CompressedStatementFileWriter(outFile + ".gz", summaryFile);
+    }
+
+    return new StatementFileWriter(outFile, summaryFile);
+  }
+
+  // Runs the batch subcommand: batch <file.pdf>... [--list <file>] [--workers n] [--bind address]
+  // [--port n] [--quiet] [--journal <file>] [--option value]...
+  private static void runBatch(String[] args) {
+    List<String> inFiles = new ArrayList<>();
+    int optionsStart = 1;
+    while (optionsStart < args.length && !args[optionsStart].startsWith("--")) {
+      inFiles.add(args[optionsStart++]);
+    }
+
+    Map<String, String> options = null;
+    try {
+      options = parseOptions(args, optionsStart);
+      if (options.containsKey("list")) {
+        for (String line : Files.readAllLines(Paths.get(options.get("list")))) {
+          if (!line.isBlank()) {
+            inFiles.add(line.trim());
+          }
+        }
+      }
+      if (options.containsKey("ledger")) {
+        throw new IllegalArgumentException("Workers cannot share a ledger file.");
+      }
+      buildFilter(options);
+      checkFilterOptions(options);
+      checkExportOptions(options);
+    } catch (IllegalArgumentException | IOException e) {
+      System.out.println("Invalid options: " + e.getMessage());
+      exit(4);
+    }
+
+    if (inFiles.isEmpty()) {
+      System.out.println("Please include an input file path.");
+      exit(1);
+    }
+
+    for (String inFile : inFiles) {
+      validateInputFile(inFile);
+    }
+
+    // Workers receive every option which is not specific to the coordinator
+    List<String> workerArguments = new ArrayList<>(List.of("worker"));
+    workerArguments.addAll(Arrays.asList(args).subList(optionsStart, args.length));
+    for (String batchOption : BATCH_OPTIONS) {
+      int index = workerArguments.indexOf("--" + batchOption);
+      if (index >= 0) {
+        boolean hasValue = index + 1 < workerArguments.size() && !workerArguments.get(index + 1).startsWith("--");
+        workerArguments.subList(index, hasValue ? index + 2 : index + 1).clear();
+      }
+    }
+
+    int workers = (int) limitOf(options.getOrDefault("workers", Integer.toString(Runtime.getRuntime().availableProcessors())), 1);
+    int port = (int) limitOf(options.getOrDefault("port", "0"), 1);
+
+    Map<String, String> exportOptions = options;
+    JobJournal journal = null;
+    if (options.containsKey("journal")) {
+      try {
+        journal = new JobJournal(options.get("journal"), inFile -> outputPathOf(inFile, exportOptions));
+      } catch (IllegalStateException e) {
+        System.out.println("Invalid options: " + e.getMessage());
+        exit(4);
+      }
+    }
+
+    // Results arrive from many connections at once, so they are written in the background
+    AsyncStatementView view = new AsyncStatementView(System.out, options.containsKey("quiet"));
+    BatchCoordinator coordinator = new BatchCoordinator(view, inFiles,
+      StatementParserRunner.class.getName(), workerArguments, workers, options.getOrDefault("bind", "127.0.0.1"), port,
+      limitOf(options.get("timeout"), 1000), limitOf(options.get("max-heap"), 1024 * 1024), journal);
+
+    JobJournal openJournal = journal;
+    runController(() -> {
+      try {
+        coordinator.run();
+      } finally {
+        view.close();
+        if (openJournal != null) {
+          try {
+            openJournal.close();
+          } catch (IOException e) {
+            throw new IllegalStateException("Failed to sync journal.");
+          }
+        }
+      }
+    });
+  }
+
+  // Gets the path of the main output written for the provided input file, as selected by the
+  // --formats and --gzip options.
+  private static String outputPathOf(String inFile, Map<String, String> options) {
+    String basePath = inFile.replace(".pdf", "");
+    if (options.containsKey("formats")) {
+      switch (options.get("formats").split(",")[0].trim()) {
+        case "jsonl": return basePath + ".jsonl";
+        case "summary": return basePath + ".summary.csv";
+        default: return basePath + ".csv";
+      }
+    }
+
+    return basePath + (options.containsKey("gzip") ? ".csv.gz" : ".csv");
+  }
+
+  // Runs the consolidate subcommand: consolidate <out.csv> <file.pdf>... [--run-size n]
+  // [--transfers flag|exclude] [--transfer-window days] [--option value]...
+  private static void runConsolidate(String[] args) {
+    if (args.length < 3) {
+      System.out.println("Please include an output file path and at least one input file path.");
+      exit(1);
+    }
+
+    String outFile = args[1];
+    List<String> inFiles = new ArrayList<>();
+    int optionsStart = 2;
+    while (optionsStart < args.length && !args[optionsStart].startsWith("--")) {
+      validateInputFile(args[optionsStart]);
+      inFiles.add(args[optionsStart++]);
+    }
+
+    Map<String, String> options = null;
+    TransactionQuery filter = null;
+    try {
+      options = parseOptions(args, optionsStart);
+      filter = buildFilter(options);
+    } catch (IllegalArgumentException e) {
+      System.out.println("Invalid options: " + e.getMessage());
+      exit(4);
+    }
+    TransactionQuery statementFilter = filter;
+
+    int runSize = (int) Math.min(Integer.MAX_VALUE,
+      limitOf(options.getOrDefault("run-size", Integer.toString(ExternalSortExporter.DEFAULT_RUN_SIZE)), 1));
+    if (runSize == 0 || inFiles.isEmpty()) {
+      System.out.println("Please provide a positive run size and at least one input file path.");
+      exit(4);
+    }
+
+    String transfers = options.get("transfers");
+    if (transfers != null && !transfers.equals("flag") && !transfers.equals("exclude")) {
+      System.out.println("Invalid options: --transfers must be flag or exclude.");
+      exit(4);
+    }
+    int windowDays = (int) Math.min(Integer.MAX_VALUE, limitOf(options.getOrDefault("transfer-window", "5"), 1));
+
+    long timeoutMillis = limitOf(options.get("timeout"), 1000);
+    long maxHeapBytes = limitOf(options.get("max-heap"), 1024 * 1024);
+    TransferMatcher matcher = (transfers == null) ? null : new TransferMatcher();
+    ExternalSortExporter sorter = new ExternalSortExporter(outFile, runSize, new File(System.getProperty("java.io.tmpdir")));
+    StatementView view = new StatementTextView(System.out);
+
+    runController(() -> {
+      try {
+        for (String inFile : inFiles) {
+          if (matcher == null) {
+            new SynchronousControllerImpl(view, new PDFParserImpl(), sorter.accumulator(), inFile, timeoutMillis, maxHeapBytes, statementFilter).run();
+            System.out.println();
+            continue;
+          }
+
+          // Number each transaction the same in the matcher and the sorter, under its statement type
+          List<AbstractTransaction> statement = new ArrayList<>();
+          SynchronousControllerImpl controller = new SynchronousControllerImpl(view, new PDFParserImpl(),
+            new StatementExporter() {
+              @Override
+              public void write(List<AbstractTransaction> transactions) {
+                statement.addAll(transactions);
+              }
+
+              @Override
+              public String confirmationMessage() {
+                return "Successfully added to " + outFile;
+              }
+            }, inFile, timeoutMillis, maxHeapBytes, statementFilter);
+          controller.run();
+          System.out.println();
+
+          for (AbstractTransaction transaction : statement) {
+            matcher.add(controller.getStatementType(), transaction);
+          }
+          sorter.add(statement);
+        }
+
+        if (matcher == null) {
+          sorter.finish();
+        } else {
+          System.out.println("Matched " + matcher.match(windowDays) + " transfer(s).");
+          sorter.finish(matcher::isMatched, transfers.equals("exclude"));
+        }
+        System.out.println(sorter.confirmationMessage());
+      } finally {
+        sorter.close();
+      }
+    });
+  }
+
+  // Runs the recurring subcommand: recurring <consolidated.csv> [--report <file>]
+  private static void runRecurring(String[] args) {
+    if (args.length < 2) {
+      System.out.println("Please include the file path of a consolidated CSV file.");
+      exit(1);
+    }
+
+    String inFile = args[1];
+    if (!inFile.endsWith(".csv")) {
+      System.out.println("Please provide a CSV file.");
+      exit(2);
+    }
 
+    Map<String, String> options = null;
+    try {
+      options = parseOptions(args, 2);
+    } catch (IllegalArgumentException e) {
+      System.out.println("Invalid options: " + e.getMessage());
+      exit(4);
+    }
+
+    RecurringChargeDetector detector = new RecurringChargeDetector();
+    String report = options.get("report");
+    runController(() -> {
+      // Consolidated rows are newest first: type,date,description,amount and possibly transfer
+      try (BufferedReader reader = Files.newBufferedReader(Paths.get(inFile))) {
+        String header = reader.readLine();
+        boolean flagged = header != null && header.endsWith(",transfer");
+        Payment.PaymentFactory payments = new Payment.PaymentFactory();
+        String line;
+        while ((line = reader.readLine()) != null) {
+          if (!line.startsWith(TransactionType.PAYMENT + ",")) {
+            continue;
+          }
+
+          int end = flagged ? line.lastIndexOf(',') : line.length();
+          int dateEnd = line.indexOf(',', TransactionType.PAYMENT.toString().length() + 1);
+          int amountStart = line.lastIndexOf(',', end - 1);
+          if (dateEnd < 0 || amountStart <= dateEnd) {
+            throw new IllegalStateException("Malformed row: " + line);
+          }
+
+          detector.accept(payments.make(
+            Date.parse(line.substring(TransactionType.PAYMENT.toString().length() + 1, dateEnd)),
+            line.substring(dateEnd + 1, amountStart), MoneyAmount.parse(line.substring(amountStart + 1, end))));
+        }
+      } catch (IOException e) {
+        throw new IllegalStateException("Failed to read " + inFile + ".");
+      } catch (IllegalArgumentException e) {
+        throw new IllegalStateException("Invalid consolidated file: " + e.getMessage());
+      }
+
+      try {
+        detector.writeCsv(System.out);
+      } catch (IOException e) {
+        throw new IllegalStateException("Printing recurring charges failed.");
+      }
+      System.out.println("Found " + detector.getRecurringCharges().size() + " recurring charge(s).");
+
+      if (report != null) {
+        RecurringChargeReportWriter writer = new RecurringChargeReportWriter(report);
+        writer.writeReport(detector);
+        System.out.println(writer.confirmationMessage());
+      }
+    });
+  }
+
+  // Runs the worker subcommand: worker --coordinator <host>:<port> [--option value]...
+  private static void runWorker(String[] args) {
+    Map<String, String> options = null;
+    try {
+      options = parseOptions(args, 1);
+      if (!options.containsKey("coordinator") || options.get("coordinator").lastIndexOf(':') < 0) {
+        throw new IllegalArgumentException("Please provide --coordinator <host>:<port>.");
+      }
+      buildFilter(options);
+      checkFilterOptions(options);
+      checkExportOptions(options);
+    } catch (IllegalArgumentException e) {
+      System.out.println("Invalid options: " + e.getMessage());
+      exit(4);
+    }
+
+    String coordinator = options.get("coordinator");
+    String host = coordinator.substring(0, coordinator.lastIndexOf(':'));
+    int port = (int) limitOf(coordinator.substring(coordinator.lastIndexOf(':') + 1), 1);
+
+    long timeoutMillis = limitOf(options.get("timeout"), 1000);
+    long maxHeapBytes = limitOf(options.get("max-heap"), 1024 * 1024);
+    Map<String, String> exportOptions = options;
+    TransactionQuery filter = buildFilter(options);
+
+    runController(new BatchWorker(host, port, inFile -> {
+      if (!inFile.endsWith(".pdf")) {
+        throw new IllegalArgumentException("Input file is not a PDF file.");
+      }
+      return new SynchronousControllerImpl(new StatementTextView(System.out), new PDFParserImpl(),
+        buildExporter(inFile, exportOptions), inFile, timeoutMillis, maxHeapBytes, filter);
+    }));
+  }
+
+  // Runs the query subcommand: query <file.pdf> [--option value]...
+  private static void runQuery(String[] args) {
+    if (args.length < 2) {
+      System.out.println("Please include an input file path.");
+      exit(1);
+    }
+
+    String inFile = args[1];
+    if (inFile.endsWith(".csv")) {
+      runIndexedQuery(inFile, args);
+      return;
+    }
+    validateInputFile(inFile);
+
+    Map<String, String> options = null;
+    TransactionQuery query = null;
+    try {
+      options = parseOptions(args, 2);
+      query = buildQuery(options);
+    } catch (IllegalArgumentException e) {
+      System.out.println("Invalid query: " + e.getMessage());
+      exit(4);
+    }
+
+    runController(inFile, new StatementQueryPrinter(query, System.out), options, query);
+  }
+
+  // Runs the query subcommand over a ledger or consolidated CSV file, which is read and indexed
+  // once: query <file.csv> [--option value]... [--stdin], where with --stdin each line of standard
+  // input is a further query of the same options, answered from the same index.
+  private static void runIndexedQuery(String inFile, String[] args) {
+    Map<String, String> options = null;
+    TransactionQuery query = null;
+    boolean readQueries = false;
+    try {
+      options = parseOptions(args, 2);
+      readQueries = options.remove("stdin") != null;
+      query = buildQuery(options);
+    } catch (IllegalArgumentException e) {
+      System.out.println("Invalid query: " + e.getMessage());
+      exit(4);
+    }
+
+    TransactionQuery firstQuery = query;
+    boolean repeated = readQueries;
+    runController(() -> {
+      long start = System.nanoTime();
+      TransactionIndex index = new TransactionIndex(new TransactionCsvImporter().importTransactions(inFile));
+      System.out.println("Indexed " + index.size() + " transaction(s) in " + (System.nanoTime() - start) / 1_000_000 + " ms.");
+      printQuery(index, firstQuery);
+      if (!repeated) {
+        return;
+      }
+
+      try {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(System.in));
+        String line;
+        while ((line = reader.readLine()) != null) {
+          if (line.isBlank()) {
+            continue;
+          }
+
+          try {
+            printQuery(index, buildQuery(parseOptions(line.trim().split("\\s+"), 0)));
+          } catch (IllegalArgumentException e) {
+            System.out.println("Invalid query: " + e.getMessage());
+          }
+        }
+      } catch (IOException e) {
+        throw new IllegalStateException("Failed to read queries.");
+      }
+    });
+  }
+
+  // Prints the indexed transactions matching a query.
+  private static void printQuery(TransactionIndex index, TransactionQuery query) {
+    StatementQueryPrinter printer = new StatementQueryPrinter(query, System.out);
+    printer.print(index);
+    System.out.println(printer.confirmationMessage());
+  }
+
+  // Builds a query from the --type, --from, --to, --min, --max, and --prefix options, rejecting
+  // any other option but the limits.
+  private static TransactionQuery buildQuery(Map<String, String> options) throws IllegalArgumentException {
+    for (String option : options.keySet()) {
+      if (!LIMIT_OPTIONS.contains(option) && !FILTER_OPTIONS.contains(option)) {
+        throw new IllegalArgumentException("Unknown option: --" + option);
+      }
+    }
+
+    return buildFilter(options);
+  }
+
+  // Rejects combinations of the --ledger, --formats, --gzip, and --summary options of which one
+  // would be ignored: a ledger is only ever plain CSV, and --formats names every output itself.
+  private static void checkExportOptions(Map<String, String> options) throws IllegalArgumentException {
+    for (String exporter : List.of("ledger", "formats")) {
+      if (!options.containsKey(exporter)) {
+        continue;
+      }
+
+      for (String option : List.of("formats", "gzip", "summary")) {
+        if (!option.equals(exporter) && options.containsKey(option)) {
+          throw new IllegalArgumentException("--" + exporter + " cannot be combined with --" + option + ".");
+        }
+      }
+    }
+  }
+
+  // Rejects the filter options alongside the options which record statements across runs.
+  private static void checkFilterOptions(Map<String, String> options) throws IllegalArgumentException {
+    if (Collections.disjoint(options.keySet(), FILTER_OPTIONS)) {
+      return;
+    }
+
+    for (String option : RECORDING_OPTIONS) {
+      if (options.containsKey(option)) {
+        throw new IllegalArgumentException("--" + option + " cannot be combined with filter options.");
+      }
+    }
+  }
+
+  // Builds a filter from the --type, --from, --to, --min, --max, and --prefix options, ignoring
+  // every other option.
+  private static TransactionQuery buildFilter(Map<String, String> options) throws IllegalArgumentException {
+    TransactionQuery.Builder builder = new TransactionQuery.Builder();
+
+    for (Map.Entry<String, String> option : options.entrySet()) {
+      if (!FILTER_OPTIONS.contains(option.getKey())) {
+        continue;
+      }
+
+      String value = option.getValue();
+      switch (option.getKey()) {
+        case "type": builder.type(TransactionType.fromName(value)); break;
+        case "from": builder.from(Date.parse(value)); break;
+        case "to": builder.to(Date.parse(value)); break;
+        case "min": builder.minAmount(MoneyAmount.parse(value)); break;
+        case "max": builder.maxAmount(MoneyAmount.parse(value)); break;
+        case "prefix": builder.descriptionPrefix(value); break;
+        default: throw new IllegalArgumentException("Unknown option: --" + option.getKey());
+      }
+    }
+
+    return builder.build();
+  }
+
+  // Builds an exporter for a comma-separated list of the formats csv, jsonl, and summary.
+  private static MultiFormatExporter buildMultiFormatExporter(String basePath, String formatList) throws IllegalArgumentException {
+    List<RowFormat> formats = new ArrayList<>();
+    boolean includeSummary = false;
+
+    for (String format : formatList.split(",")) {
+      switch (format.trim()) {
+        case "csv": formats.add(new CsvRowFormat()); break;
+        case "jsonl": formats.add(new JsonLinesRowFormat()); break;
+        case "summary": includeSummary = true; break;
+        default: throw new IllegalArgumentException("Unknown format: " + format);
+      }
+    }
+
+    return new MultiFormatExporter(basePath, formats, includeSummary);
+  }
+
+  // Parses arguments of the form --name value, starting at the provided index. Flags which are
+  // not followed by a value are given the value "true".
+  private static Map<String, String> parseOptions(String[] args, int start) throws IllegalArgumentException {
+    Map<String, String> options = new HashMap<>();
+
+    for (int i = start; i < args.length; i++) {
+      if (!args[i].startsWith("--")) {
+        throw new IllegalArgumentException("Unexpected argument: " + args[i]);
+      }
+
+      if (i + 1 >= args.length || args[i + 1].startsWith("--")) {
+        options.put(args[i].substring(2), "true");
+      } else {
+        options.put(args[i].substring(2), args[i + 1]);
+        i++;
+      }
+    }
+
+    return options;
+  }
+
+  // Exits if the provided input file is not a PDF file.
+  private static void validateInputFile(String inFile) {
+    if (!inFile.endsWith(".pdf")) {
+      System.out.println("Please provide a PDF file.");
+      exit(2);
+    }
+  }
+
+  // Runs this program again with the provided arguments in a child JVM.
+  private static void runIsolated(List<String> arguments) {
+    runController(new IsolatedProcessController(new StatementTextView(System.out),
+      StatementParserRunner.class.getName(), arguments,
+      limitOf(optionValue(arguments, "timeout"), 1000),
+      limitOf(optionValue(arguments, "max-heap"), 1024 * 1024)));
+  }
+
+  // Runs a synchronous controller over the provided input file, limited by the --timeout and
+  // --max-heap options, keeping only the transactions matching the filter.
+  private static void runController(String inFile, StatementExporter exporter, Map<String, String> options, TransactionQuery filter) {
+    long timeoutMillis = limitOf(options.get("timeout"), 1000);
+    long maxHeapBytes = limitOf(options.get("max-heap"), 1024 * 1024);
+
+    StatementView view = new StatementTextView(System.out);
+    PDFParser pdfParser = new PDFParserImpl();
+    runController(new SynchronousControllerImpl(view, pdfParser, exporter, inFile, timeoutMillis, maxHeapBytes, filter));
+  }
+
+  // Runs the provided controller, reporting any errors and exiting unsuccessfully after them.
+  private static void runController(SynchronousController controller) {
+    try {
       controller.run();
     } catch (IllegalStateException e) {
       System.out.println("\n\n\nEncountered an error: " + e.getMessage());
       e.printStackTrace();
+      exit(5);
     } catch (Exception e) {
       System.out.println("\n\n\nEncountered an unknown error: " + e.getMessage());
       e.printStackTrace();
+      exit(5);
+    }
+  }
+
+  // Gets the value following --name in the arguments, or null if it is not present.
+  private static String optionValue(List<String> arguments, String name) {
+    int index = arguments.indexOf("--" + name);
+    return (index < 0 || index + 1 >= arguments.size()) ? null : arguments.get(index + 1);
+  }
+
+  // Converts the value of a limit option to base units, exiting if it is not a whole number.
+  private static long limitOf(String value, long unit) {
+    if (value == null) {
+      return 0;
+    }
+
+    try {
+      long limit = Long.parseLong(value);
+      if (limit < 0) {
+        throw new NumberFormatException();
+      }
+      return limit * unit;
+    } catch (NumberFormatException e) {
+      System.out.println("Limits must be non-negative whole numbers: " + value);
+      exit(4);
+      return 0;
     }
   }
 }
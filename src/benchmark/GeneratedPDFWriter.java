@@ -0,0 +1,50 @@
+package benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+
+/**
+ * Renders generated statement text into a PDF file, one text line per line of the page, so the
+ * generated statements also exercise PDF text extraction.
+ */
+public class GeneratedPDFWriter {
+  private static final int LINES_PER_PAGE = 60;
+  private static final float FONT_SIZE = 8;
+  private static final float LEADING = 12;
+
+  /**
+   * Writes the provided lines to a PDF file.
+   * @param lines the lines of text
+   * @param file the PDF file to write
+   * @throws IllegalStateException if the PDF cannot be written.
+   */
+  public static void write(List<String> lines, File file) throws IllegalStateException {
+    try (PDDocument document = new PDDocument()) {
+      for (int start = 0; start < lines.size(); start += LINES_PER_PAGE) {
+        PDPage page = new PDPage();
+        document.addPage(page);
+
+        try (PDPageContentStream contents = new PDPageContentStream(document, page)) {
+          contents.beginText();
+          contents.setFont(PDType1Font.HELVETICA, FONT_SIZE);
+          contents.newLineAtOffset(36, 750);
+          for (String line : lines.subList(start, Math.min(start + LINES_PER_PAGE, lines.size()))) {
+            contents.showText(line);
+            contents.newLineAtOffset(0, -LEADING);
+          }
+          contents.endText();
+        }
+      }
+
+      document.save(file);
+    } catch (IOException e) {
+      throw new IllegalStateException("Failed to write generated PDF.");
+    }
+  }
+}
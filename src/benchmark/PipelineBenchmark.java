@@ -0,0 +1,321 @@
+package benchmark;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+import controller.SynchronousController;
+import controller.SynchronousControllerImpl;
+import model.date.Month;
+import model.parser.pdf.PDFParser;
+import model.parser.pdf.PDFParserImpl;
+import view.StatementFileWriter;
+import view.StatementView;
+
+import static java.lang.System.exit;
+
+/**
+ * Runs the complete pipeline of {@code SynchronousControllerImpl} over generated statements of
+ * increasing size, reporting documents per second, transactions per second, and peak heap for
+ * each size, along with how the cost per document grows with its size. The run fails when a
+ * result is worse than the stored baseline by more than the allowed tolerance, or when cost
+ * grows faster than the allowed scaling exponent.
+ */
+public class PipelineBenchmark {
+  // Invariant: every field is set from the command line before the benchmark runs.
+  private final int[] sizes;
+  private final int documents;
+  private final boolean usePDF;
+  private final File baselineFile;
+  private final double tolerance;
+  private final double maxExponent;
+  private final boolean updateBaseline;
+  private final File workDirectory;
+
+  private PipelineBenchmark(int[] sizes, int documents, boolean usePDF, File baselineFile, double tolerance,
+                            double maxExponent, boolean updateBaseline, File workDirectory) {
+    this.sizes = sizes;
+    this.documents = documents;
+    this.usePDF = usePDF;
+    this.baselineFile = baselineFile;
+    this.tolerance = tolerance;
+    this.maxExponent = maxExponent;
+    this.updateBaseline = updateBaseline;
+    this.workDirectory = workDirectory;
+  }
+
+  /**
+   * Runs the benchmark.
+   *
+   * @param args the options {@code --sizes} (comma-separated transactions per statement,
+   *             default {@code 100,1000,10000}), {@code --documents} (statements per size,
+   *             default 6), {@code --mode} ({@code pdf} to include text extraction, or
+   *             {@code text} to start from extracted text; default {@code pdf}),
+   *             {@code --baseline} (properties file of stored results, default
+   *             {@code benchmark-baseline.properties}), {@code --tolerance} (allowed fractional
+   *             regression, default 0.25), {@code --max-exponent} (allowed growth of cost per
+   *             document with its size, default 1.3), and {@code --update-baseline} to store
+   *             this run as the new baseline.
+   */
+  public static void main(String[] args) {
+    PipelineBenchmark benchmark = null;
+    try {
+      benchmark = fromArguments(args);
+    } catch (IllegalArgumentException | IOException e) {
+      System.out.println("Invalid arguments: " + e.getMessage());
+      exit(2);
+    }
+
+    try {
+      exit(benchmark.run() ? 0 : 1);
+    } catch (IllegalStateException | IOException e) {
+      System.out.println("Benchmark failed to run: " + e.getMessage());
+      exit(2);
+    }
+  }
+
+  // Runs every size, returning whether all results are within their budgets.
+  private boolean run() throws IllegalStateException, IOException {
+    List<Result> results = new ArrayList<>();
+
+    // Warm up the JIT on the smallest size so it does not count against the first result
+    this.measure(this.sizes[0]);
+
+    for (int size : this.sizes) {
+      results.add(this.measure(size));
+    }
+
+    System.out.println(String.format("%12s %12s %16s %16s", "transactions", "docs/sec", "transactions/sec", "peak heap (MB)"));
+    for (Result result : results) {
+      System.out.println(String.format("%12d %12.1f %16.0f %16.1f", result.size, result.documentsPerSecond(),
+        result.transactionsPerSecond(), result.peakHeapBytes / (1024.0 * 1024.0)));
+    }
+
+    boolean passed = this.checkScaling(results);
+    passed &= this.checkBaseline(results);
+
+    if (this.updateBaseline) {
+      this.storeBaseline(results);
+      System.out.println("Stored baseline in " + this.baselineFile);
+    }
+
+    System.out.println(passed ? "PASSED" : "FAILED");
+    return passed;
+  }
+
+  // Runs the pipeline over freshly generated statements of one size.
+  private Result measure(int size) throws IllegalStateException, IOException {
+    StatementGenerator generator = new StatementGenerator(size);
+    List<String> inputs = new ArrayList<>();
+    for (int i = 0; i < this.documents; i++) {
+      Month month = Month.asMonth(1 + i % 12);
+      List<String> lines = (i % 2 == 0) ? generator.tdBank(2023, month, size) : generator.discover(2023, month, size);
+      File input = new File(this.workDirectory, "statement-" + size + "-" + i + (this.usePDF ? ".pdf" : ".txt"));
+      if (this.usePDF) {
+        GeneratedPDFWriter.write(lines, input);
+      } else {
+        Files.writeString(input.toPath(), String.join("\n", lines) + "\n", StandardCharsets.UTF_8);
+      }
+      inputs.add(input.getPath());
+    }
+
+    String output = new File(this.workDirectory, "statement.csv").getPath();
+
+    System.gc();
+    List<MemoryPoolMXBean> heapPools = new ArrayList<>();
+    for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+      if (pool.getType() == MemoryType.HEAP) {
+        pool.resetPeakUsage();
+        heapPools.add(pool);
+      }
+    }
+
+    long start = System.nanoTime();
+    for (String input : inputs) {
+      PDFParser pdfParser = this.usePDF ? new PDFParserImpl() : new TextFileParser();
+      SynchronousController controller =
+        new SynchronousControllerImpl(new DiscardingView(), pdfParser, new StatementFileWriter(output), input);
+      controller.run();
+    }
+    long elapsedNanos = System.nanoTime() - start;
+
+    long peakHeapBytes = 0;
+    for (MemoryPoolMXBean pool : heapPools) {
+      peakHeapBytes += pool.getPeakUsage().getUsed();
+    }
+
+    for (String input : inputs) {
+      Files.deleteIfExists(new File(input).toPath());
+    }
+    Files.deleteIfExists(new File(output).toPath());
+
+    return new Result(size, this.documents, elapsedNanos, peakHeapBytes);
+  }
+
+  // Reports how the cost per document grows between consecutive sizes, returning whether it
+  // stays within the allowed exponent.
+  private boolean checkScaling(List<Result> results) {
+    boolean passed = true;
+    for (int i = 1; i < results.size(); i++) {
+      Result smaller = results.get(i - 1);
+      Result larger = results.get(i);
+      double exponent = Math.log(larger.nanosPerDocument() / smaller.nanosPerDocument())
+        / Math.log((double) larger.size / smaller.size);
+
+      String verdict = "";
+      if (exponent > this.maxExponent) {
+        verdict = " exceeds " + this.maxExponent;
+        passed = false;
+      }
+      System.out.println(String.format("Cost grows as size^%.2f from %d to %d transactions%s",
+        exponent, smaller.size, larger.size, verdict));
+    }
+    return passed;
+  }
+
+  // Compares the results with the stored baseline, returning whether all are within tolerance.
+  private boolean checkBaseline(List<Result> results) throws IOException {
+    if (!this.baselineFile.exists()) {
+      System.out.println("No baseline at " + this.baselineFile + "; skipping comparison.");
+      return true;
+    }
+
+    Properties baseline = new Properties();
+    try (InputStream in = new FileInputStream(this.baselineFile)) {
+      baseline.load(in);
+    }
+
+    boolean passed = true;
+    for (Result result : results) {
+      String throughput = baseline.getProperty(result.size + ".transactionsPerSecond");
+      if (throughput != null && result.transactionsPerSecond() < Double.parseDouble(throughput) * (1 - this.tolerance)) {
+        System.out.println(String.format("Throughput at %d transactions regressed: %.0f/sec against baseline %s/sec",
+          result.size, result.transactionsPerSecond(), throughput));
+        passed = false;
+      }
+
+      String peakHeap = baseline.getProperty(result.size + ".peakHeapBytes");
+      if (peakHeap != null && result.peakHeapBytes > Long.parseLong(peakHeap) * (1 + this.tolerance)) {
+        System.out.println(String.format("Peak heap at %d transactions regressed: %d bytes against baseline %s bytes",
+          result.size, result.peakHeapBytes, peakHeap));
+        passed = false;
+      }
+    }
+    return passed;
+  }
+
+  // Stores the results as the new baseline.
+  private void storeBaseline(List<Result> results) throws IOException {
+    Properties baseline = new Properties();
+    for (Result result : results) {
+      baseline.setProperty(result.size + ".transactionsPerSecond", String.format("%.0f", result.transactionsPerSecond()));
+      baseline.setProperty(result.size + ".peakHeapBytes", Long.toString(result.peakHeapBytes));
+    }
+
+    try (OutputStream out = new FileOutputStream(this.baselineFile)) {
+      baseline.store(out, "Pipeline benchmark baseline");
+    }
+  }
+
+  // Creates a benchmark from the command line options.
+  private static PipelineBenchmark fromArguments(String[] args) throws IllegalArgumentException, IOException {
+    String sizes = "100,1000,10000";
+    int documents = 6;
+    String mode = "pdf";
+    String baseline = "benchmark-baseline.properties";
+    double tolerance = 0.25;
+    double maxExponent = 1.3;
+    boolean updateBaseline = false;
+
+    for (int i = 0; i < args.length; i++) {
+      if (args[i].equals("--update-baseline")) {
+        updateBaseline = true;
+        continue;
+      }
+
+      if (i + 1 >= args.length) {
+        throw new IllegalArgumentException("Missing value for " + args[i]);
+      }
+
+      String value = args[++i];
+      switch (args[i - 1]) {
+        case "--sizes": sizes = value; break;
+        case "--documents": documents = Integer.parseInt(value); break;
+        case "--mode": mode = value; break;
+        case "--baseline": baseline = value; break;
+        case "--tolerance": tolerance = Double.parseDouble(value); break;
+        case "--max-exponent": maxExponent = Double.parseDouble(value); break;
+        default: throw new IllegalArgumentException("Unknown option: " + args[i - 1]);
+      }
+    }
+
+    if (!mode.equals("pdf") && !mode.equals("text")) {
+      throw new IllegalArgumentException("Mode must be pdf or text.");
+    }
+
+    String[] sizeStrings = sizes.split(",");
+    int[] parsedSizes = new int[sizeStrings.length];
+    for (int i = 0; i < sizeStrings.length; i++) {
+      parsedSizes[i] = Integer.parseInt(sizeStrings[i].trim());
+      if (parsedSizes[i] <= 0) {
+        throw new IllegalArgumentException("Sizes must be positive.");
+      }
+    }
+
+    if (documents <= 0) {
+      throw new IllegalArgumentException("Documents must be positive.");
+    }
+
+    File workDirectory = Files.createTempDirectory("statement-benchmark").toFile();
+    workDirectory.deleteOnExit();
+
+    return new PipelineBenchmark(parsedSizes, documents, mode.equals("pdf"), new File(baseline), tolerance,
+      maxExponent, updateBaseline, workDirectory);
+  }
+
+  // Discards progress messages so console output does not count against the pipeline.
+  private static class DiscardingView implements StatementView {
+    @Override
+    public void renderMessage(String message) {
+      // Intentionally empty
+    }
+  }
+
+  // The measurements of one size.
+  private static class Result {
+    private final int size;
+    private final int documents;
+    private final long elapsedNanos;
+    private final long peakHeapBytes;
+
+    private Result(int size, int documents, long elapsedNanos, long peakHeapBytes) {
+      this.size = size;
+      this.documents = documents;
+      this.elapsedNanos = elapsedNanos;
+      this.peakHeapBytes = peakHeapBytes;
+    }
+
+    private double nanosPerDocument() {
+      return (double) this.elapsedNanos / this.documents;
+    }
+
+    private double documentsPerSecond() {
+      return this.documents * 1e9 / this.elapsedNanos;
+    }
+
+    private double transactionsPerSecond() {
+      return (double) this.size * this.documents * 1e9 / this.elapsedNanos;
+    }
+  }
+}
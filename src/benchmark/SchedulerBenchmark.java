@@ -0,0 +1,303 @@
+package benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import controller.ConversionLane;
+import controller.ConversionScheduler;
+import controller.LaneStats;
+import controller.SynchronousController;
+import controller.SynchronousControllerImpl;
+import model.date.Month;
+import model.parser.pdf.PDFParser;
+import model.parser.pdf.PDFParserImpl;
+import view.LedgerFileWriter;
+import view.StatementExporter;
+import view.StatementFileWriter;
+import view.StatementView;
+
+import static java.lang.System.exit;
+
+/**
+ * Runs a {@code ConversionScheduler} with its bulk lane saturated by a backfill of large
+ * statements merged into one shared ledger, while small interactive statements arrive at a
+ * steady rate, reporting how long the interactive ones waited to start and took to finish. The
+ * run fails when the longest interactive wait exceeds the allowed time, when any conversion
+ * fails, or when the ledger does not hold every row of the backfill.
+ */
+public class SchedulerBenchmark {
+  // Invariant: every field is set from the command line before the benchmark runs.
+  private final int threads;
+  private final int bulkCount;
+  private final int bulkSize;
+  private final int interactiveCount;
+  private final int interactiveSize;
+  private final long intervalMillis;
+  private final long maxWaitMillis;
+  private final boolean usePDF;
+  private final File workDirectory;
+
+  // Invariant: random and generator are seeded from the command line, so runs are repeatable.
+  private final Random random;
+  private final StatementGenerator generator;
+
+  private SchedulerBenchmark(int threads, int bulkCount, int bulkSize, int interactiveCount, int interactiveSize,
+                             long intervalMillis, long maxWaitMillis, boolean usePDF, long seed, File workDirectory) {
+    this.threads = threads;
+    this.bulkCount = bulkCount;
+    this.bulkSize = bulkSize;
+    this.interactiveCount = interactiveCount;
+    this.interactiveSize = interactiveSize;
+    this.intervalMillis = intervalMillis;
+    this.maxWaitMillis = maxWaitMillis;
+    this.usePDF = usePDF;
+    this.workDirectory = workDirectory;
+    this.random = new Random(seed);
+    this.generator = new StatementGenerator(seed);
+  }
+
+  /**
+   * Runs the benchmark.
+   *
+   * @param args the options {@code --threads} (conversions run at once, default 4),
+   *             {@code --bulk} (backfill statements, default 100), {@code --bulk-size}
+   *             (transactions per backfill statement, default 2000), {@code --interactive}
+   *             (interactive statements, default 50), {@code --interactive-size} (transactions
+   *             per interactive statement, default 20), {@code --interval} (milliseconds between
+   *             interactive statements, default 20), {@code --max-wait} (allowed milliseconds
+   *             for an interactive statement to wait before it starts, default 50),
+   *             {@code --mode} ({@code pdf} to include text extraction, or {@code text} to start
+   *             from extracted text; default {@code pdf}), and {@code --seed} (seed of the
+   *             generated statements, default 1).
+   */
+  public static void main(String[] args) {
+    SchedulerBenchmark benchmark = null;
+    try {
+      benchmark = fromArguments(args);
+    } catch (IllegalArgumentException | IOException e) {
+      System.out.println("Invalid arguments: " + e.getMessage());
+      exit(2);
+    }
+
+    try {
+      exit(benchmark.run() ? 0 : 1);
+    } catch (IllegalStateException | IOException e) {
+      System.out.println("Benchmark failed to run: " + e.getMessage());
+      exit(2);
+    }
+  }
+
+  // Queues the backfill, submits the interactive statements while it runs, and reports both.
+  private boolean run() throws IllegalStateException, IOException {
+    String ledger = new File(this.workDirectory, "ledger.csv").getPath();
+    List<File> inputs = new ArrayList<>();
+    List<CompletableFuture<Void>> bulkResults = new ArrayList<>();
+    List<CompletableFuture<Void>> interactiveResults = new ArrayList<>();
+    long[] latencyMillis = new long[this.interactiveCount];
+    int bulkRows = 0;
+    boolean bulkDrained = false;
+
+    long start = System.nanoTime();
+    try (ConversionScheduler scheduler = new ConversionScheduler(this.threads)) {
+      for (int i = 0; i < this.bulkCount; i++) {
+        File input = this.writeStatement("bulk-" + i, 2000 + i / 12, Month.asMonth(1 + i % 12), this.bulkSize);
+        inputs.add(input);
+        bulkRows += this.bulkSize;
+        bulkResults.add(scheduler.submit(ConversionLane.BULK, this.controller(input, new LedgerFileWriter(ledger))));
+      }
+
+      for (int i = 0; i < this.interactiveCount; i++) {
+        sleep(this.intervalMillis);
+        if (scheduler.getStats(ConversionLane.BULK).getDepth() == 0) {
+          bulkDrained = true;
+        }
+
+        File input = this.writeStatement("interactive-" + i, 2023, Month.asMonth(1 + this.random.nextInt(12)),
+          this.interactiveSize);
+        inputs.add(input);
+        String output = new File(this.workDirectory, "interactive-" + i + ".csv").getPath();
+        int index = i;
+        long submitted = System.nanoTime();
+        interactiveResults.add(scheduler.submit(ConversionLane.INTERACTIVE, this.controller(input, new StatementFileWriter(output)))
+          .whenComplete((result, error) -> latencyMillis[index] = (System.nanoTime() - submitted) / 1_000_000));
+      }
+
+      int failures = failures(bulkResults) + failures(interactiveResults);
+      LaneStats interactive = scheduler.getStats(ConversionLane.INTERACTIVE);
+      LaneStats bulk = scheduler.getStats(ConversionLane.BULK);
+      double seconds = (System.nanoTime() - start) / 1e9;
+
+      System.out.println(interactive);
+      System.out.println(bulk);
+      Arrays.sort(latencyMillis);
+      System.out.println(String.format("Interactive latency: median %d ms, 99th percentile %d ms, max %d ms",
+        latencyMillis[latencyMillis.length / 2], latencyMillis[(int) ((latencyMillis.length - 1) * 0.99)],
+        latencyMillis[latencyMillis.length - 1]));
+      System.out.println(String.format("Backfill: %d statement(s) in %.1f s, %.1f statements/s",
+        this.bulkCount, seconds, this.bulkCount / seconds));
+
+      boolean passed = failures == 0;
+      if (failures > 0) {
+        System.out.println(failures + " conversion(s) failed.");
+      }
+
+      if (bulkDrained) {
+        System.out.println("The backfill finished before every interactive statement was submitted; raise --bulk.");
+        passed = false;
+      }
+
+      if (interactive.getMaxWaitMillis() > this.maxWaitMillis) {
+        System.out.println("Longest interactive wait of " + interactive.getMaxWaitMillis() + " ms exceeds "
+          + this.maxWaitMillis + " ms.");
+        passed = false;
+      }
+
+      long ledgerRows = countRows(ledger);
+      if (ledgerRows != bulkRows) {
+        System.out.println("Ledger holds " + ledgerRows + " row(s) but the backfill had " + bulkRows + ".");
+        passed = false;
+      }
+
+      System.out.println(passed ? "PASSED" : "FAILED");
+      return passed;
+    } finally {
+      for (File input : inputs) {
+        Files.deleteIfExists(input.toPath());
+      }
+      for (int i = 0; i < this.interactiveCount; i++) {
+        Files.deleteIfExists(new File(this.workDirectory, "interactive-" + i + ".csv").toPath());
+      }
+      for (String suffix : new String[] {"", ".idx", ".journal", ".lock"}) {
+        Files.deleteIfExists(new File(ledger + suffix).toPath());
+      }
+    }
+  }
+
+  // Creates a controller converting the input to the exporter.
+  private SynchronousController controller(File input, StatementExporter exporter) {
+    PDFParser pdfParser = this.usePDF ? new PDFParserImpl() : new TextFileParser();
+    return new SynchronousControllerImpl(new DiscardingView(), pdfParser, exporter, input.getPath());
+  }
+
+  // Writes one TD Bank statement with the provided number of transactions.
+  private File writeStatement(String name, int year, Month month, int size) throws IllegalStateException, IOException {
+    List<String> lines = this.generator.tdBank(year, month, size);
+    File input = new File(this.workDirectory, name + (this.usePDF ? ".pdf" : ".txt"));
+    if (this.usePDF) {
+      GeneratedPDFWriter.write(lines, input);
+    } else {
+      Files.writeString(input.toPath(), String.join("\n", lines) + "\n", StandardCharsets.UTF_8);
+    }
+    return input;
+  }
+
+  // Waits for every conversion, returning how many of them failed.
+  private static int failures(List<CompletableFuture<Void>> results) throws IllegalStateException {
+    int failures = 0;
+    for (CompletableFuture<Void> result : results) {
+      try {
+        result.get();
+      } catch (ExecutionException e) {
+        System.out.println("Conversion failed: " + e.getCause().getMessage());
+        failures++;
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new IllegalStateException("Interrupted while waiting for conversions.");
+      }
+    }
+    return failures;
+  }
+
+  // Counts the rows of a CSV file below its header, or 0 if it does not exist.
+  private static long countRows(String filepath) throws IOException {
+    File file = new File(filepath);
+    if (!file.exists()) {
+      return 0;
+    }
+
+    try (var lines = Files.lines(file.toPath(), StandardCharsets.UTF_8)) {
+      return lines.count() - 1;
+    }
+  }
+
+  // Sleeps for the provided time.
+  private static void sleep(long millis) throws IllegalStateException {
+    try {
+      Thread.sleep(millis);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while submitting statements.");
+    }
+  }
+
+  // Creates a benchmark from the command line options.
+  private static SchedulerBenchmark fromArguments(String[] args) throws IllegalArgumentException, IOException {
+    int threads = 4;
+    int bulkCount = 100;
+    int bulkSize = 2000;
+    int interactiveCount = 50;
+    int interactiveSize = 20;
+    long intervalMillis = 20;
+    long maxWaitMillis = 50;
+    String mode = "pdf";
+    long seed = 1;
+
+    for (int i = 0; i < args.length; i++) {
+      if (i + 1 >= args.length) {
+        throw new IllegalArgumentException("Missing value for " + args[i]);
+      }
+
+      String value = args[++i];
+      switch (args[i - 1]) {
+        case "--threads": threads = Integer.parseInt(value); break;
+        case "--bulk": bulkCount = Integer.parseInt(value); break;
+        case "--bulk-size": bulkSize = Integer.parseInt(value); break;
+        case "--interactive": interactiveCount = Integer.parseInt(value); break;
+        case "--interactive-size": interactiveSize = Integer.parseInt(value); break;
+        case "--interval": intervalMillis = Long.parseLong(value); break;
+        case "--max-wait": maxWaitMillis = Long.parseLong(value); break;
+        case "--mode": mode = value; break;
+        case "--seed": seed = Long.parseLong(value); break;
+        default: throw new IllegalArgumentException("Unknown option: " + args[i - 1]);
+      }
+    }
+
+    if (!mode.equals("pdf") && !mode.equals("text")) {
+      throw new IllegalArgumentException("Mode must be pdf or text.");
+    }
+
+    if (threads < 2) {
+      throw new IllegalArgumentException("Threads must be at least 2, so one is left for interactive statements.");
+    }
+
+    if (bulkCount <= 0 || bulkSize <= 0 || interactiveCount <= 0 || interactiveSize <= 0) {
+      throw new IllegalArgumentException("Statement counts and sizes must be positive.");
+    }
+
+    if (intervalMillis < 0 || maxWaitMillis < 0) {
+      throw new IllegalArgumentException("Interval and wait cannot be negative.");
+    }
+
+    File workDirectory = Files.createTempDirectory("statement-scheduler").toFile();
+    workDirectory.deleteOnExit();
+
+    return new SchedulerBenchmark(threads, bulkCount, bulkSize, interactiveCount, interactiveSize, intervalMillis,
+      maxWaitMillis, mode.equals("pdf"), seed, workDirectory);
+  }
+
+  // Discards progress messages so the console shows only the results.
+  private static class DiscardingView implements StatementView {
+    @Override
+    public void renderMessage(String message) {
+      // Intentionally empty
+    }
+  }
+}
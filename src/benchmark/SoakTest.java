@@ -0,0 +1,348 @@
+package benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import controller.SynchronousController;
+import controller.SynchronousControllerImpl;
+import model.date.Month;
+import model.parser.pdf.PDFParser;
+import model.parser.pdf.PDFParserImpl;
+import view.StatementFileWriter;
+import view.StatementView;
+
+import static java.lang.System.exit;
+
+/**
+ * Runs the complete pipeline of {@code SynchronousControllerImpl} over thousands of generated
+ * statements in one process, a share of them malformed, to find resources which leak across
+ * conversions. Heap after garbage collection, open file descriptors, and live threads are
+ * sampled at regular intervals once a warm-up has loaded every class and cache a conversion needs.
+ * The run fails when any of them grows by more than its allowed amount over the sampled part of
+ * the run, when a well-formed statement fails to convert, or when a malformed statement fails with
+ * anything but the controller's documented exceptions.
+ *
+ * <p>Growth is the slope of a least-squares line through the samples, times the number of
+ * statements they span, so one sample inflated by garbage a collection happened to miss moves it
+ * little, but memory which is never released raises every later sample and so the slope.
+ */
+public class SoakTest {
+  // The ways a statement can be malformed.
+  private static final int EMPTY = 0;
+  private static final int TRUNCATED = 1;
+  private static final int RANDOM_BYTES = 2;
+  private static final int UNRECOGNIZED = 3;
+  private static final int CORRUPT_LINES = 4;
+  private static final int MALFORMED_KINDS = 5;
+
+  // Invariant: every field is set from the command line before the test runs.
+  private final int iterations;
+  private final int warmup;
+  private final int sampleEvery;
+  private final boolean usePDF;
+  private final double malformedRatio;
+  private final long maxHeapGrowthBytes;
+  private final long maxDescriptorGrowth;
+  private final int maxThreadGrowth;
+  private final File workDirectory;
+
+  // Invariant: random and generator are seeded from the command line, so runs are repeatable.
+  private final Random random;
+  private final StatementGenerator generator;
+
+  private SoakTest(int iterations, int warmup, int sampleEvery, boolean usePDF, double malformedRatio,
+                   long maxHeapGrowthBytes, long maxDescriptorGrowth, int maxThreadGrowth, long seed, File workDirectory) {
+    this.iterations = iterations;
+    this.warmup = warmup;
+    this.sampleEvery = sampleEvery;
+    this.usePDF = usePDF;
+    this.malformedRatio = malformedRatio;
+    this.maxHeapGrowthBytes = maxHeapGrowthBytes;
+    this.maxDescriptorGrowth = maxDescriptorGrowth;
+    this.maxThreadGrowth = maxThreadGrowth;
+    this.workDirectory = workDirectory;
+    this.random = new Random(seed);
+    this.generator = new StatementGenerator(seed);
+  }
+
+  /**
+   * Runs the soak test.
+   *
+   * @param args the options {@code --iterations} (statements to convert, default 5000),
+   *             {@code --warmup} (statements converted before the first sample, default 500),
+   *             {@code --sample-every} (statements between samples, default 100),
+   *             {@code --mode} ({@code pdf} to include text extraction, or {@code text} to start
+   *             from extracted text; default {@code pdf}), {@code --malformed} (fraction of
+   *             statements which are malformed, default 0.2), {@code --max-heap-growth} (allowed
+   *             growth of heap after collection over the sampled statements in megabytes,
+   *             default 16),
+   *             {@code --max-fd-growth} (allowed growth of open file descriptors, default 8),
+   *             {@code --max-thread-growth} (allowed growth of live threads, default 2), and
+   *             {@code --seed} (seed of the generated statements, default 1).
+   */
+  public static void main(String[] args) {
+    SoakTest test = null;
+    try {
+      test = fromArguments(args);
+    } catch (IllegalArgumentException | IOException e) {
+      System.out.println("Invalid arguments: " + e.getMessage());
+      exit(2);
+    }
+
+    try {
+      exit(test.run() ? 0 : 1);
+    } catch (IllegalStateException | IOException e) {
+      System.out.println("Soak test failed to run: " + e.getMessage());
+      exit(2);
+    }
+  }
+
+  // Converts every statement, sampling as it goes, returning whether no leak or failure was seen.
+  private boolean run() throws IllegalStateException, IOException {
+    String output = new File(this.workDirectory, "statement.csv").getPath();
+    List<Sample> samples = new ArrayList<>();
+    int converted = 0;
+    int rejected = 0;
+    int failures = 0;
+
+    System.out.println(String.format("%10s %12s %12s %10s", "iteration", "heap (MB)", "open files", "threads"));
+    for (int i = 0; i < this.iterations; i++) {
+      if (i >= this.warmup && (i - this.warmup) % this.sampleEvery == 0) {
+        samples.add(this.sample(i));
+      }
+
+      boolean malformed = this.random.nextDouble() < this.malformedRatio;
+      File input = new File(this.workDirectory, "statement-" + i + (this.usePDF ? ".pdf" : ".txt"));
+      int kind = malformed ? this.random.nextInt(MALFORMED_KINDS) : -1;
+      this.writeStatement(input, kind);
+
+      try {
+        PDFParser pdfParser = this.usePDF ? new PDFParserImpl() : new TextFileParser();
+        SynchronousController controller =
+          new SynchronousControllerImpl(new DiscardingView(), pdfParser, new StatementFileWriter(output), input.getPath());
+        controller.run();
+        converted++;
+      } catch (IllegalStateException | IllegalArgumentException e) {
+        if (malformed) {
+          rejected++;
+        } else {
+          System.out.println("Well-formed statement " + i + " failed: " + e.getMessage());
+          failures++;
+        }
+      } catch (RuntimeException e) {
+        System.out.println("Statement " + i + " failed with an undocumented exception: " + e);
+        failures++;
+      } finally {
+        Files.deleteIfExists(input.toPath());
+      }
+    }
+    samples.add(this.sample(this.iterations));
+
+    System.out.println(String.format("Converted %d statement(s), rejected %d malformed statement(s), %d failure(s).",
+      converted, rejected, failures));
+
+    boolean passed = failures == 0;
+    passed &= this.checkGrowth(samples, "Heap after collection", s -> s.heapBytes, this.maxHeapGrowthBytes, 1024 * 1024, "MB");
+    passed &= this.checkGrowth(samples, "Open file descriptors", s -> s.openDescriptors, this.maxDescriptorGrowth, 1, "");
+    passed &= this.checkGrowth(samples, "Live threads", s -> s.threads, this.maxThreadGrowth, 1, "");
+
+    Files.deleteIfExists(new File(output).toPath());
+    System.out.println(passed ? "PASSED" : "FAILED");
+    return passed;
+  }
+
+  // Writes one statement, well-formed if kind is negative and otherwise malformed in that way.
+  private void writeStatement(File input, int kind) throws IllegalStateException, IOException {
+    if (kind == EMPTY) {
+      Files.write(input.toPath(), new byte[0]);
+      return;
+    }
+
+    if (kind == RANDOM_BYTES) {
+      byte[] bytes = new byte[1 + this.random.nextInt(64 * 1024)];
+      this.random.nextBytes(bytes);
+      Files.write(input.toPath(), bytes);
+      return;
+    }
+
+    int size = 10 + this.random.nextInt(200);
+    Month month = Month.asMonth(1 + this.random.nextInt(12));
+    List<String> lines = this.random.nextBoolean()
+      ? this.generator.tdBank(2023, month, size)
+      : this.generator.discover(2023, month, size);
+
+    if (kind == UNRECOGNIZED) {
+      // Without its header, no statement type recognizes the text
+      lines = new ArrayList<>(lines.subList(1, lines.size()));
+      Collections.shuffle(lines, this.random);
+    } else if (kind == CORRUPT_LINES) {
+      // Dates which do not exist in the statement period
+      for (int line = 0; line < lines.size(); line++) {
+        if (this.random.nextInt(4) == 0) {
+          lines.set(line, lines.get(line).replaceFirst("^\\d\\d/\\d\\d", "13/45"));
+        }
+      }
+    }
+
+    if (this.usePDF) {
+      GeneratedPDFWriter.write(lines, input);
+    } else {
+      Files.writeString(input.toPath(), String.join("\n", lines) + "\n", StandardCharsets.UTF_8);
+    }
+
+    if (kind == TRUNCATED) {
+      byte[] bytes = Files.readAllBytes(input.toPath());
+      Files.write(input.toPath(), Arrays.copyOf(bytes, this.random.nextInt(bytes.length)));
+    }
+  }
+
+  // Measures the resources held between conversions.
+  private Sample sample(int iteration) {
+    System.gc();
+    System.gc();
+
+    long heapBytes = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    int threads = ManagementFactory.getThreadMXBean().getThreadCount();
+    long openDescriptors = openDescriptors();
+
+    System.out.println(String.format("%10d %12.1f %12s %10d", iteration, heapBytes / (1024.0 * 1024.0),
+      (openDescriptors < 0) ? "n/a" : Long.toString(openDescriptors), threads));
+    return new Sample(iteration, heapBytes, openDescriptors, threads);
+  }
+
+  // Reports how much a measurement grew over the sampled statements, fitting a line through the
+  // samples, returning whether it is within the allowed growth.
+  private boolean checkGrowth(List<Sample> samples, String name, Measurement measurement, long maxGrowth,
+                              double unit, String unitName) {
+    double meanIteration = 0;
+    double meanValue = 0;
+    for (Sample sample : samples) {
+      long value = measurement.of(sample);
+      if (value < 0) {
+        System.out.println(name + " cannot be measured on this platform; skipping.");
+        return true;
+      }
+
+      meanIteration += (double) sample.iteration / samples.size();
+      meanValue += (double) value / samples.size();
+    }
+
+    double covariance = 0;
+    double variance = 0;
+    for (Sample sample : samples) {
+      double iterationDelta = sample.iteration - meanIteration;
+      covariance += iterationDelta * (measurement.of(sample) - meanValue);
+      variance += iterationDelta * iterationDelta;
+    }
+
+    int span = samples.get(samples.size() - 1).iteration - samples.get(0).iteration;
+    double growth = covariance / variance * span;
+    String verdict = "";
+    if (growth > maxGrowth) {
+      verdict = " exceeds " + String.format("%.1f", maxGrowth / unit) + unitName;
+    }
+    System.out.println(String.format("%s grew by %.1f%s over %d statements%s", name, growth / unit, unitName, span, verdict));
+    return growth <= maxGrowth;
+  }
+
+  // Gets the number of file descriptors the process has open, or -1 if it cannot be measured.
+  private static long openDescriptors() {
+    OperatingSystemMXBean os = ManagementFactory.getOperatingSystemMXBean();
+    if (os instanceof com.sun.management.UnixOperatingSystemMXBean) {
+      return ((com.sun.management.UnixOperatingSystemMXBean) os).getOpenFileDescriptorCount();
+    }
+    return -1;
+  }
+
+  // Creates a soak test from the command line options.
+  private static SoakTest fromArguments(String[] args) throws IllegalArgumentException, IOException {
+    int iterations = 5000;
+    int warmup = 500;
+    int sampleEvery = 100;
+    String mode = "pdf";
+    double malformedRatio = 0.2;
+    double maxHeapGrowth = 16;
+    long maxDescriptorGrowth = 8;
+    int maxThreadGrowth = 2;
+    long seed = 1;
+
+    for (int i = 0; i < args.length; i++) {
+      if (i + 1 >= args.length) {
+        throw new IllegalArgumentException("Missing value for " + args[i]);
+      }
+
+      String value = args[++i];
+      switch (args[i - 1]) {
+        case "--iterations": iterations = Integer.parseInt(value); break;
+        case "--warmup": warmup = Integer.parseInt(value); break;
+        case "--sample-every": sampleEvery = Integer.parseInt(value); break;
+        case "--mode": mode = value; break;
+        case "--malformed": malformedRatio = Double.parseDouble(value); break;
+        case "--max-heap-growth": maxHeapGrowth = Double.parseDouble(value); break;
+        case "--max-fd-growth": maxDescriptorGrowth = Long.parseLong(value); break;
+        case "--max-thread-growth": maxThreadGrowth = Integer.parseInt(value); break;
+        case "--seed": seed = Long.parseLong(value); break;
+        default: throw new IllegalArgumentException("Unknown option: " + args[i - 1]);
+      }
+    }
+
+    if (!mode.equals("pdf") && !mode.equals("text")) {
+      throw new IllegalArgumentException("Mode must be pdf or text.");
+    }
+
+    if (warmup < 0) {
+      throw new IllegalArgumentException("Warm-up cannot be negative.");
+    }
+
+    if (sampleEvery <= 0 || iterations - warmup < 4 * sampleEvery) {
+      throw new IllegalArgumentException("Iterations after the warm-up must cover at least four samples.");
+    }
+
+    if (malformedRatio < 0 || malformedRatio > 1) {
+      throw new IllegalArgumentException("Malformed fraction must be between 0 and 1.");
+    }
+
+    File workDirectory = Files.createTempDirectory("statement-soak").toFile();
+    workDirectory.deleteOnExit();
+
+    return new SoakTest(iterations, warmup, sampleEvery, mode.equals("pdf"), malformedRatio,
+      (long) (maxHeapGrowth * 1024 * 1024), maxDescriptorGrowth, maxThreadGrowth, seed, workDirectory);
+  }
+
+  // Discards progress messages so the console shows only the samples.
+  private static class DiscardingView implements StatementView {
+    @Override
+    public void renderMessage(String message) {
+      // Intentionally empty
+    }
+  }
+
+  // Reads one measurement from a sample.
+  private interface Measurement {
+    long of(Sample sample);
+  }
+
+  // The resources held at one point in the run.
+  private static class Sample {
+    private final int iteration;
+    private final long heapBytes;
+    private final long openDescriptors;
+    private final long threads;
+
+    private Sample(int iteration, long heapBytes, long openDescriptors, long threads) {
+      this.iteration = iteration;
+      this.heapBytes = heapBytes;
+      this.openDescriptors = openDescriptors;
+      this.threads = threads;
+    }
+  }
+}
@@ -0,0 +1,132 @@
+package benchmark;
+
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import model.date.Month;
+
+/**
+ * Generates the text of synthetic statements in the layouts the statement parsers recognize,
+ * for exercising the pipeline at sizes no real statement reaches.
+ */
+public class StatementGenerator {
+  private static final String[] MONTH_NAMES = {
+    "Jan", "Feb", "Mar", "Apr", "May", "Jun", "Jul", "Aug", "Sep", "Oct", "Nov", "Dec"
+  };
+
+  private static final String[] MERCHANTS = {
+    "STARBUCKS STORE 01234 BOSTON", "AMZN MKTP US*2K3LL1", "SHELL OIL 57442", "WHOLEFDS CAM 10034",
+    "TST* JOE'S DINER", "UBER TRIP HELP.UBER.COM", "NETFLIX.COM", "COSTCO WHSE #0302",
+    "THE HOME DEPOT #2617", "CVS/PHARMACY #00734", "SQ *BLUE BOTTLE", "CITY PARKING GARAGE",
+  };
+
+  private static final String[] DISCOVER_CATEGORIES = {
+    "Restaurants", "Merchandise", "Gasoline", "Supermarkets", "Restaurants", "Travel/Entertainment",
+    "Services", "Warehouse Clubs", "Home Improvement", "Medical Services", "Restaurants", "Automotive",
+  };
+
+  private static final String[] DEPOSITS = {
+    "PAYROLL ACME CORP", "MOBILE DEPOSIT", "INTEREST PAID", "VENMO CASHOUT",
+  };
+
+  // Invariant: random is not null.
+  private final Random random;
+
+  /**
+   * Initializes a {@code StatementGenerator} whose output is determined by the provided seed.
+   * @param seed the seed of the random transactions
+   */
+  public StatementGenerator(long seed) {
+    this.random = new Random(seed);
+  }
+
+  /**
+   * Generates the lines of a TD Bank statement for one month.
+   * @param year the year of the statement
+   * @param month the month of the statement
+   * @param transactions the number of transactions on the statement
+   * @return the lines of the statement text
+   */
+  public List<String> tdBank(int year, Month month, int transactions) {
+    List<String> lines = new ArrayList<>();
+    String monthName = MONTH_NAMES[month.getIndex() - 1];
+    int days = daysIn(year, month);
+
+    lines.add("TD Bank, N.A. tdbank.com");
+    lines.add("Statement Period: " + monthName + " 01 " + year + "-" + monthName + " " + days + " " + year);
+    lines.add("DAILY ACCOUNT ACTIVITY");
+
+    int deposits = transactions / 5;
+    lines.add("Deposits");
+    lines.add("POSTING DATE DESCRIPTION AMOUNT");
+    for (int i = 0; i < deposits; i++) {
+      lines.add(this.dayOf(month, days) + " " + this.pick(DEPOSITS) + " " + this.amount(500_000, false));
+    }
+
+    lines.add("Electronic Payments");
+    lines.add("POSTING DATE DESCRIPTION AMOUNT");
+    for (int i = deposits; i < transactions; i++) {
+      lines.add(this.dayOf(month, days) + " DEBIT CARD PURCHASE AUT VISA DDA PUR "
+        + this.pick(MERCHANTS) + " * MA " + this.amount(30_000, false));
+    }
+
+    lines.add("DAILY BALANCE SUMMARY");
+    return lines;
+  }
+
+  /**
+   * Generates the lines of a Discover statement for one month.
+   * @param year the year of the statement
+   * @param month the month of the statement
+   * @param transactions the number of transactions on the statement
+   * @return the lines of the statement text
+   */
+  public List<String> discover(int year, Month month, int transactions) {
+    List<String> lines = new ArrayList<>();
+    int days = daysIn(year, month);
+    String monthIndex = String.format("%02d", month.getIndex());
+
+    lines.add("Discover.com");
+    lines.add("OPEN TO CLOSE DATE: " + monthIndex + "/01/" + year + " - " + monthIndex + "/" + days + "/" + year);
+    lines.add("DATE PAYMENTS AND CREDITS AMOUNT");
+
+    int credits = Math.max(1, transactions / 20);
+    for (int i = 0; i < credits; i++) {
+      lines.add(this.dayOf(month, days) + " INTERNET PAYMENT - THANK YOU Payments and Credits " + this.amount(200_000, true));
+    }
+
+    lines.add("DATE PURCHASES MERCHANT CATEGORY AMOUNT");
+    for (int i = credits; i < transactions; i++) {
+      int merchant = this.random.nextInt(MERCHANTS.length);
+      lines.add(this.dayOf(month, days) + " " + MERCHANTS[merchant] + " 800-555-" + (1000 + this.random.nextInt(9000))
+        + " MA " + DISCOVER_CATEGORIES[merchant] + " $" + this.amount(30_000, false));
+    }
+
+    lines.add("TOTAL FEES FOR THIS PERIOD $0.00");
+    return lines;
+  }
+
+  // Gets a random MM/DD day of the month.
+  private String dayOf(Month month, int days) {
+    return String.format("%02d/%02d", month.getIndex(), 1 + this.random.nextInt(days));
+  }
+
+  // Gets a random amount below the provided number of cents, with thousands separators.
+  private String amount(int maxCents, boolean isCredit) {
+    int cents = 1 + this.random.nextInt(maxCents);
+    return (isCredit ? "-$" : "") + String.format(Locale.US, "%,d.%02d", cents / 100, cents % 100);
+  }
+
+  // Gets a random element of the provided array.
+  private String pick(String[] options) {
+    return options[this.random.nextInt(options.length)];
+  }
+
+  // Gets the number of days in a month.
+  private static int daysIn(int year, Month month) {
+    return YearMonth.of(year, month.getIndex()).lengthOfMonth();
+  }
+}
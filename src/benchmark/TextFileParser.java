@@ -0,0 +1,43 @@
+package benchmark;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import model.parser.ProcessingBudget;
+import model.parser.pdf.PDFParser;
+
+/**
+ * Reads already-extracted statement text from a plain text file in place of a PDF, so the
+ * stages after text extraction can be measured on their own.
+ */
+public class TextFileParser implements PDFParser {
+  private String contents = null;
+
+  @Override
+  public void importFile(String filepath) throws IllegalStateException {
+    try {
+      this.contents = Files.readString(Path.of(filepath), StandardCharsets.UTF_8);
+    } catch (IOException e) {
+      throw new IllegalStateException("Failed to load text file.");
+    }
+  }
+
+  @Override
+  public String getTextContents() throws IllegalStateException {
+    return this.getTextContents(ProcessingBudget.unlimited());
+  }
+
+  @Override
+  public String getTextContents(ProcessingBudget budget) throws IllegalStateException {
+    if (this.contents == null) {
+      throw new IllegalStateException("There is no text file to parse.");
+    }
+
+    String text = this.contents;
+    this.contents = null;
+    budget.charge((long) text.length() * Character.BYTES);
+    return text;
+  }
+}
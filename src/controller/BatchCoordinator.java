@@ -0,0 +1,517 @@
+package controller;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import model.job.JobJournal;
+import view.ProgressEvent;
+import view.StatementView;
+
+/**
+ * Processes a batch of files across several worker JVMs, so that the memory and collection
+ * pauses of one document never limit the others. The coordinator listens on a socket and hands
+ * each connected {@link BatchWorker} one file at a time, so faster workers take on more files.
+ * Workers on this host are started and supervised by the coordinator, which restarts any that
+ * crash and hands their file to another worker; workers on other hosts sharing the filesystem may
+ * connect to the same socket. With a {@link JobJournal}, a restarted batch skips the files an
+ * earlier run completed.
+ *
+ * <p>Coordinator and workers exchange single lines: a worker announces itself with
+ * {@code READY <pid>}, and is then sent {@code FILE <path>}, to which it answers {@code OK} or
+ * {@code FAILED <message>}, until it is sent {@code STOP}.
+ */
+public class BatchCoordinator implements SynchronousController {
+  static final String READY = "READY";
+  static final String FILE = "FILE";
+  static final String OK = "OK";
+  static final String FAILED = "FAILED";
+  static final String STOP = "STOP";
+
+  // A file is given up on once the workers processing it have crashed this many times.
+  private static final int MAX_ATTEMPTS = 3;
+
+  // A worker is given this long past the deadline of a file to report its own cooperative timeout.
+  private static final long GRACE_MILLIS = 1000;
+
+  // A connection which does not announce itself within this long is dropped.
+  private static final int HANDSHAKE_MILLIS = 10000;
+
+  // Invariant: view is not null.
+  private final StatementView view;
+
+  // Invariant: inputFiles is not null and contains no duplicates.
+  private final List<String> inputFiles;
+
+  // Invariant: mainClass and workerArguments are not null.
+  private final String mainClass;
+  private final List<String> workerArguments;
+
+  // Invariant: workers is non-negative.
+  private final int workers;
+
+  // Invariant: bindAddress is not null, and port is between 0 and 65535, where 0 picks any free port.
+  private final String bindAddress;
+  private final int port;
+
+  // Invariant: timeoutMillis and maxHeapBytes are non-negative, where 0 means no limit.
+  private final long timeoutMillis;
+  private final long maxHeapBytes;
+
+  // Null when completed files are not journaled.
+  private final JobJournal journal;
+
+  // Invariant: guarded by this; every input file is pending, in flight, or completed.
+  private final Deque<String> pending;
+  private final Map<String, Integer> attempts;
+  private final Map<String, String> failures;
+  private final Set<Long> workerPids;
+  private int inFlight;
+  private int completed;
+  private int liveSupervisors;
+  private int restartsLeft;
+  private int skipped;
+
+  /**
+   * Initializes a coordinator for the provided files.
+   * @param view the view to which the result of every file will be sent
+   * @param inputFiles the filepaths of the files to be processed
+   * @param mainClass the fully qualified name of the class whose main method runs a worker
+   * @param workerArguments the arguments passed to the main method of each worker, which are
+   *                        followed by {@code --coordinator <host>:<port>}
+   * @param workers the number of workers to start on this host, which may be 0 if every worker
+   *                is started separately
+   * @param bindAddress the address on which to listen for workers
+   * @param port the port on which to listen for workers, or 0 for any free port
+   * @param timeoutMillis the milliseconds a worker may spend on one file before it is killed, or 0
+   *                      for no limit
+   * @param maxHeapBytes the maximum heap of each worker JVM, or 0 for the JVM default
+   * @throws IllegalArgumentException if any of the provided arguments is {@code null} OR if
+   * there are no input files OR if any count or limit is negative OR if the port is out of range.
+   */
+  public BatchCoordinator(StatementView view, List<String> inputFiles, String mainClass, List<String> workerArguments,
+                          int workers, String bindAddress, int port, long timeoutMillis, long maxHeapBytes) throws IllegalArgumentException {
+    this(view, inputFiles, mainClass, workerArguments, workers, bindAddress, port, timeoutMillis, maxHeapBytes, null);
+  }
+
+  /**
+   * Initializes a coordinator for the provided files, which skips files the journal records as
+   * completed with their current contents and records each file it completes successfully.
+   * @param view the view to which the result of every file will be sent
+   * @param inputFiles the filepaths of the files to be processed
+   * @param mainClass the fully qualified name of the class whose main method runs a worker
+   * @param workerArguments the arguments passed to the main method of each worker, which are
+   *                        followed by {@code --coordinator <host>:<port>}
+   * @param workers the number of workers to start on this host, which may be 0 if every worker
+   *                is started separately
+   * @param bindAddress the address on which to listen for workers
+   * @param port the port on which to listen for workers, or 0 for any free port
+   * @param timeoutMillis the milliseconds a worker may spend on one file before it is killed, or 0
+   *                      for no limit
+   * @param maxHeapBytes the maximum heap of each worker JVM, or 0 for the JVM default
+   * @param journal the journal of completed files, or {@code null} to process every file
+   * @throws IllegalArgumentException if any of the provided arguments other than the journal is
+   * {@code null} OR if there are no input files OR if any count or limit is negative OR if the
+   * port is out of range.
+   */
+  public BatchCoordinator(StatementView view, List<String> inputFiles, String mainClass, List<String> workerArguments,
+                          int workers, String bindAddress, int port, long timeoutMillis, long maxHeapBytes,
+                          JobJournal journal) throws IllegalArgumentException {
+    if (view == null) {
+      throw new IllegalArgumentException("View cannot be null.");
+    }
+
+    if (inputFiles == null || inputFiles.isEmpty()) {
+      throw new IllegalArgumentException("Input files cannot be empty.");
+    }
+
+    for (String inputFile : inputFiles) {
+      if (inputFile == null) {
+        throw new IllegalArgumentException("Input file cannot be null.");
+      }
+    }
+
+    if (mainClass == null) {
+      throw new IllegalArgumentException("Main class cannot be null.");
+    }
+
+    if (workerArguments == null) {
+      throw new IllegalArgumentException("Worker arguments cannot be null.");
+    }
+
+    if (bindAddress == null) {
+      throw new IllegalArgumentException("Bind address cannot be null.");
+    }
+
+    if (workers < 0 || timeoutMillis < 0 || maxHeapBytes < 0) {
+      throw new IllegalArgumentException("Workers and limits cannot be negative.");
+    }
+
+    if (port < 0 || port > 65535) {
+      throw new IllegalArgumentException("Port must be between 0 and 65535.");
+    }
+
+    this.view = view;
+    this.inputFiles = List.copyOf(new LinkedHashSet<>(inputFiles));
+    this.mainClass = mainClass;
+    this.workerArguments = List.copyOf(workerArguments);
+    this.workers = workers;
+    this.bindAddress = bindAddress;
+    this.port = port;
+    this.timeoutMillis = timeoutMillis;
+    this.maxHeapBytes = maxHeapBytes;
+    this.journal = journal;
+
+    this.pending = new ArrayDeque<>(this.inputFiles);
+    this.attempts = new HashMap<>();
+    this.failures = new LinkedHashMap<>();
+    this.workerPids = new HashSet<>();
+    this.restartsLeft = this.inputFiles.size() * MAX_ATTEMPTS;
+  }
+
+  @Override
+  public void run() throws IllegalStateException {
+    ServerSocket server;
+    try {
+      server = new ServerSocket(this.port, 50, InetAddress.getByName(this.bindAddress));
+    } catch (IOException e) {
+      throw new IllegalStateException("Failed to listen on " + this.bindAddress + ":" + this.port + ".");
+    }
+
+    String address = (server.getInetAddress().isAnyLocalAddress() ? InetAddress.getLoopbackAddress().getHostAddress()
+      : server.getInetAddress().getHostAddress()) + ":" + server.getLocalPort();
+    this.transitEvent(ProgressEvent.notice("Coordinating " + this.inputFiles.size() + " file(s) on " + address + "\n"));
+
+    this.skipCompleted();
+
+    Thread acceptor = new Thread(() -> this.accept(server), "batch-acceptor");
+    acceptor.setDaemon(true);
+    acceptor.start();
+
+    List<Thread> supervisors = new ArrayList<>();
+    synchronized (this) {
+      this.liveSupervisors = this.workers;
+    }
+    for (int i = 0; i < this.workers; i++) {
+      Thread supervisor = new Thread(() -> this.supervise(address), "batch-supervisor-" + i);
+      supervisor.setDaemon(true);
+      supervisor.start();
+      supervisors.add(supervisor);
+    }
+
+    try {
+      synchronized (this) {
+        while (this.completed < this.inputFiles.size()) {
+          // Local workers have all given up, so nothing will take the remaining files
+          if (this.workers > 0 && this.liveSupervisors == 0 && this.inFlight == 0) {
+            while (!this.pending.isEmpty()) {
+              this.record(this.pending.poll(), "No workers left to process file.");
+            }
+            break;
+          }
+          this.wait();
+        }
+      }
+
+      for (Thread supervisor : supervisors) {
+        supervisor.join(GRACE_MILLIS);
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while coordinating workers.");
+    } finally {
+      try {
+        server.close();
+      } catch (IOException e) {
+        // The socket is no longer needed either way
+      }
+      synchronized (this) {
+        this.workerPids.forEach(pid -> ProcessHandle.of(pid).ifPresent(ProcessHandle::destroyForcibly));
+      }
+    }
+
+    Map<String, String> failed;
+    int skippedCount;
+    synchronized (this) {
+      failed = new LinkedHashMap<>(this.failures);
+      skippedCount = this.skipped;
+    }
+
+    this.transitEvent(ProgressEvent.notice("\nProcessed " + this.inputFiles.size() + " file(s): "
+      + (this.inputFiles.size() - failed.size() - skippedCount) + " succeeded, " + failed.size() + " failed, "
+      + skippedCount + " skipped.\n"));
+
+    if (!failed.isEmpty()) {
+      throw new IllegalStateException(failed.size() + " of " + this.inputFiles.size() + " file(s) failed.");
+    }
+  }
+
+  // Accepts workers until the server socket is closed, serving each on its own thread.
+  private void accept(ServerSocket server) {
+    while (!server.isClosed()) {
+      try {
+        Socket socket = server.accept();
+        Thread connection = new Thread(() -> this.serve(socket), "batch-connection");
+        connection.setDaemon(true);
+        connection.start();
+      } catch (IOException e) {
+        // The server socket was closed once every file completed
+      }
+    }
+  }
+
+  // Starts a local worker, restarting it whenever it crashes while there is work left.
+  private void supervise(String address) {
+    try {
+      while (true) {
+        synchronized (this) {
+          if (this.completed == this.inputFiles.size()) {
+            return;
+          }
+        }
+
+        Process worker = this.startWorker(address);
+        synchronized (this) {
+          this.workerPids.add(worker.pid());
+        }
+
+        int exitCode = worker.waitFor();
+        synchronized (this) {
+          this.workerPids.remove(worker.pid());
+          if (exitCode == 0 || this.completed == this.inputFiles.size()) {
+            return;
+          }
+
+          if (this.restartsLeft-- <= 0) {
+            this.transitEvent(ProgressEvent.notice("Worker exited with code " + exitCode + "; giving up on restarting it.\n"));
+            return;
+          }
+        }
+        this.transitEvent(ProgressEvent.notice("Worker exited with code " + exitCode + "; restarting it.\n"));
+      }
+    } catch (IOException | IllegalStateException e) {
+      this.transitEvent(ProgressEvent.notice("Failed to start worker: " + e.getMessage() + "\n"));
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } finally {
+      synchronized (this) {
+        this.liveSupervisors--;
+        this.notifyAll();
+      }
+    }
+  }
+
+  // Starts a worker JVM which connects to the provided address.
+  private Process startWorker(String address) throws IOException {
+    List<String> command = new ArrayList<>();
+    command.add(System.getProperty("java.home") + File.separator + "bin" + File.separator + "java");
+    if (this.maxHeapBytes > 0) {
+      command.add("-Xmx" + Math.max(1, this.maxHeapBytes / (1024 * 1024)) + "m");
+    }
+    command.add("-cp");
+    command.add(System.getProperty("java.class.path"));
+    command.add(this.mainClass);
+    command.addAll(this.workerArguments);
+    command.add("--coordinator");
+    command.add(address);
+
+    // Results are reported over the socket, so only errors are shown
+    return new ProcessBuilder(command)
+      .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+      .redirectError(ProcessBuilder.Redirect.INHERIT)
+      .start();
+  }
+
+  // Hands files to one connected worker until there are none left or the worker is lost.
+  private void serve(Socket socket) {
+    String inputFile = null;
+    long pid = -1;
+
+    try (socket;
+         BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+         Writer writer = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8))) {
+      socket.setSoTimeout(HANDSHAKE_MILLIS);
+      String hello = reader.readLine();
+      if (hello == null || !hello.startsWith(READY + " ")) {
+        return;
+      }
+      pid = Long.parseLong(hello.substring(READY.length() + 1));
+      socket.setSoTimeout(this.timeoutMillis == 0 ? 0 : (int) Math.min(Integer.MAX_VALUE, this.timeoutMillis + GRACE_MILLIS));
+
+      while ((inputFile = this.take()) != null) {
+        // Hash the contents before they are processed, so a file changed meanwhile is not skipped later
+        String hash = this.hashOf(inputFile);
+
+        writer.write(FILE + " " + inputFile + "\n");
+        writer.flush();
+
+        String reply = reader.readLine();
+        if (reply == null) {
+          return;
+        } else if (reply.equals(OK)) {
+          this.recordComplete(inputFile, hash);
+          this.complete(inputFile, null);
+        } else if (reply.startsWith(FAILED + " ")) {
+          this.complete(inputFile, reply.substring(FAILED.length() + 1));
+        } else {
+          this.complete(inputFile, "Unexpected reply from worker: " + reply);
+        }
+        inputFile = null;
+      }
+
+      writer.write(STOP + "\n");
+      writer.flush();
+    } catch (SocketTimeoutException e) {
+      if (inputFile != null) {
+        this.complete(inputFile, "Worker exceeded the deadline of " + this.timeoutMillis + " ms and was killed.");
+        inputFile = null;
+      }
+      this.kill(pid);
+    } catch (IOException | NumberFormatException e) {
+      // The worker crashed or was killed; its file is handed out again below
+    } finally {
+      if (inputFile != null) {
+        this.retry(inputFile);
+      }
+    }
+  }
+
+  // Marks every file the journal records as completed with its current contents as skipped.
+  private synchronized void skipCompleted() {
+    if (this.journal == null) {
+      return;
+    }
+
+    for (String inputFile : this.inputFiles) {
+      boolean complete;
+      try {
+        complete = this.journal.isComplete(inputFile);
+      } catch (IllegalStateException e) {
+        // Unreadable files are handed to a worker, which reports the error
+        complete = false;
+      }
+
+      if (complete) {
+        this.pending.remove(inputFile);
+        this.completed++;
+        this.skipped++;
+      }
+    }
+
+    if (this.skipped > 0) {
+      this.transitEvent(ProgressEvent.notice("Skipping " + this.skipped + " file(s) completed by an earlier run.\n"));
+    }
+  }
+
+  // Gets the hash of a file to be recorded in the journal, or null if there is no journal or the
+  // file cannot be read.
+  private String hashOf(String inputFile) {
+    if (this.journal == null) {
+      return null;
+    }
+
+    try {
+      return JobJournal.hashOf(inputFile);
+    } catch (IllegalStateException e) {
+      return null;
+    }
+  }
+
+  // Records a completed file in the journal, if there is one.
+  private void recordComplete(String inputFile, String hash) {
+    if (this.journal == null || hash == null) {
+      return;
+    }
+
+    try {
+      this.journal.recordComplete(inputFile, hash);
+    } catch (IllegalStateException e) {
+      this.transitEvent(ProgressEvent.notice("Failed to record " + inputFile + " in the journal: " + e.getMessage() + "\n"));
+    }
+  }
+
+  // Waits for a file to hand out, returning null once every file has completed.
+  private synchronized String take() {
+    try {
+      while (this.pending.isEmpty() && this.completed < this.inputFiles.size()) {
+        this.wait();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return null;
+    }
+
+    String inputFile = this.pending.poll();
+    if (inputFile != null) {
+      this.inFlight++;
+    }
+    return inputFile;
+  }
+
+  // Records the result of a file handed to a worker, where a null failure means it succeeded.
+  private synchronized void complete(String inputFile, String failure) {
+    this.inFlight--;
+    this.record(inputFile, failure);
+  }
+
+  // Records the result of a file, where a null failure means it succeeded.
+  private synchronized void record(String inputFile, String failure) {
+    this.completed++;
+
+    if (failure == null) {
+      this.transitEvent(ProgressEvent.succeeded(inputFile, "Processed " + inputFile + "\n"));
+    } else {
+      this.failures.put(inputFile, failure);
+      this.transitEvent(ProgressEvent.failed(inputFile, "Failed " + inputFile + ": " + failure + "\n"));
+    }
+    this.notifyAll();
+  }
+
+  // Hands a file whose worker was lost to another worker, unless it has crashed too many already.
+  private synchronized void retry(String inputFile) {
+    int attempt = this.attempts.merge(inputFile, 1, Integer::sum);
+    if (attempt >= MAX_ATTEMPTS) {
+      this.complete(inputFile, "Worker crashed on " + attempt + " attempts.");
+      return;
+    }
+
+    this.inFlight--;
+    this.pending.addFirst(inputFile);
+    this.notifyAll();
+  }
+
+  // Kills a worker which this coordinator started, leaving workers on other hosts alone.
+  private synchronized void kill(long pid) {
+    if (this.workerPids.contains(pid)) {
+      ProcessHandle.of(pid).ifPresent(ProcessHandle::destroyForcibly);
+    }
+  }
+
+  // Sends an event to the view, ignoring any error so that one message cannot stall the batch.
+  private void transitEvent(ProgressEvent event) {
+    try {
+      this.view.renderEvent(event);
+    } catch (IOException e) {
+      // Results are still summarized by run
+    }
+  }
+}
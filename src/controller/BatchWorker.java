@@ -0,0 +1,85 @@
+package controller;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Function;
+
+/**
+ * Processes files handed out by a {@link BatchCoordinator}, one at a time, until the coordinator
+ * has no more work. Each file is processed by a fresh controller, and its success or failure is
+ * reported back to the coordinator before the next file is received.
+ */
+public class BatchWorker implements SynchronousController {
+  // Invariant: host is not null.
+  private final String host;
+
+  // Invariant: port is between 1 and 65535.
+  private final int port;
+
+  // Invariant: controllers is not null.
+  private final Function<String, SynchronousController> controllers;
+
+  /**
+   * Initializes a worker which connects to the coordinator at the provided address.
+   * @param host the host name or address of the coordinator
+   * @param port the port on which the coordinator is listening
+   * @param controllers creates the controller which processes the file at a provided path
+   * @throws IllegalArgumentException if any of the provided arguments is {@code null} OR if the
+   * port is out of range.
+   */
+  public BatchWorker(String host, int port, Function<String, SynchronousController> controllers) throws IllegalArgumentException {
+    if (host == null) {
+      throw new IllegalArgumentException("Host cannot be null.");
+    }
+
+    if (port < 1 || port > 65535) {
+      throw new IllegalArgumentException("Port must be between 1 and 65535.");
+    }
+
+    if (controllers == null) {
+      throw new IllegalArgumentException("Controllers cannot be null.");
+    }
+
+    this.host = host;
+    this.port = port;
+    this.controllers = controllers;
+  }
+
+  @Override
+  public void run() throws IllegalStateException {
+    try (Socket socket = new Socket(this.host, this.port);
+         BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+         Writer writer = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8))) {
+      send(writer, BatchCoordinator.READY + " " + ProcessHandle.current().pid());
+
+      String command;
+      while ((command = reader.readLine()) != null && command.startsWith(BatchCoordinator.FILE + " ")) {
+        String inFile = command.substring(BatchCoordinator.FILE.length() + 1);
+        try {
+          this.controllers.apply(inFile).run();
+          send(writer, BatchCoordinator.OK);
+        } catch (IllegalArgumentException | IllegalStateException e) {
+          send(writer, BatchCoordinator.FAILED + " " + e.getMessage());
+        }
+      }
+
+      if (!BatchCoordinator.STOP.equals(command)) {
+        throw new IllegalStateException("Lost connection to coordinator.");
+      }
+    } catch (IOException e) {
+      throw new IllegalStateException("Failed to communicate with coordinator: " + e.getMessage());
+    }
+  }
+
+  // Sends a single line to the coordinator.
+  private static void send(Writer writer, String line) throws IOException {
+    writer.write(line.replace('\n', ' ').replace('\r', ' ') + "\n");
+    writer.flush();
+  }
+}
@@ -0,0 +1,16 @@
+package controller;
+
+/**
+ * Represents the queue a conversion waits in before a {@link ConversionScheduler} runs it.
+ */
+public enum ConversionLane {
+  /**
+   * Conversions a user is waiting on, which should start as soon as possible.
+   */
+  INTERACTIVE,
+
+  /**
+   * Conversions submitted in bulk, such as backfills, which use whatever capacity is left.
+   */
+  BULK
+}
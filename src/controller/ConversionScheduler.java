@@ -0,0 +1,262 @@
+package controller;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Runs controllers on a fixed set of threads, taking them from one queue per
+ * {@link ConversionLane}, so a user's single statement does not wait behind every file of a
+ * backfill. When several lanes are waiting, each free thread takes the next conversion from the
+ * lane that has been served least relative to its weight, so a lane with weight 4 starts four
+ * conversions for every one started by a lane with weight 1 while both are busy, and an idle
+ * lane earns no credit to burst with later. Each lane may also be limited to fewer running
+ * conversions than there are threads; keeping bulk below the thread count leaves a thread free
+ * for an interactive conversion to start on at once, while bulk work uses all the rest.
+ *
+ * <p>The depth and wait times of each lane are available from {@link #getStats(ConversionLane)}.
+ *
+ * <p>The scheduler is for programs embedding the parser; no mode of {@code StatementParserRunner}
+ * uses it, and {@code benchmark.SchedulerBenchmark} measures the wait times of interactive
+ * conversions while bulk ones keep every other thread busy. Each conversion's
+ * {@code ProcessingBudget} limits only the memory charged to its own document, so conversions
+ * running at once do not count against each other's limits, and the exporters that write to a
+ * shared file, {@code LedgerFileWriter} and {@code RollingSummaryExporter}, lock it, so
+ * conversions writing to the same ledger or summary may run at once.
+ */
+public class ConversionScheduler implements AutoCloseable {
+  private static final ConversionLane[] LANES = ConversionLane.values();
+
+  // Invariant: every lane has a positive weight and a positive concurrency limit.
+  private final int[] weights;
+  private final int[] limits;
+
+  // Invariant: threads is not empty.
+  private final List<Thread> threads;
+
+  // Invariant: guarded by this. Each lane's queue holds its waiting conversions in the order
+  // they were submitted, and no lane runs more than its limit.
+  private final List<Deque<Job>> queues;
+  private final int[] running;
+  private final long[] started;
+  private final long[] failed;
+  private final long[] totalWaitMillis;
+  private final long[] maxWaitMillis;
+
+  // Invariant: guarded by this. A lane's pass is the share of service it has received, advanced
+  // by the reciprocal of its weight with each conversion it starts; virtualTime is the pass of
+  // the last lane served, which an idle lane catches up to when it becomes busy again.
+  private final double[] passes;
+  private double virtualTime;
+  private boolean closed;
+
+  /**
+   * Initializes a scheduler with the provided number of threads, where interactive conversions
+   * have four times the weight of bulk ones and bulk conversions may use every thread but one.
+   * @param threadCount the number of conversions to run at once
+   * @throws IllegalArgumentException if {@code threadCount} is less than 2.
+   */
+  public ConversionScheduler(int threadCount) throws IllegalArgumentException {
+    this(threadCount, 4, threadCount, 1, threadCount - 1);
+  }
+
+  /**
+   * Initializes a scheduler with the provided number of threads, and the weight and concurrency
+   * limit of each lane.
+   * @param threadCount the number of conversions to run at once
+   * @param interactiveWeight the share of threads given to interactive conversions
+   * @param interactiveLimit the most interactive conversions run at once
+   * @param bulkWeight the share of threads given to bulk conversions
+   * @param bulkLimit the most bulk conversions run at once
+   * @throws IllegalArgumentException if any of the provided arguments is not positive.
+   */
+  public ConversionScheduler(int threadCount, int interactiveWeight, int interactiveLimit, int bulkWeight,
+                             int bulkLimit) throws IllegalArgumentException {
+    if (threadCount <= 0 || interactiveWeight <= 0 || interactiveLimit <= 0 || bulkWeight <= 0 || bulkLimit <= 0) {
+      throw new IllegalArgumentException("Threads, weights, and limits must be positive.");
+    }
+
+    this.weights = new int[LANES.length];
+    this.limits = new int[LANES.length];
+    this.weights[ConversionLane.INTERACTIVE.ordinal()] = interactiveWeight;
+    this.limits[ConversionLane.INTERACTIVE.ordinal()] = interactiveLimit;
+    this.weights[ConversionLane.BULK.ordinal()] = bulkWeight;
+    this.limits[ConversionLane.BULK.ordinal()] = bulkLimit;
+
+    this.queues = new ArrayList<>();
+    for (int i = 0; i < LANES.length; i++) {
+      this.queues.add(new ArrayDeque<>());
+    }
+    this.running = new int[LANES.length];
+    this.started = new long[LANES.length];
+    this.failed = new long[LANES.length];
+    this.totalWaitMillis = new long[LANES.length];
+    this.maxWaitMillis = new long[LANES.length];
+    this.passes = new double[LANES.length];
+
+    this.threads = new ArrayList<>();
+    for (int i = 0; i < threadCount; i++) {
+      Thread thread = new Thread(this::runJobs, "conversion-" + i);
+      thread.setDaemon(true);
+      thread.start();
+      this.threads.add(thread);
+    }
+  }
+
+  /**
+   * Queues a controller to be run in the provided lane.
+   * @param lane the lane to wait in
+   * @param controller the controller to run
+   * @return a future completed when the controller finishes, exceptionally with whatever it threw
+   * @throws IllegalArgumentException if either argument is {@code null}.
+   * @throws IllegalStateException if the scheduler has been closed.
+   */
+  public synchronized CompletableFuture<Void> submit(ConversionLane lane, SynchronousController controller)
+    throws IllegalArgumentException, IllegalStateException {
+    if (lane == null) {
+      throw new IllegalArgumentException("Lane cannot be null.");
+    }
+
+    if (controller == null) {
+      throw new IllegalArgumentException("Controller cannot be null.");
+    }
+
+    if (this.closed) {
+      throw new IllegalStateException("Scheduler has been closed.");
+    }
+
+    Deque<Job> queue = this.queues.get(lane.ordinal());
+    if (queue.isEmpty() && this.running[lane.ordinal()] == 0) {
+      // An idle lane resumes at the current share, rather than catching up on service it missed
+      this.passes[lane.ordinal()] = Math.max(this.passes[lane.ordinal()], this.virtualTime);
+    }
+
+    Job job = new Job(controller);
+    queue.add(job);
+    this.notifyAll();
+    return job.result;
+  }
+
+  /**
+   * Gets the current depth, running count, and wait times of a lane.
+   * @param lane the lane
+   * @return the statistics of the lane
+   * @throws IllegalArgumentException if {@code lane} is {@code null}.
+   */
+  public synchronized LaneStats getStats(ConversionLane lane) throws IllegalArgumentException {
+    if (lane == null) {
+      throw new IllegalArgumentException("Lane cannot be null.");
+    }
+
+    int index = lane.ordinal();
+    Job oldest = this.queues.get(index).peek();
+    long oldestWaitMillis = (oldest == null) ? 0 : (System.nanoTime() - oldest.submittedNanos) / 1_000_000;
+    return new LaneStats(lane, this.queues.get(index).size(), this.running[index], this.started[index],
+      this.failed[index], this.totalWaitMillis[index], this.maxWaitMillis[index], oldestWaitMillis);
+  }
+
+  /**
+   * Stops accepting conversions, and waits for every queued and running conversion to finish.
+   * @throws IllegalStateException if interrupted while waiting.
+   */
+  @Override
+  public void close() throws IllegalStateException {
+    synchronized (this) {
+      this.closed = true;
+      this.notifyAll();
+    }
+
+    try {
+      for (Thread thread : this.threads) {
+        thread.join();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while waiting for conversions to finish.");
+    }
+  }
+
+  // Runs conversions until the scheduler is closed and every lane is empty.
+  private void runJobs() {
+    while (true) {
+      int lane;
+      Job job;
+      synchronized (this) {
+        try {
+          while ((lane = this.nextLane()) < 0) {
+            if (this.closed && this.isEmpty()) {
+              return;
+            }
+            this.wait();
+          }
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          return;
+        }
+
+        job = this.queues.get(lane).poll();
+        long waitMillis = (System.nanoTime() - job.submittedNanos) / 1_000_000;
+        this.running[lane]++;
+        this.started[lane]++;
+        this.totalWaitMillis[lane] += waitMillis;
+        this.maxWaitMillis[lane] = Math.max(this.maxWaitMillis[lane], waitMillis);
+        this.virtualTime = this.passes[lane];
+        this.passes[lane] += 1.0 / this.weights[lane];
+      }
+
+      boolean succeeded = false;
+      try {
+        job.controller.run();
+        succeeded = true;
+        job.result.complete(null);
+      } catch (Throwable e) {
+        // Even an error fails only its own conversion, so the thread stays to run the next one
+        job.result.completeExceptionally(e);
+      } finally {
+        synchronized (this) {
+          this.running[lane]--;
+          if (!succeeded) {
+            this.failed[lane]++;
+          }
+          this.notifyAll();
+        }
+      }
+    }
+  }
+
+  // Gets the waiting lane under its limit with the least service for its weight, or -1 if none.
+  private int nextLane() {
+    int next = -1;
+    for (int lane = 0; lane < LANES.length; lane++) {
+      if (!this.queues.get(lane).isEmpty() && this.running[lane] < this.limits[lane]
+        && (next < 0 || this.passes[lane] < this.passes[next])) {
+        next = lane;
+      }
+    }
+    return next;
+  }
+
+  private boolean isEmpty() {
+    for (Deque<Job> queue : this.queues) {
+      if (!queue.isEmpty()) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  // One queued conversion.
+  private static class Job {
+    private final SynchronousController controller;
+    private final long submittedNanos;
+    private final CompletableFuture<Void> result;
+
+    private Job(SynchronousController controller) {
+      this.controller = controller;
+      this.submittedNanos = System.nanoTime();
+      this.result = new CompletableFuture<>();
+    }
+  }
+}
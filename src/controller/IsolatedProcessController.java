@@ -0,0 +1,131 @@
+package controller;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import model.parser.BudgetExceededException;
+import view.StatementView;
+
+/**
+ * Controls a statement parser running in a separate child JVM, so that a pathological document
+ * cannot exhaust the memory of, or stall, the process that started it. The child's output is
+ * sent to the view, and the child is killed if it outlives its deadline.
+ */
+public class IsolatedProcessController implements SynchronousController {
+  // The child is given this long past the deadline to report its own cooperative timeout.
+  private static final long GRACE_MILLIS = 1000;
+
+  // Invariant: view is not null.
+  private final StatementView view;
+
+  // Invariant: mainClass is not null.
+  private final String mainClass;
+
+  // Invariant: arguments is not null.
+  private final List<String> arguments;
+
+  // Invariant: timeoutMillis and maxHeapBytes are non-negative, where 0 means no limit.
+  private final long timeoutMillis;
+  private final long maxHeapBytes;
+
+  /**
+   * Initializes a controller which runs the provided main class in a child JVM.
+   * @param view the view to which the output of the child will be sent
+   * @param mainClass the fully qualified name of the class whose main method processes a file
+   * @param arguments the arguments passed to the main method
+   * @param timeoutMillis the milliseconds the child may run before it is killed, or 0 for no limit
+   * @param maxHeapBytes the maximum heap of the child JVM, or 0 for the JVM default
+   * @throws IllegalArgumentException if any of the provided arguments is {@code null} OR if
+   * either limit is negative.
+   */
+  public IsolatedProcessController(StatementView view, String mainClass, List<String> arguments, long timeoutMillis, long maxHeapBytes) throws IllegalArgumentException {
+    if (view == null) {
+      throw new IllegalArgumentException("View cannot be null.");
+    }
+
+    if (mainClass == null) {
+      throw new IllegalArgumentException("Main class cannot be null.");
+    }
+
+    if (arguments == null) {
+      throw new IllegalArgumentException("Arguments cannot be null.");
+    }
+
+    if (timeoutMillis < 0 || maxHeapBytes < 0) {
+      throw new IllegalArgumentException("Limits cannot be negative.");
+    }
+
+    this.view = view;
+    this.mainClass = mainClass;
+    this.arguments = List.copyOf(arguments);
+    this.timeoutMillis = timeoutMillis;
+    this.maxHeapBytes = maxHeapBytes;
+  }
+
+  @Override
+  public void run() throws IllegalStateException {
+    List<String> command = new ArrayList<>();
+    command.add(System.getProperty("java.home") + File.separator + "bin" + File.separator + "java");
+    if (this.maxHeapBytes > 0) {
+      command.add("-Xmx" + Math.max(1, this.maxHeapBytes / (1024 * 1024)) + "m");
+    }
+    command.add("-cp");
+    command.add(System.getProperty("java.class.path"));
+    command.add(this.mainClass);
+    command.addAll(this.arguments);
+
+    Process child;
+    try {
+      child = new ProcessBuilder(command).redirectErrorStream(true).start();
+    } catch (IOException e) {
+      throw new IllegalStateException("Failed to start child process.");
+    }
+
+    Thread forwarder = new Thread(() -> this.forwardOutput(child), "isolated-output");
+    forwarder.setDaemon(true);
+    forwarder.start();
+
+    try {
+      boolean finished;
+      if (this.timeoutMillis == 0) {
+        child.waitFor();
+        finished = true;
+      } else {
+        finished = child.waitFor(this.timeoutMillis + GRACE_MILLIS, TimeUnit.MILLISECONDS);
+      }
+
+      if (!finished) {
+        child.destroyForcibly().waitFor();
+        throw new BudgetExceededException("Child process exceeded its deadline of " + this.timeoutMillis + " ms and was killed.");
+      }
+
+      forwarder.join(GRACE_MILLIS);
+
+      if (child.exitValue() != 0) {
+        throw new IllegalStateException("Child process failed with exit code " + child.exitValue() + ".");
+      }
+    } catch (InterruptedException e) {
+      child.destroyForcibly();
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while waiting for child process.");
+    }
+  }
+
+  // Sends each line the child prints to the view.
+  private void forwardOutput(Process child) {
+    try (BufferedReader reader = new BufferedReader(new InputStreamReader(child.getInputStream(), StandardCharsets.UTF_8))) {
+      String line;
+      while ((line = reader.readLine()) != null) {
+        this.view.renderMessage(line + "\n");
+      }
+    } catch (IOException e) {
+      // The child has exited or been killed; its exit status is reported by run
+    }
+  }
+}
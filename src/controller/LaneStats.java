@@ -0,0 +1,99 @@
+package controller;
+
+/**
+ * Represents the state of one lane of a {@link ConversionScheduler} at a moment in time.
+ */
+public class LaneStats {
+  // Invariant: lane is not null, and every count and time is non-negative.
+  private final ConversionLane lane;
+  private final int depth;
+  private final int running;
+  private final long started;
+  private final long failed;
+  private final long totalWaitMillis;
+  private final long maxWaitMillis;
+  private final long oldestWaitMillis;
+
+  LaneStats(ConversionLane lane, int depth, int running, long started, long failed, long totalWaitMillis,
+            long maxWaitMillis, long oldestWaitMillis) {
+    this.lane = lane;
+    this.depth = depth;
+    this.running = running;
+    this.started = started;
+    this.failed = failed;
+    this.totalWaitMillis = totalWaitMillis;
+    this.maxWaitMillis = maxWaitMillis;
+    this.oldestWaitMillis = oldestWaitMillis;
+  }
+
+  /**
+   * Gets the lane these statistics describe.
+   * @return the lane
+   */
+  public ConversionLane getLane() {
+    return this.lane;
+  }
+
+  /**
+   * Gets the number of conversions waiting in the lane.
+   * @return the queue depth
+   */
+  public int getDepth() {
+    return this.depth;
+  }
+
+  /**
+   * Gets the number of conversions from the lane which are running.
+   * @return the number running
+   */
+  public int getRunning() {
+    return this.running;
+  }
+
+  /**
+   * Gets the number of conversions from the lane which have started.
+   * @return the number started
+   */
+  public long getStarted() {
+    return this.started;
+  }
+
+  /**
+   * Gets the number of conversions from the lane which have failed.
+   * @return the number failed
+   */
+  public long getFailed() {
+    return this.failed;
+  }
+
+  /**
+   * Gets the average milliseconds a started conversion waited in the lane.
+   * @return the mean wait, or 0 if none has started
+   */
+  public double getMeanWaitMillis() {
+    return (this.started == 0) ? 0 : (double) this.totalWaitMillis / this.started;
+  }
+
+  /**
+   * Gets the most milliseconds a started conversion waited in the lane.
+   * @return the longest wait
+   */
+  public long getMaxWaitMillis() {
+    return this.maxWaitMillis;
+  }
+
+  /**
+   * Gets the milliseconds the conversion at the head of the lane has been waiting so far.
+   * @return the current wait, or 0 if the lane is empty
+   */
+  public long getOldestWaitMillis() {
+    return this.oldestWaitMillis;
+  }
+
+  @Override
+  public String toString() {
+    return String.format("%s: %d waiting (oldest %d ms), %d running, %d started, %d failed, wait mean %.1f ms max %d ms",
+      this.lane, this.depth, this.oldestWaitMillis, this.running, this.started, this.failed, this.getMeanWaitMillis(),
+      this.maxWaitMillis);
+  }
+}
@@ -5,7 +5,9 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Supplier;
 
+import model.parser.ProcessingBudget;
 import model.parser.pdf.PDFParser;
 import model.parser.statement.StatementParser;
 import model.parser.statement.StatementTypeIdentifier;
@@ -13,10 +15,12 @@ import model.parser.statement.discover.DiscoverStatementIdentifier;
 import model.parser.statement.discover.DiscoverStatementParser;
 import model.parser.statement.tdbank.TDBankStatementIdentifier;
 import model.parser.statement.tdbank.TDBankStatementParser;
+import model.query.TransactionQuery;
 import model.transactions.AbstractTransaction;
 import model.transactions.Deposit;
 import model.transactions.Payment;
 import model.transactions.TransactionDateComparator;
+import view.ProgressEvent;
 import view.StatementExporter;
 import view.StatementView;
 
@@ -37,9 +41,20 @@ public class SynchronousControllerImpl implements SynchronousController {
   // Invariant: inFile is not null.
   private final String inFile;
 
-  private static final Map<StatementTypeIdentifier, StatementParser> STATEMENT_TYPES = new HashMap<>() {{
-    put(new TDBankStatementIdentifier(), new TDBankStatementParser());
-    put(new DiscoverStatementIdentifier(), new DiscoverStatementParser());
+  // Invariant: timeoutMillis and maxHeapBytes are non-negative, where 0 means no limit.
+  private final long timeoutMillis;
+  private final long maxHeapBytes;
+
+  // Invariant: filter is not null.
+  private final TransactionQuery filter;
+
+  // The name of the type the statement was identified as, or null until it is identified.
+  private String statementType;
+
+  // Parsers hold the statement they received, so a new one is created for every run.
+  private static final Map<StatementTypeIdentifier, Supplier<StatementParser>> STATEMENT_TYPES = new HashMap<>() {{
+    put(new TDBankStatementIdentifier(), TDBankStatementParser::new);
+    put(new DiscoverStatementIdentifier(), DiscoverStatementParser::new);
   }};
 
   /**
@@ -52,6 +67,40 @@ public class SynchronousControllerImpl implements SynchronousController {
    * @throws IllegalArgumentException if any of the provided arguments is {@code null}.
    */
   public SynchronousControllerImpl(StatementView view, PDFParser pdfParser, StatementExporter statementExporter, String inFile) throws IllegalArgumentException {
+    this(view, pdfParser, statementExporter, inFile, 0, 0);
+  }
+
+  /**
+   * Initializes a synchronous controller for a statement parser instance, using the provided implementations
+   * for various interfaces, which stops processing the file once it exceeds the provided limits.
+   * @param view the view to which statuses about the progress of the parsing and exporting will be sent
+   * @param pdfParser the method of parsing a PDF file into a {@code String}
+   * @param statementExporter the method of exporting the contents of the statement
+   * @param inFile the filepath of the PDF file to be parsed
+   * @param timeoutMillis the milliseconds extracting and parsing the file may take, or 0 for no limit
+   * @param maxHeapBytes the memory processing the file may hold, or 0 for no limit
+   * @throws IllegalArgumentException if any of the provided arguments is {@code null} OR if
+   * either limit is negative.
+   */
+  public SynchronousControllerImpl(StatementView view, PDFParser pdfParser, StatementExporter statementExporter, String inFile, long timeoutMillis, long maxHeapBytes) throws IllegalArgumentException {
+    this(view, pdfParser, statementExporter, inFile, timeoutMillis, maxHeapBytes, new TransactionQuery.Builder().build());
+  }
+
+  /**
+   * Initializes a synchronous controller for a statement parser instance, using the provided implementations
+   * for various interfaces, which exports only the transactions matching the provided filter and stops
+   * processing the file once it exceeds the provided limits.
+   * @param view the view to which statuses about the progress of the parsing and exporting will be sent
+   * @param pdfParser the method of parsing a PDF file into a {@code String}
+   * @param statementExporter the method of exporting the contents of the statement
+   * @param inFile the filepath of the PDF file to be parsed
+   * @param timeoutMillis the milliseconds extracting and parsing the file may take, or 0 for no limit
+   * @param maxHeapBytes the memory processing the file may hold, or 0 for no limit
+   * @param filter the transactions to export, applied while the statement is parsed
+   * @throws IllegalArgumentException if any of the provided arguments is {@code null} OR if
+   * either limit is negative.
+   */
+  public SynchronousControllerImpl(StatementView view, PDFParser pdfParser, StatementExporter statementExporter, String inFile, long timeoutMillis, long maxHeapBytes, TransactionQuery filter) throws IllegalArgumentException {
     if (view == null) {
       throw new IllegalArgumentException("View cannot be null.");
     }
@@ -68,14 +117,27 @@ public class SynchronousControllerImpl implements SynchronousController {
       throw new IllegalArgumentException("Input filepath cannot be null.");
     }
 
+    if (timeoutMillis < 0 || maxHeapBytes < 0) {
+      throw new IllegalArgumentException("Limits cannot be negative.");
+    }
+
+    if (filter == null) {
+      throw new IllegalArgumentException("Filter cannot be null.");
+    }
+
     this.view = view;
     this.pdfParser = pdfParser;
     this.statementExporter = statementExporter;
     this.inFile = inFile;
+    this.timeoutMillis = timeoutMillis;
+    this.maxHeapBytes = maxHeapBytes;
+    this.filter = filter;
   }
 
   @Override
   public void run() throws IllegalStateException {
+    ProcessingBudget budget = new ProcessingBudget(this.timeoutMillis, this.maxHeapBytes);
+
     // Welcome
     this.transitMessage("Welcome to the statement parser.\n");
     this.transitMessage("File: " + this.inFile);
@@ -87,15 +149,16 @@ public class SynchronousControllerImpl implements SynchronousController {
 
     // Parse PDF into String
     this.transitMessage("\nTrying to parse PDF...");
-    String textContents = this.pdfParser.getTextContents();
+    String textContents = this.pdfParser.getTextContents(budget);
     this.transitMessage(" Success!");
 
     // Match to known statement type
     StatementParser statementParser = null;
-    for (Map.Entry<StatementTypeIdentifier, StatementParser> type : STATEMENT_TYPES.entrySet()) {
+    for (Map.Entry<StatementTypeIdentifier, Supplier<StatementParser>> type : STATEMENT_TYPES.entrySet()) {
       StatementTypeIdentifier identifier = type.getKey();
       if (identifier.matches(textContents)) {
-        statementParser = type.getValue();
+        statementParser = type.getValue().get();
+        this.statementType = identifier.name();
 
         this.transitMessage("\nStatement identified as type: " + identifier.name());
       }
@@ -106,7 +169,7 @@ public class SynchronousControllerImpl implements SynchronousController {
     }
 
     // Process statement
-    statementParser.receiveStatement(textContents);
+    statementParser.receiveStatement(textContents, budget, this.filter);
     List<Deposit> deposits = statementParser.getDeposits();
     List<Payment> payments = statementParser.getPayments();
 
@@ -119,20 +182,35 @@ public class SynchronousControllerImpl implements SynchronousController {
     this.transitMessage("\nFound " + payments.size() + " payment(s).");
 
     // Export
+    budget.checkpoint();
     this.transitMessage("\n\nTrying to export CSV...");
     this.statementExporter.write(allTransactions);
     this.transitMessage(" Success!\n");
 
-    this.transitMessage(this.statementExporter.confirmationMessage());
+    this.transitEvent(ProgressEvent.succeeded(this.inFile, this.statementExporter.confirmationMessage()));
 
     // Close
     this.transitMessage("\n\nThank you for using the statement processor.");
   }
 
-  // Sends a message to the view, throwing an IllegalStateException if there is an error.
+  /**
+   * Gets the name of the type the statement was identified as, such as the bank it came from.
+   * @return the name of the statement type, or {@code null} if the statement has not been
+   * identified
+   */
+  public String getStatementType() {
+    return this.statementType;
+  }
+
+  // Sends a fragment of commentary on the input file to the view.
   private void transitMessage(String message) throws IllegalStateException {
+    this.transitEvent(ProgressEvent.progress(this.inFile, message));
+  }
+
+  // Sends an event to the view, throwing an IllegalStateException if there is an error.
+  private void transitEvent(ProgressEvent event) throws IllegalStateException {
     try {
-      this.view.renderMessage(message);
+      this.view.renderEvent(event);
     } catch (IOException e) {
       throw new IllegalStateException("Encountered issue while transmitting message to view.");
     }
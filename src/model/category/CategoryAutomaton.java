@@ -0,0 +1,203 @@
+package model.category;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Assigns categories to transaction descriptions using a compiled {@code CategoryRuleSet}. Every
+ * rule is merged into one Aho-Corasick automaton with a complete transition table, so a
+ * description is categorized in a single pass with one table lookup per character, however many
+ * rules there are. Characters outside of ASCII are treated as interchangeable.
+ */
+public class CategoryAutomaton {
+  private static final int ASCII_SIZE = 128;
+
+  private static final CategoryAutomaton DEFAULT = CategoryRuleSet.defaultRules().compile();
+
+  // Invariant: categories has one element per rule.
+  private final TransactionCategory[] categories;
+  private final boolean ignoreCase;
+
+  // Maps each ASCII character to its column in the transition table; column 0 holds every
+  // character which appears in no rule.
+  private final int[] charClasses;
+  private final int alphabetSize;
+
+  // Invariant: transitions[state * alphabetSize + charClass] is the next state.
+  private final int[] transitions;
+
+  // For each state: its distance from the start, the prefix and keyword rule ending exactly
+  // there (or -1), and the nearest state along its failure links that ends a keyword rule
+  // (or 0 if there is none).
+  private final int[] depths;
+  private final int[] prefixRules;
+  private final int[] keywordRules;
+  private final int[] keywordLinks;
+
+  CategoryAutomaton(List<String> patterns, List<TransactionCategory> categories, List<Boolean> prefixFlags, boolean ignoreCase) {
+    this.categories = categories.toArray(new TransactionCategory[0]);
+    this.ignoreCase = ignoreCase;
+
+    // Give each character used by some rule its own column
+    this.charClasses = new int[ASCII_SIZE];
+    int classCount = 1;
+    for (String pattern : patterns) {
+      for (int i = 0; i < pattern.length(); i++) {
+        char c = pattern.charAt(i);
+        if (c < ASCII_SIZE && this.charClasses[c] == 0) {
+          this.charClasses[c] = classCount++;
+        }
+      }
+    }
+    this.alphabetSize = classCount;
+
+    // Build the trie of all rules
+    List<int[]> trie = new ArrayList<>();
+    List<Integer> depthList = new ArrayList<>();
+    List<Integer> prefixList = new ArrayList<>();
+    List<Integer> keywordList = new ArrayList<>();
+    trie.add(this.newRow());
+    depthList.add(0);
+    prefixList.add(-1);
+    keywordList.add(-1);
+
+    for (int rule = 0; rule < patterns.size(); rule++) {
+      String pattern = patterns.get(rule);
+      int state = 0;
+      for (int i = 0; i < pattern.length(); i++) {
+        int charClass = this.classOf(pattern.charAt(i));
+        if (trie.get(state)[charClass] < 0) {
+          trie.get(state)[charClass] = trie.size();
+          trie.add(this.newRow());
+          depthList.add(i + 1);
+          prefixList.add(-1);
+          keywordList.add(-1);
+        }
+        state = trie.get(state)[charClass];
+      }
+
+      // The first rule added for a pattern wins
+      List<Integer> rules = prefixFlags.get(rule) ? prefixList : keywordList;
+      if (rules.get(state) < 0) {
+        rules.set(state, rule);
+      }
+    }
+
+    int stateCount = trie.size();
+    this.transitions = new int[stateCount * this.alphabetSize];
+    this.depths = new int[stateCount];
+    this.prefixRules = new int[stateCount];
+    this.keywordRules = new int[stateCount];
+    this.keywordLinks = new int[stateCount];
+    for (int state = 0; state < stateCount; state++) {
+      this.depths[state] = depthList.get(state);
+      this.prefixRules[state] = prefixList.get(state);
+      this.keywordRules[state] = keywordList.get(state);
+    }
+
+    // Fill in failure transitions breadth first, turning the trie into a complete automaton
+    int[] failures = new int[stateCount];
+    Deque<Integer> queue = new ArrayDeque<>();
+    for (int charClass = 0; charClass < this.alphabetSize; charClass++) {
+      int child = trie.get(0)[charClass];
+      this.transitions[charClass] = Math.max(child, 0);
+      if (child > 0) {
+        queue.add(child);
+      }
+    }
+
+    while (!queue.isEmpty()) {
+      int state = queue.remove();
+      int failure = failures[state];
+      this.keywordLinks[state] = this.keywordRules[failure] >= 0 ? failure : this.keywordLinks[failure];
+
+      for (int charClass = 0; charClass < this.alphabetSize; charClass++) {
+        int child = trie.get(state)[charClass];
+        int fallback = this.transitions[failure * this.alphabetSize + charClass];
+        if (child < 0) {
+          this.transitions[state * this.alphabetSize + charClass] = fallback;
+        } else {
+          this.transitions[state * this.alphabetSize + charClass] = child;
+          failures[child] = fallback;
+          queue.add(child);
+        }
+      }
+    }
+  }
+
+  /**
+   * Gets the automaton compiled from {@code CategoryRuleSet.defaultRules()}.
+   * @return the default automaton
+   */
+  public static CategoryAutomaton getDefault() {
+    return DEFAULT;
+  }
+
+  /**
+   * Finds the category of the provided description. A matching merchant prefix rule takes
+   * precedence over keyword rules, and longer matches take precedence over shorter ones.
+   * @param description the description of a transaction
+   * @return the category of the description, or {@code UNCATEGORIZED} if no rule matches
+   * @throws IllegalArgumentException if the provided {@code description} is {@code null}.
+   */
+  public TransactionCategory categorize(String description) throws IllegalArgumentException {
+    if (description == null) {
+      throw new IllegalArgumentException("Description cannot be null.");
+    }
+
+    int prefixRule = -1;
+    int keywordRule = -1;
+    int keywordLength = 0;
+    int state = 0;
+
+    for (int i = 0; i < description.length(); i++) {
+      char c = description.charAt(i);
+      state = this.transitions[state * this.alphabetSize + this.classOf(this.ignoreCase ? Character.toUpperCase(c) : c)];
+
+      if (!isBoundary(description, i + 1)) {
+        continue;
+      }
+
+      if (this.prefixRules[state] >= 0 && this.depths[state] == i + 1) {
+        prefixRule = this.prefixRules[state];
+      }
+
+      int match = this.keywordRules[state] >= 0 ? state : this.keywordLinks[state];
+      while (match > 0) {
+        int length = this.depths[match];
+        if (isBoundary(description, i - length) && length > keywordLength) {
+          keywordRule = this.keywordRules[match];
+          keywordLength = length;
+        }
+        match = this.keywordLinks[match];
+      }
+    }
+
+    if (prefixRule >= 0) {
+      return this.categories[prefixRule];
+    }
+
+    return keywordRule >= 0 ? this.categories[keywordRule] : TransactionCategory.UNCATEGORIZED;
+  }
+
+  // Creates a row of the trie with no children.
+  private int[] newRow() {
+    int[] row = new int[this.alphabetSize];
+    Arrays.fill(row, -1);
+    return row;
+  }
+
+  // Gets the column of the transition table for the provided character.
+  private int classOf(char c) {
+    return c < ASCII_SIZE ? this.charClasses[c] : 0;
+  }
+
+  // Returns whether a word cannot continue across the provided position of the text, either
+  // because it is outside the text or because the character there is not a letter or digit.
+  private static boolean isBoundary(String text, int index) {
+    return index < 0 || index >= text.length() || !Character.isLetterOrDigit(text.charAt(index));
+  }
+}
@@ -0,0 +1,140 @@
+package model.category;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Collects rules assigning categories to transaction descriptions, to be compiled into a single
+ * {@code CategoryAutomaton}. A merchant prefix rule matches descriptions starting with its text;
+ * a keyword rule matches its text anywhere in the description as a whole word.
+ */
+public class CategoryRuleSet {
+  // Invariant: patterns, categories, and prefixFlags have the same length.
+  private final List<String> patterns;
+  private final List<TransactionCategory> categories;
+  private final List<Boolean> prefixFlags;
+  private final boolean ignoreCase;
+
+  /**
+   * Initializes an empty {@code CategoryRuleSet}.
+   * @param ignoreCase whether rules match descriptions regardless of case
+   */
+  public CategoryRuleSet(boolean ignoreCase) {
+    this.patterns = new ArrayList<>();
+    this.categories = new ArrayList<>();
+    this.prefixFlags = new ArrayList<>();
+    this.ignoreCase = ignoreCase;
+  }
+
+  /**
+   * Creates the rules used to categorize transactions from statements which do not label their
+   * own categories.
+   * @return the default rules
+   */
+  public static CategoryRuleSet defaultRules() {
+    CategoryRuleSet rules = new CategoryRuleSet(true);
+
+    for (String merchant : new String[] { "AMZN", "AMAZON", "TARGET", "WALMART", "WAL-MART", "WM SUPERCENTER" }) {
+      rules.addMerchantPrefix(merchant, TransactionCategory.MERCHANDISE);
+    }
+    for (String merchant : new String[] { "COSTCO", "BJS", "BJ'S", "SAMS CLUB", "SAM'S CLUB" }) {
+      rules.addMerchantPrefix(merchant, TransactionCategory.WAREHOUSE_CLUBS);
+    }
+    for (String merchant : new String[] { "SHELL", "EXXON", "MOBIL", "SUNOCO", "CITGO", "GULF OIL", "BP" }) {
+      rules.addMerchantPrefix(merchant, TransactionCategory.GASOLINE);
+    }
+    for (String merchant : new String[] { "STARBUCKS", "DUNKIN", "MCDONALD'S", "CHIPOTLE", "UBER EATS", "DOORDASH", "GRUBHUB" }) {
+      rules.addMerchantPrefix(merchant, TransactionCategory.RESTAURANTS);
+    }
+    for (String merchant : new String[] { "WHOLEFDS", "WHOLE FOODS", "TRADER JOE", "STOP & SHOP", "KROGER", "SAFEWAY", "WEGMANS" }) {
+      rules.addMerchantPrefix(merchant, TransactionCategory.SUPERMARKETS);
+    }
+    for (String merchant : new String[] { "THE HOME DEPOT", "HOME DEPOT", "LOWES", "LOWE'S" }) {
+      rules.addMerchantPrefix(merchant, TransactionCategory.HOME_IMPROVEMENT);
+    }
+    for (String merchant : new String[] { "CVS", "WALGREENS" }) {
+      rules.addMerchantPrefix(merchant, TransactionCategory.MEDICAL_SERVICES);
+    }
+    for (String merchant : new String[] { "NETFLIX", "SPOTIFY", "UBER", "LYFT", "DELTA AIR", "JETBLUE", "MARRIOTT", "HILTON" }) {
+      rules.addMerchantPrefix(merchant, TransactionCategory.TRAVEL_ENTERTAINMENT);
+    }
+    for (String merchant : new String[] { "COMCAST", "VERIZON", "APPLE.COM/BILL", "GOOGLE" }) {
+      rules.addMerchantPrefix(merchant, TransactionCategory.SERVICES);
+    }
+
+    for (String keyword : new String[] { "RESTAURANT", "CAFE", "PIZZA", "GRILL", "DINER", "BAKERY" }) {
+      rules.addKeyword(keyword, TransactionCategory.RESTAURANTS);
+    }
+    for (String keyword : new String[] { "GAS", "FUEL" }) {
+      rules.addKeyword(keyword, TransactionCategory.GASOLINE);
+    }
+    for (String keyword : new String[] { "MARKET", "GROCERY" }) {
+      rules.addKeyword(keyword, TransactionCategory.SUPERMARKETS);
+    }
+    for (String keyword : new String[] { "PHARMACY", "MEDICAL", "DENTAL", "HOSPITAL" }) {
+      rules.addKeyword(keyword, TransactionCategory.MEDICAL_SERVICES);
+    }
+    for (String keyword : new String[] { "TUITION", "UNIVERSITY", "COLLEGE" }) {
+      rules.addKeyword(keyword, TransactionCategory.EDUCATION);
+    }
+    for (String keyword : new String[] { "AUTO", "PARKING", "TOLL" }) {
+      rules.addKeyword(keyword, TransactionCategory.AUTOMOTIVE);
+    }
+    rules.addKeyword("INTEREST", TransactionCategory.INTEREST);
+    rules.addKeyword("FEE", TransactionCategory.FEES);
+    rules.addKeyword("E-PAYMENT", TransactionCategory.PAYMENTS_AND_CREDITS);
+    rules.addKeyword("AUTOPAY", TransactionCategory.PAYMENTS_AND_CREDITS);
+
+    return rules;
+  }
+
+  /**
+   * Adds a rule matching descriptions that start with the provided merchant prefix. Prefix rules
+   * take precedence over keyword rules.
+   * @param prefix the beginning of matching descriptions
+   * @param category the category of matching descriptions
+   * @return this rule set
+   * @throws IllegalArgumentException if either argument is {@code null} or {@code prefix} is empty.
+   */
+  public CategoryRuleSet addMerchantPrefix(String prefix, TransactionCategory category) throws IllegalArgumentException {
+    this.addRule(prefix, category, true);
+    return this;
+  }
+
+  /**
+   * Adds a rule matching descriptions that contain the provided keyword as a whole word. When
+   * several keywords match, the longest wins.
+   * @param keyword the text to find in matching descriptions
+   * @param category the category of matching descriptions
+   * @return this rule set
+   * @throws IllegalArgumentException if either argument is {@code null} or {@code keyword} is empty.
+   */
+  public CategoryRuleSet addKeyword(String keyword, TransactionCategory category) throws IllegalArgumentException {
+    this.addRule(keyword, category, false);
+    return this;
+  }
+
+  /**
+   * Compiles these rules into an automaton which evaluates all of them in one pass over a
+   * description.
+   * @return the compiled automaton
+   */
+  public CategoryAutomaton compile() {
+    return new CategoryAutomaton(this.patterns, this.categories, this.prefixFlags, this.ignoreCase);
+  }
+
+  // Adds a rule of either kind.
+  private void addRule(String pattern, TransactionCategory category, boolean isPrefix) throws IllegalArgumentException {
+    if (pattern == null || pattern.isEmpty()) {
+      throw new IllegalArgumentException("Pattern cannot be empty.");
+    }
+
+    if (category == null) {
+      throw new IllegalArgumentException("Category cannot be null.");
+    }
+
+    this.patterns.add(this.ignoreCase ? pattern.toUpperCase() : pattern);
+    this.categories.add(category);
+    this.prefixFlags.add(isPrefix);
+  }
+}
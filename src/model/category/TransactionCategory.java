@@ -0,0 +1,53 @@
+package model.category;
+
+/**
+ * Represents the spending category of a transaction, using the categories Discover prints on its
+ * statements.
+ */
+public enum TransactionCategory {
+  AUTOMOTIVE("Automotive"),
+  DEPARTMENT_STORES("Department Stores"),
+  EDUCATION("Education"),
+  GASOLINE("Gasoline"),
+  GOVERNMENT_SERVICES("Government Services"),
+  HOME_IMPROVEMENT("Home Improvement"),
+  MEDICAL_SERVICES("Medical Services"),
+  MERCHANDISE("Merchandise"),
+  RESTAURANTS("Restaurants"),
+  SERVICES("Services"),
+  SUPERMARKETS("Supermarkets"),
+  TRAVEL_ENTERTAINMENT("Travel/Entertainment"),
+  WAREHOUSE_CLUBS("Warehouse Clubs"),
+  AWARDS_AND_REBATE_CREDITS("Awards and Rebate Credits"),
+  BALANCE_TRANSFERS("Balance Transfers"),
+  CASH_ADVANCES("Cash Advances"),
+  FEES("Fees"),
+  INTEREST("Interest"),
+  OTHER_MISCELLANEOUS("Other/Miscellaneous"),
+  PAYMENTS_AND_CREDITS("Payments and Credits"),
+  UNCATEGORIZED("Uncategorized");
+
+  // Invariant: label is not null.
+  private final String label;
+
+  /**
+   * Initialize a transaction category with the given label.
+   * @param label the label of this category as printed on statements
+   */
+  TransactionCategory(String label) {
+    this.label = label;
+  }
+
+  /**
+   * Gets the label of this category as printed on statements.
+   * @return the label
+   */
+  public String getLabel() {
+    return this.label;
+  }
+
+  @Override
+  public String toString() {
+    return this.label;
+  }
+}
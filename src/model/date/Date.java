@@ -1,5 +1,8 @@
 package model.date;
 
+import java.time.DateTimeException;
+import java.time.LocalDate;
+
 /**
  * Represents a date in the calendar year as a month and day.
  */
@@ -46,8 +49,37 @@ public class Date implements Comparable<Date> {
    * is more than one year.
    */
   public static Date withinRange(Date start, Date end, Month month, int day) throws IllegalArgumentException {
+    return new Date(yearWithinRange(start, end, month), month, day);
+  }
+
+  /**
+   * Gets the epoch day of the date in range provided by the {@code start} and {@code end}
+   * parameters, as {@code withinRange(start, end, month, day).toEpochDay()} would, without
+   * creating a {@code Date}.
+   * @param start the start of the date range
+   * @param end the end of the date range
+   * @param month the month of the date
+   * @param day the day of the date
+   * @return the epoch day of the date within the range
+   * @throws IllegalArgumentException if the resulting date is invalid OR if the date range is
+   * more than one year.
+   */
+  public static int epochDayWithinRange(Date start, Date end, Month month, int day) throws IllegalArgumentException {
+    if (month == null) {
+      throw new IllegalArgumentException("Month cannot be null.");
+    }
+
+    try {
+      return (int) LocalDate.of(yearWithinRange(start, end, month), month.getIndex(), day).toEpochDay();
+    } catch (DateTimeException e) {
+      throw new IllegalArgumentException("Day does not exist in month.");
+    }
+  }
+
+  // Finds the year in which the month falls within the range.
+  private static int yearWithinRange(Date start, Date end, Month month) throws IllegalArgumentException {
     if (start.year == end.year) {
-      return new Date(start.year, month, day);
+      return start.year;
     }
 
     if (end.month.isAfter(start.month) || start.month == end.month) {
@@ -55,10 +87,86 @@ public class Date implements Comparable<Date> {
     }
 
     if (month.isAfter(start.month) || month == start.month) {
-      return new Date(start.year, month, day);
+      return start.year;
+    }
+
+    return end.year;
+  }
+
+  /**
+   * Parses a date in YYYY-MM-DD format, as produced by {@code toString}.
+   * @param dateString the formatted date
+   * @return the corresponding {@code Date}
+   * @throws IllegalArgumentException if {@code dateString} is {@code null} OR is not a valid
+   * date in YYYY-MM-DD format.
+   */
+  public static Date parse(String dateString) throws IllegalArgumentException {
+    if (dateString == null) {
+      throw new IllegalArgumentException("Date string cannot be null.");
+    }
+
+    String[] parts = dateString.trim().split("-");
+    if (parts.length != 3) {
+      throw new IllegalArgumentException("Date must be in YYYY-MM-DD format: " + dateString);
     }
 
-    return new Date(end.year, month, day);
+    try {
+      int year = Integer.parseInt(parts[0]);
+      Month month = Month.asMonth(Integer.parseInt(parts[1]));
+      int day = Integer.parseInt(parts[2]);
+      return new Date(year, month, day);
+    } catch (NumberFormatException e) {
+      throw new IllegalArgumentException("Date must be in YYYY-MM-DD format: " + dateString);
+    }
+  }
+
+  /**
+   * Creates the {@code Date} that is the provided number of days after 1970-01-01.
+   * @param epochDay the number of days since 1970-01-01
+   * @return the corresponding {@code Date}
+   * @throws IllegalArgumentException if {@code epochDay} is out of the supported range.
+   */
+  public static Date fromEpochDay(long epochDay) throws IllegalArgumentException {
+    try {
+      LocalDate localDate = LocalDate.ofEpochDay(epochDay);
+      return new Date(localDate.getYear(), Month.asMonth(localDate.getMonthValue()),
+        localDate.getDayOfMonth());
+    } catch (DateTimeException e) {
+      throw new IllegalArgumentException("Epoch day is out of range: " + epochDay);
+    }
+  }
+
+  /**
+   * Gets the number of days between 1970-01-01 and this date, which orders dates as plain
+   * integers.
+   * @return the epoch day of this date
+   */
+  public int toEpochDay() {
+    return (int) LocalDate.of(this.year, this.month.getIndex(), this.day).toEpochDay();
+  }
+
+  /**
+   * Gets the year of this date.
+   * @return the year
+   */
+  public int getYear() {
+    return this.year;
+  }
+
+  /**
+   * Gets the month of this date.
+   * @return the month
+   */
+  public Month getMonth() {
+    return this.month;
+  }
+
+  /**
+   * Gets the day of the month of this date.
+   * @return the day of the month
+   */
+  public int getDay() {
+    return this.day;
   }
 
   // Validates the date
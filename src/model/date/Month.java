@@ -17,6 +17,9 @@ public enum Month {
   NOVEMBER(11),
   DECEMBER(12);
 
+  // Shared rather than copied by values() on every lookup.
+  private static final Month[] MONTHS = values();
+
   private final int index;
 
   /**
@@ -39,7 +42,7 @@ public enum Month {
       throw new IllegalArgumentException("Invalid month index");
     }
 
-    return Month.values()[index - 1];
+    return MONTHS[index - 1];
   }
 
   /**
@@ -0,0 +1,206 @@
+package model.job;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Records which input files of a batch have been processed, so that a restarted batch skips them.
+ * The journal is an append-only text file with one line per completed input:
+ * {@code <sha-256 of the input>\t<output path>\t<input path>}. An input is complete when its
+ * latest line matches the current contents of the input and its output still exists, so inputs
+ * which have changed since, or whose output was removed, are processed again.
+ *
+ * <p>Lines are synced to disk in groups rather than one at a time. If the process dies, the lines
+ * of the last group may be lost, which only means their inputs are processed again; outputs are
+ * expected to be replaced atomically, so processing an input twice is harmless.
+ */
+public class JobJournal implements Closeable {
+  // The journal is synced once this many lines are waiting...
+  private static final int SYNC_LINES = 64;
+
+  // ...or once the oldest waiting line is this old.
+  private static final long SYNC_MILLIS = 1000;
+
+  // Invariant: channel is open until the journal is closed.
+  private final FileChannel channel;
+
+  // Invariant: outputPaths is not null.
+  private final Function<String, String> outputPaths;
+
+  // Invariant: completed maps each input path to the latest hash and output path recorded for it.
+  private final Map<String, String[]> completed;
+
+  private int unsyncedLines;
+  private long oldestUnsyncedMillis;
+
+  /**
+   * Opens the journal at the provided filepath, creating it if it does not exist.
+   * @param filepath the path of the journal file
+   * @param outputPaths gets the path of the output written for an input path
+   * @throws IllegalArgumentException if either argument is {@code null}.
+   * @throws IllegalStateException if the journal cannot be read or opened.
+   */
+  public JobJournal(String filepath, Function<String, String> outputPaths) throws IllegalArgumentException, IllegalStateException {
+    if (filepath == null) {
+      throw new IllegalArgumentException("Filepath cannot be null.");
+    }
+
+    if (outputPaths == null) {
+      throw new IllegalArgumentException("Output paths cannot be null.");
+    }
+
+    this.outputPaths = outputPaths;
+    this.completed = new HashMap<>();
+
+    Path path = Paths.get(filepath);
+    try {
+      boolean endsWithNewline = true;
+      if (Files.exists(path)) {
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+          String line;
+          while ((line = reader.readLine()) != null) {
+            this.load(line);
+          }
+        }
+        endsWithNewline = Files.size(path) == 0 || endsWithNewline(path);
+      }
+
+      this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+
+      // A line torn by a crash is ignored, and must not run into the next line
+      if (!endsWithNewline) {
+        this.channel.write(ByteBuffer.wrap(new byte[] {'\n'}));
+      }
+    } catch (IOException e) {
+      throw new IllegalStateException("Failed to open journal " + filepath + ".");
+    }
+  }
+
+  /**
+   * Determines whether the provided input was processed with its current contents and its output
+   * still exists.
+   * @param inputFile the path of the input file
+   * @return whether the input can be skipped
+   * @throws IllegalStateException if the input cannot be read.
+   */
+  public synchronized boolean isComplete(String inputFile) throws IllegalStateException {
+    String[] entry = this.completed.get(inputFile);
+    if (entry == null || !entry[1].equals(this.outputPaths.apply(inputFile)) || !new File(entry[1]).exists()) {
+      return false;
+    }
+
+    return entry[0].equals(hashOf(inputFile));
+  }
+
+  /**
+   * Records that the provided input was processed with the provided contents.
+   * @param inputFile the path of the input file
+   * @param hash the hash of the contents which were processed, from {@link #hashOf(String)}
+   * @throws IllegalArgumentException if either argument is {@code null}.
+   * @throws IllegalStateException if the journal cannot be written.
+   */
+  public synchronized void recordComplete(String inputFile, String hash) throws IllegalArgumentException, IllegalStateException {
+    if (inputFile == null || hash == null) {
+      throw new IllegalArgumentException("Input file and hash cannot be null.");
+    }
+
+    String outputFile = this.outputPaths.apply(inputFile);
+    this.completed.put(inputFile, new String[] {hash, outputFile});
+
+    try {
+      ByteBuffer line = ByteBuffer.wrap((hash + "\t" + outputFile + "\t" + inputFile + "\n").getBytes(StandardCharsets.UTF_8));
+      while (line.hasRemaining()) {
+        this.channel.write(line);
+      }
+
+      long now = System.currentTimeMillis();
+      if (this.unsyncedLines++ == 0) {
+        this.oldestUnsyncedMillis = now;
+      }
+      if (this.unsyncedLines >= SYNC_LINES || now - this.oldestUnsyncedMillis >= SYNC_MILLIS) {
+        this.sync();
+      }
+    } catch (IOException e) {
+      throw new IllegalStateException("Failed to write journal.");
+    }
+  }
+
+  /**
+   * Syncs every recorded line to disk and closes the journal.
+   * @throws IOException if the journal cannot be synced or closed.
+   */
+  @Override
+  public synchronized void close() throws IOException {
+    if (this.channel.isOpen()) {
+      this.sync();
+      this.channel.close();
+    }
+  }
+
+  /**
+   * Gets the SHA-256 hash of the contents of the provided file, as recorded in the journal.
+   * @param inputFile the path of the file
+   * @return the hash in hexadecimal
+   * @throws IllegalStateException if the file cannot be read.
+   */
+  public static String hashOf(String inputFile) throws IllegalStateException {
+    try (InputStream in = Files.newInputStream(Paths.get(inputFile))) {
+      MessageDigest digest = MessageDigest.getInstance("SHA-256");
+      byte[] buffer = new byte[64 * 1024];
+      int read;
+      while ((read = in.read(buffer)) > 0) {
+        digest.update(buffer, 0, read);
+      }
+
+      StringBuilder hex = new StringBuilder(64);
+      for (byte b : digest.digest()) {
+        hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+      }
+      return hex.toString();
+    } catch (IOException e) {
+      throw new IllegalStateException("Failed to read " + inputFile + ".");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 is not available.");
+    }
+  }
+
+  // Syncs the lines written so far to disk.
+  private void sync() throws IOException {
+    if (this.unsyncedLines > 0) {
+      this.channel.force(false);
+      this.unsyncedLines = 0;
+    }
+  }
+
+  // Loads one line of an existing journal, ignoring lines which are incomplete.
+  private void load(String line) {
+    String[] fields = line.split("\t", 3);
+    if (fields.length == 3 && fields[0].length() == 64 && !fields[2].isEmpty()) {
+      this.completed.put(fields[2], new String[] {fields[0], fields[1]});
+    }
+  }
+
+  // Determines whether the last byte of a non-empty file is a newline.
+  private static boolean endsWithNewline(Path path) throws IOException {
+    try (FileChannel file = FileChannel.open(path, StandardOpenOption.READ)) {
+      ByteBuffer last = ByteBuffer.allocate(1);
+      file.read(last, file.size() - 1);
+      return last.get(0) == '\n';
+    }
+  }
+}
@@ -0,0 +1,43 @@
+package model.merchant;
+
+/**
+ * Represents a canonical merchant, such as every store of one chain. Each merchant is created
+ * once by a {@code MerchantNormalizer}, so merchants can be grouped by comparing their ids. An id
+ * is only given to another merchant once nothing refers to this one, so anything grouping by id
+ * must also keep the merchant.
+ */
+public class Merchant {
+  // Invariant: id is non-negative and unique among the merchants in use which were created by the
+  // same normalizer.
+  private final int id;
+
+  // Invariant: name is not null.
+  private final String name;
+
+  Merchant(int id, String name) {
+    this.id = id;
+    this.name = name;
+  }
+
+  /**
+   * Gets the id of this merchant, which is unique among the merchants in use from the normalizer
+   * that created it.
+   * @return the id of this merchant
+   */
+  public int getId() {
+    return this.id;
+  }
+
+  /**
+   * Gets the canonical name of this merchant.
+   * @return the name of this merchant
+   */
+  public String getName() {
+    return this.name;
+  }
+
+  @Override
+  public String toString() {
+    return this.name;
+  }
+}
@@ -0,0 +1,312 @@
+package model.merchant;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Maps raw transaction descriptions to canonical merchants. Known merchants are found through a
+ * dictionary of description prefixes stored in a trie; other descriptions are reduced to a
+ * canonical name by removing store numbers, phone numbers, and payment processor tags. Canonical
+ * names are interned so each merchant exists once while anything refers to it, and recent raw
+ * descriptions are kept in a size-bounded cache so that repeated descriptions are neither
+ * re-normalized nor stored twice.
+ *
+ * <p>Descriptions may be normalized from many threads at once without contending for a lock.
+ * Merchants which no transaction, cached description, or dictionary entry refers to any more are
+ * dropped from the intern table and their ids reused, so a long-lived normalizer holds only the
+ * merchants in use. Merchants should be added to the dictionary before descriptions are
+ * normalized concurrently.
+ */
+public class MerchantNormalizer {
+  /**
+   * The default number of raw descriptions remembered by a normalizer.
+   */
+  public static final int DEFAULT_CACHE_SIZE = 10_000;
+
+  private static final String UNKNOWN_NAME = "UNKNOWN";
+
+  // Tags added by payment processors in front of the merchant name.
+  private static final String[] PROCESSOR_PREFIXES = { "SQ *", "SQ*", "TST* ", "TST*", "PY *", "SP * ", "SP *" };
+
+  private static final String[][] DEFAULT_MERCHANTS = {
+    { "AMZN", "AMAZON" },
+    { "AMAZON", "AMAZON" },
+    { "APPLE.COM/BILL", "APPLE" },
+    { "COMCAST", "COMCAST" },
+    { "COSTCO", "COSTCO" },
+    { "CVS", "CVS" },
+    { "DUNKIN", "DUNKIN" },
+    { "EXXON", "EXXONMOBIL" },
+    { "GOOGLE", "GOOGLE" },
+    { "LOWES", "LOWE'S" },
+    { "LOWE'S", "LOWE'S" },
+    { "LYFT", "LYFT" },
+    { "MCDONALD'S", "MCDONALD'S" },
+    { "NETFLIX", "NETFLIX" },
+    { "PAYPAL", "PAYPAL" },
+    { "SHELL", "SHELL" },
+    { "SPOTIFY", "SPOTIFY" },
+    { "STARBUCKS", "STARBUCKS" },
+    { "TARGET", "TARGET" },
+    { "THE HOME DEPOT", "THE HOME DEPOT" },
+    { "HOME DEPOT", "THE HOME DEPOT" },
+    { "TRADER JOE", "TRADER JOE'S" },
+    { "UBER", "UBER" },
+    { "UBER EATS", "UBER EATS" },
+    { "VENMO", "VENMO" },
+    { "VERIZON", "VERIZON" },
+    { "WAL-MART", "WALMART" },
+    { "WALMART", "WALMART" },
+    { "WM SUPERCENTER", "WALMART" },
+    { "WALGREENS", "WALGREENS" },
+    { "WHOLEFDS", "WHOLE FOODS" },
+    { "WHOLE FOODS", "WHOLE FOODS" },
+  };
+
+  private static final MerchantNormalizer DEFAULT = new MerchantNormalizer(DEFAULT_CACHE_SIZE, DEFAULT_MERCHANTS);
+
+  // Invariant: root is not null.
+  private final TrieNode root;
+
+  // Invariant: merchantsByName maps the name of each merchant in use to a reference to it, and no
+  // two merchants in use share an id. Once a merchant is collected, its reference is queued on
+  // collected, and its id is returned to freeIds when the reference is removed.
+  private final Map<String, MerchantReference> merchantsByName;
+  private final ReferenceQueue<Merchant> collected;
+  private final Deque<Integer> freeIds;
+  private int nextId;
+
+  // Invariant: cache holds at most cacheSize entries.
+  private final int cacheSize;
+  private final Map<String, NormalizedDescription> cache;
+
+  /**
+   * Initializes a {@code MerchantNormalizer} with an empty merchant dictionary.
+   * @param cacheSize the number of raw descriptions to remember
+   * @throws IllegalArgumentException if {@code cacheSize} is not positive.
+   */
+  public MerchantNormalizer(int cacheSize) throws IllegalArgumentException {
+    this(cacheSize, new String[0][]);
+  }
+
+  private MerchantNormalizer(int cacheSize, String[][] dictionary) throws IllegalArgumentException {
+    if (cacheSize <= 0) {
+      throw new IllegalArgumentException("Cache size must be positive.");
+    }
+
+    this.root = new TrieNode();
+    this.merchantsByName = new ConcurrentHashMap<>();
+    this.collected = new ReferenceQueue<>();
+    this.freeIds = new ArrayDeque<>();
+    this.cacheSize = cacheSize;
+    this.cache = new ConcurrentHashMap<>();
+
+    for (String[] entry : dictionary) {
+      this.addMerchant(entry[0], entry[1]);
+    }
+  }
+
+  /**
+   * Gets the normalizer shared by all statement parsers, which knows a set of common merchants.
+   * @return the default normalizer
+   */
+  public static MerchantNormalizer getDefault() {
+    return DEFAULT;
+  }
+
+  /**
+   * Adds a merchant to the dictionary, so that every description starting with {@code prefix}
+   * (ignoring case) is mapped to the merchant named {@code canonicalName}.
+   * @param prefix the beginning of descriptions belonging to the merchant
+   * @param canonicalName the canonical name of the merchant
+   * @throws IllegalArgumentException if either argument is {@code null} or empty.
+   */
+  public synchronized void addMerchant(String prefix, String canonicalName) throws IllegalArgumentException {
+    if (prefix == null || prefix.trim().isEmpty()) {
+      throw new IllegalArgumentException("Prefix cannot be empty.");
+    }
+
+    if (canonicalName == null || canonicalName.trim().isEmpty()) {
+      throw new IllegalArgumentException("Canonical name cannot be empty.");
+    }
+
+    TrieNode node = this.root;
+    for (char c : prefix.trim().toUpperCase().toCharArray()) {
+      node = node.children.computeIfAbsent(c, k -> new TrieNode());
+    }
+    node.merchant = this.intern(canonicalName.trim().toUpperCase());
+
+    // Cached results may now map to a different merchant
+    this.cache.clear();
+  }
+
+  /**
+   * Normalizes a transaction description.
+   * @param description the description of a transaction
+   * @return the shared instance of the description along with its canonical merchant
+   * @throws IllegalArgumentException if the provided {@code description} is {@code null}.
+   */
+  public NormalizedDescription normalize(String description) throws IllegalArgumentException {
+    if (description == null) {
+      throw new IllegalArgumentException("Description cannot be null.");
+    }
+
+    NormalizedDescription cached = this.cache.get(description);
+    if (cached != null) {
+      return cached;
+    }
+
+    NormalizedDescription normalized = new NormalizedDescription(description, this.findMerchant(description));
+    if (this.cache.size() >= this.cacheSize) {
+      this.evict();
+    }
+    NormalizedDescription raced = this.cache.putIfAbsent(description, normalized);
+    return (raced == null) ? normalized : raced;
+  }
+
+  /**
+   * Gets the number of distinct merchants in use, which this normalizer has interned.
+   * @return the number of merchants
+   */
+  public int merchantCount() {
+    this.expunge();
+    return this.merchantsByName.size();
+  }
+
+  // Finds the merchant of an uncached description.
+  private Merchant findMerchant(String description) {
+    String key = canonicalKey(description);
+
+    // Longest dictionary prefix ending at a word boundary wins
+    Merchant match = null;
+    TrieNode node = this.root;
+    for (int i = 0; i < key.length() && node != null; i++) {
+      node = node.children.get(key.charAt(i));
+      if (node != null && node.merchant != null
+        && (i + 1 == key.length() || !Character.isLetterOrDigit(key.charAt(i + 1)))) {
+        match = node.merchant;
+      }
+    }
+
+    if (match != null) {
+      return match;
+    }
+
+    return this.intern(key.isEmpty() ? UNKNOWN_NAME : key);
+  }
+
+  // Gets the single merchant in use with the provided canonical name, creating it if needed.
+  private Merchant intern(String name) {
+    this.expunge();
+    while (true) {
+      MerchantReference reference = this.merchantsByName.get(name);
+      Merchant merchant = (reference == null) ? null : reference.get();
+      if (merchant != null) {
+        return merchant;
+      }
+
+      merchant = new Merchant(this.allocateId(), name);
+      MerchantReference created = new MerchantReference(merchant, this.collected);
+      boolean added = (reference == null)
+        ? this.merchantsByName.putIfAbsent(name, created) == null
+        : this.merchantsByName.replace(name, reference, created);
+      if (added) {
+        return merchant;
+      }
+
+      // Another thread interned the name first; its merchant is used instead
+      created.clear();
+      this.releaseId(merchant.getId());
+    }
+  }
+
+  // Removes the merchants which have been collected, returning their ids for reuse. An id is only
+  // reused once nothing refers to its merchant, so no consumer can see two merchants with one id.
+  private void expunge() {
+    MerchantReference reference;
+    while ((reference = (MerchantReference) this.collected.poll()) != null) {
+      this.merchantsByName.remove(reference.name, reference);
+      this.releaseId(reference.id);
+    }
+  }
+
+  private synchronized int allocateId() {
+    Integer id = this.freeIds.poll();
+    return (id == null) ? this.nextId++ : id;
+  }
+
+  private synchronized void releaseId(int id) {
+    this.freeIds.push(id);
+  }
+
+  // Drops about a quarter of the cached descriptions once the cache is full. Entries are dropped
+  // in no particular order, which keeps lookups free of the bookkeeping a least-recently-used
+  // order would need on every hit.
+  private void evict() {
+    Iterator<String> keys = this.cache.keySet().iterator();
+    int excess = this.cache.size() - (this.cacheSize - this.cacheSize / 4);
+    while (excess-- > 0 && keys.hasNext()) {
+      keys.next();
+      keys.remove();
+    }
+  }
+
+  // Reduces a description to upper case words, without processor tags, store numbers, or phone
+  // numbers.
+  private static String canonicalKey(String description) {
+    String upper = description.trim().toUpperCase();
+    for (String prefix : PROCESSOR_PREFIXES) {
+      if (upper.startsWith(prefix)) {
+        upper = upper.substring(prefix.length());
+        break;
+      }
+    }
+
+    StringBuilder key = new StringBuilder(upper.length());
+    for (String word : upper.split("[\\s*#]+")) {
+      if (word.isEmpty() || containsDigit(word)) {
+        continue;
+      }
+
+      if (key.length() > 0) {
+        key.append(' ');
+      }
+      key.append(word);
+    }
+
+    return key.toString();
+  }
+
+  // Returns whether the provided word contains a digit.
+  private static boolean containsDigit(String word) {
+    for (int i = 0; i < word.length(); i++) {
+      if (Character.isDigit(word.charAt(i))) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  // A node of the merchant prefix trie, which is read without locking while merchants are added.
+  private static class TrieNode {
+    private final Map<Character, TrieNode> children = new ConcurrentHashMap<>();
+    private volatile Merchant merchant = null;
+  }
+
+  // A reference to an interned merchant which remembers its name and id after it is collected.
+  private static class MerchantReference extends WeakReference<Merchant> {
+    private final String name;
+    private final int id;
+
+    private MerchantReference(Merchant merchant, ReferenceQueue<Merchant> queue) {
+      super(merchant, queue);
+      this.name = merchant.getName();
+      this.id = merchant.getId();
+    }
+  }
+}
@@ -0,0 +1,34 @@
+package model.merchant;
+
+/**
+ * Represents the result of normalizing a transaction description: a shared instance of the
+ * description text along with the merchant it belongs to.
+ */
+public class NormalizedDescription {
+  // Invariant: description is not null.
+  private final String description;
+
+  // Invariant: merchant is not null.
+  private final Merchant merchant;
+
+  NormalizedDescription(String description, Merchant merchant) {
+    this.description = description;
+    this.merchant = merchant;
+  }
+
+  /**
+   * Gets the description text, shared by every transaction with the same description.
+   * @return the description
+   */
+  public String getDescription() {
+    return this.description;
+  }
+
+  /**
+   * Gets the canonical merchant of the description.
+   * @return the merchant
+   */
+  public Merchant getMerchant() {
+    return this.merchant;
+  }
+}
@@ -3,12 +3,9 @@ package model.money;
 /**
  * Represents an amount of money in US dollars and cents.
  */
-public class MoneyAmount {
-  // Invariant: dollars is non-negative.
-  private final int dollars;
-
-  // Invariant: cents is between 0 and 99, inclusive.
-  private final int cents;
+public class MoneyAmount implements Comparable<MoneyAmount> {
+  // Invariant: totalCents is non-negative.
+  private final long totalCents;
 
   /**
    * Initializes an amount of money for the corresponding amount of US dollars and cents.
@@ -17,18 +14,106 @@ public class MoneyAmount {
    * @throws IllegalArgumentException if the provided amount of money is negative.
    */
   public MoneyAmount(int dollars, int cents) throws IllegalArgumentException {
-    int totalCents = 100 * dollars + cents;
+    this(100L * dollars + cents);
+  }
 
+  private MoneyAmount(long totalCents) throws IllegalArgumentException {
     if (totalCents < 0) {
       throw new IllegalArgumentException("Amount cannot be negative.");
     }
 
-    this.dollars = totalCents / 100;
-    this.cents = totalCents % 100;
+    this.totalCents = totalCents;
+  }
+
+  /**
+   * Creates an amount of money from a whole number of US cents.
+   * @param totalCents the number of cents
+   * @return the corresponding amount of money
+   * @throws IllegalArgumentException if the provided amount of money is negative.
+   */
+  public static MoneyAmount ofCents(long totalCents) throws IllegalArgumentException {
+    return new MoneyAmount(totalCents);
+  }
+
+  /**
+   * Parses an amount of money formatted like {@code $1234.56}. The dollar sign, thousands
+   * separators, and cents are optional.
+   * @param amountString the formatted amount
+   * @return the corresponding amount of money
+   * @throws IllegalArgumentException if {@code amountString} is {@code null} OR is not a valid,
+   * non-negative amount.
+   */
+  public static MoneyAmount parse(String amountString) throws IllegalArgumentException {
+    if (amountString == null) {
+      throw new IllegalArgumentException("Amount string cannot be null.");
+    }
+
+    String cleaned = amountString.trim().replace("$", "").replace(",", "");
+    if (!cleaned.matches("\\d+(\\.\\d{1,2})?")) {
+      throw new IllegalArgumentException("Invalid amount: " + amountString);
+    }
+
+    int dotIndex = cleaned.indexOf('.');
+    if (dotIndex < 0) {
+      return new MoneyAmount(100 * Long.parseLong(cleaned));
+    }
+
+    String centsString = cleaned.substring(dotIndex + 1);
+    int cents = Integer.parseInt(centsString) * (centsString.length() == 1 ? 10 : 1);
+    return new MoneyAmount(100 * Long.parseLong(cleaned.substring(0, dotIndex)) + cents);
+  }
+
+  /**
+   * Formats a possibly negative number of cents like {@code toString}, such as {@code -$12.34}.
+   * @param cents the number of cents
+   * @return the formatted amount
+   */
+  public static String formatCents(long cents) {
+    String sign = cents < 0 ? "-" : "";
+    long magnitude = Math.abs(cents);
+    return sign + "$" + (magnitude / 100) + "." + String.format("%02d", magnitude % 100);
+  }
+
+  /**
+   * Gets this amount of money as a whole number of US cents.
+   * @return the total number of cents
+   */
+  public long getTotalCents() {
+    return this.totalCents;
+  }
+
+  /**
+   * Adds another amount of money to this one.
+   * @param other the amount to add
+   * @return the sum of the two amounts
+   * @throws IllegalArgumentException if {@code other} is {@code null}.
+   * @throws ArithmeticException if the sum overflows a {@code long} number of cents.
+   */
+  public MoneyAmount plus(MoneyAmount other) throws IllegalArgumentException, ArithmeticException {
+    if (other == null) {
+      throw new IllegalArgumentException("Amount cannot be null.");
+    }
+
+    return new MoneyAmount(Math.addExact(this.totalCents, other.totalCents));
+  }
+
+  @Override
+  public int compareTo(MoneyAmount o) {
+    return Long.compare(this.totalCents, o.totalCents);
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    return o instanceof MoneyAmount && ((MoneyAmount) o).totalCents == this.totalCents;
+  }
+
+  @Override
+  public int hashCode() {
+    return Long.hashCode(this.totalCents);
   }
 
   @Override
   public String toString() {
-    return "$" + String.format("%01d", this.dollars) + "." + String.format("%02d", this.cents);
+    return formatCents(this.totalCents);
   }
 }
@@ -0,0 +1,16 @@
+package model.parser;
+
+/**
+ * Thrown when processing a document runs past its {@code ProcessingBudget}, or is cancelled.
+ */
+public class BudgetExceededException extends IllegalStateException {
+  private static final long serialVersionUID = 1L;
+
+  /**
+   * Initializes a {@code BudgetExceededException} with the provided message.
+   * @param message a description of the budget that was exceeded
+   */
+  public BudgetExceededException(String message) {
+    super(message);
+  }
+}
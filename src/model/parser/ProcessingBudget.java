@@ -0,0 +1,149 @@
+package model.parser;
+
+/**
+ * Limits the time and memory spent processing one document. Long-running steps call
+ * {@code checkpoint} between pages and lines, which throws once the deadline has passed, the
+ * heap limit is exceeded, or the budget has been cancelled from another thread. Regular
+ * expressions can be bounded too, by matching against the text returned by {@code guard}.
+ *
+ * <p>The heap limit applies to the memory the processing of this document holds, which the steps
+ * holding it report through {@code charge}, such as the buffer of the PDF reader and the text
+ * extracted from it. The heap of the JVM as a whole is not consulted, so the limit does not depend
+ * on garbage collection or on other documents processed at the same time.
+ */
+public class ProcessingBudget {
+  // How many characters a guarded regular expression reads between checkpoints.
+  private static final int GUARD_INTERVAL = 4096;
+
+  // Invariant: deadlineNanos is Long.MAX_VALUE when there is no time limit.
+  private final long deadlineNanos;
+  private final long timeoutMillis;
+
+  // Invariant: maxHeapBytes is Long.MAX_VALUE when there is no memory limit.
+  private final long maxHeapBytes;
+
+  // Invariant: only charged by the thread processing the document.
+  private long chargedBytes;
+
+  private volatile boolean cancelled;
+
+  /**
+   * Initializes a {@code ProcessingBudget} whose time limit starts now.
+   * @param timeoutMillis the milliseconds processing may take, or 0 for no limit
+   * @param maxHeapBytes the memory processing may hold, or 0 for no limit
+   * @throws IllegalArgumentException if either limit is negative.
+   */
+  public ProcessingBudget(long timeoutMillis, long maxHeapBytes) throws IllegalArgumentException {
+    if (timeoutMillis < 0 || maxHeapBytes < 0) {
+      throw new IllegalArgumentException("Limits cannot be negative.");
+    }
+
+    this.timeoutMillis = timeoutMillis;
+    this.deadlineNanos = (timeoutMillis == 0) ? Long.MAX_VALUE : System.nanoTime() + timeoutMillis * 1_000_000;
+    this.maxHeapBytes = (maxHeapBytes == 0) ? Long.MAX_VALUE : maxHeapBytes;
+    this.chargedBytes = 0;
+    this.cancelled = false;
+  }
+
+  /**
+   * Creates a budget with no limits, which only stops if it is cancelled.
+   * @return an unlimited budget
+   */
+  public static ProcessingBudget unlimited() {
+    return new ProcessingBudget(0, 0);
+  }
+
+  /**
+   * Checks whether processing may continue.
+   * @throws BudgetExceededException if the budget has been cancelled, its deadline has passed,
+   * or the memory charged exceeds its heap limit.
+   */
+  public void checkpoint() throws BudgetExceededException {
+    if (this.cancelled) {
+      throw new BudgetExceededException("Processing was cancelled.");
+    }
+
+    if (this.deadlineNanos != Long.MAX_VALUE && System.nanoTime() > this.deadlineNanos) {
+      throw new BudgetExceededException("Processing exceeded its deadline of " + this.timeoutMillis + " ms.");
+    }
+
+    if (this.chargedBytes > this.maxHeapBytes) {
+      throw new BudgetExceededException("Processing exceeded its heap limit of " + this.maxHeapBytes + " bytes.");
+    }
+  }
+
+  /**
+   * Charges memory held while processing the document against the heap limit.
+   * @param bytes the number of bytes held
+   * @throws IllegalArgumentException if {@code bytes} is negative.
+   * @throws BudgetExceededException if the memory charged so far exceeds the heap limit, or the
+   * budget is otherwise exhausted.
+   */
+  public void charge(long bytes) throws IllegalArgumentException, BudgetExceededException {
+    if (bytes < 0) {
+      throw new IllegalArgumentException("Bytes cannot be negative.");
+    }
+
+    this.chargedBytes += bytes;
+    this.checkpoint();
+  }
+
+  /**
+   * Cancels processing, so that the next checkpoint throws. May be called from any thread.
+   */
+  public void cancel() {
+    this.cancelled = true;
+  }
+
+  /**
+   * Gets the heap limit of this budget.
+   * @return the heap limit in bytes, or 0 if there is none
+   */
+  public long getMaxHeapBytes() {
+    return (this.maxHeapBytes == Long.MAX_VALUE) ? 0 : this.maxHeapBytes;
+  }
+
+  /**
+   * Wraps text so that a regular expression matching against it reaches a checkpoint every few
+   * thousand characters it reads, bounding even pathological backtracking by this budget.
+   * @param text the text to match against
+   * @return the guarded text
+   */
+  public CharSequence guard(CharSequence text) {
+    return new GuardedText(text);
+  }
+
+  // Text which reaches a checkpoint periodically as it is read.
+  private class GuardedText implements CharSequence {
+    private final CharSequence text;
+    private int reads;
+
+    private GuardedText(CharSequence text) {
+      this.text = text;
+      this.reads = 0;
+    }
+
+    @Override
+    public int length() {
+      return this.text.length();
+    }
+
+    @Override
+    public char charAt(int index) {
+      if (++this.reads % GUARD_INTERVAL == 0) {
+        ProcessingBudget.this.checkpoint();
+      }
+      return this.text.charAt(index);
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+      return new GuardedText(this.text.subSequence(start, end));
+    }
+
+    @Override
+    public String toString() {
+      return this.text.toString();
+    }
+  }
+}
@@ -0,0 +1,155 @@
+package model.parser.csv;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import model.date.Date;
+import model.money.MoneyAmount;
+import model.transactions.AbstractTransaction;
+import model.transactions.Deposit;
+import model.transactions.Payment;
+import model.transactions.TransactionType;
+
+/**
+ * The transactions of an exported CSV file held as columns of primitive values, in the order of
+ * the file's rows, so that large ledgers can be scanned and summed without creating a
+ * transaction for every row. Transactions, with their merchants and categories, are only created
+ * on request.
+ */
+public final class TransactionColumns {
+  private static final TransactionType[] TYPES = TransactionType.values();
+  private static final Deposit.DepositFactory DEPOSITS = new Deposit.DepositFactory();
+  private static final Payment.PaymentFactory PAYMENTS = new Payment.PaymentFactory();
+
+  // Invariant: each array holds at least size entries; types holds TransactionType ordinals,
+  // and every cents value is non-negative.
+  private byte[] types;
+  private int[] epochDays;
+  private long[] cents;
+  private String[] descriptions;
+  private int size;
+
+  TransactionColumns(int capacity) {
+    this.types = new byte[Math.max(16, capacity)];
+    this.epochDays = new int[this.types.length];
+    this.cents = new long[this.types.length];
+    this.descriptions = new String[this.types.length];
+  }
+
+  // Concatenates columns in order.
+  static TransactionColumns concat(List<TransactionColumns> parts) {
+    int total = 0;
+    for (TransactionColumns part : parts) {
+      total += part.size;
+    }
+
+    TransactionColumns columns = new TransactionColumns(total);
+    for (TransactionColumns part : parts) {
+      System.arraycopy(part.types, 0, columns.types, columns.size, part.size);
+      System.arraycopy(part.epochDays, 0, columns.epochDays, columns.size, part.size);
+      System.arraycopy(part.cents, 0, columns.cents, columns.size, part.size);
+      System.arraycopy(part.descriptions, 0, columns.descriptions, columns.size, part.size);
+      columns.size += part.size;
+    }
+    return columns;
+  }
+
+  // Adds one row.
+  void add(TransactionType type, int epochDay, long cents, String description) {
+    if (this.size == this.types.length) {
+      this.types = Arrays.copyOf(this.types, 2 * this.size);
+      this.epochDays = Arrays.copyOf(this.epochDays, 2 * this.size);
+      this.cents = Arrays.copyOf(this.cents, 2 * this.size);
+      this.descriptions = Arrays.copyOf(this.descriptions, 2 * this.size);
+    }
+
+    this.types[this.size] = (byte) type.ordinal();
+    this.epochDays[this.size] = epochDay;
+    this.cents[this.size] = cents;
+    this.descriptions[this.size] = description;
+    this.size++;
+  }
+
+  /**
+   * Gets the number of transactions.
+   * @return the number of rows
+   */
+  public int size() {
+    return this.size;
+  }
+
+  /**
+   * Gets whether a transaction is a deposit or a payment.
+   * @param row the index of the transaction
+   * @return the type of the transaction
+   * @throws IndexOutOfBoundsException if {@code row} is not between 0 and {@code size() - 1}.
+   */
+  public TransactionType getType(int row) throws IndexOutOfBoundsException {
+    return TYPES[this.types[this.checkRow(row)]];
+  }
+
+  /**
+   * Gets the date of a transaction as a number of days since 1970-01-01.
+   * @param row the index of the transaction
+   * @return the epoch day of the transaction
+   * @throws IndexOutOfBoundsException if {@code row} is not between 0 and {@code size() - 1}.
+   */
+  public int getEpochDay(int row) throws IndexOutOfBoundsException {
+    return this.epochDays[this.checkRow(row)];
+  }
+
+  /**
+   * Gets the amount of a transaction in cents.
+   * @param row the index of the transaction
+   * @return the number of cents
+   * @throws IndexOutOfBoundsException if {@code row} is not between 0 and {@code size() - 1}.
+   */
+  public long getCents(int row) throws IndexOutOfBoundsException {
+    return this.cents[this.checkRow(row)];
+  }
+
+  /**
+   * Gets the description of a transaction, as it was exported.
+   * @param row the index of the transaction
+   * @return the description
+   * @throws IndexOutOfBoundsException if {@code row} is not between 0 and {@code size() - 1}.
+   */
+  public String getDescription(int row) throws IndexOutOfBoundsException {
+    return this.descriptions[this.checkRow(row)];
+  }
+
+  /**
+   * Creates a transaction, with its merchant and category.
+   * @param row the index of the transaction
+   * @return a {@code Deposit} or a {@code Payment}
+   * @throws IndexOutOfBoundsException if {@code row} is not between 0 and {@code size() - 1}.
+   */
+  public AbstractTransaction toTransaction(int row) throws IndexOutOfBoundsException {
+    Date date = Date.fromEpochDay(this.getEpochDay(row));
+    MoneyAmount amount = MoneyAmount.ofCents(this.cents[row]);
+    if (this.getType(row) == TransactionType.DEPOSIT) {
+      return DEPOSITS.make(date, this.descriptions[row], amount);
+    }
+    return PAYMENTS.make(date, this.descriptions[row], amount);
+  }
+
+  /**
+   * Creates every transaction, in the order of the file's rows.
+   * @return the transactions
+   */
+  public List<AbstractTransaction> toTransactions() {
+    List<AbstractTransaction> transactions = new ArrayList<>(this.size);
+    for (int row = 0; row < this.size; row++) {
+      transactions.add(this.toTransaction(row));
+    }
+    return transactions;
+  }
+
+  private int checkRow(int row) throws IndexOutOfBoundsException {
+    if (row < 0 || row >= this.size) {
+      throw new IndexOutOfBoundsException("Row " + row + " is out of range for " + this.size + " row(s).");
+    }
+    return row;
+  }
+}
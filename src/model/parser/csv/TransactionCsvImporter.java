@@ -0,0 +1,324 @@
+package model.parser.csv;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+import model.transactions.AbstractTransaction;
+import model.transactions.TransactionType;
+
+/**
+ * Reads back the CSV files written by {@code StatementFileWriter}, with rows of the form
+ * {@code type,date,description,amount}, along with consolidated files which add a
+ * {@code transfer} column, whose value is ignored. The file is memory-mapped and split into
+ * chunks which end at line breaks, and the chunks are parsed concurrently straight from their
+ * bytes, then put back together in the order of the file, so a large ledger is read about as
+ * fast as the disk can supply it rather than as fast as one core can parse it.
+ *
+ * <p>Descriptions are everything between the date and the last comma of a row, so they may
+ * themselves contain commas, as they are written without quoting.
+ */
+public class TransactionCsvImporter {
+  /**
+   * The default number of bytes in each chunk.
+   */
+  public static final int DEFAULT_CHUNK_BYTES = 16 * 1024 * 1024;
+
+  private static final int MAX_CHUNK_BYTES = 1 << 30;
+
+  // The header row is read from a buffer of this size, and line breaks are searched for in it.
+  private static final int SCAN_BYTES = 64 * 1024;
+
+  private static final String HEADER = "type,date,description,amount";
+  private static final String FLAGGED_HEADER = HEADER + ",transfer";
+
+  private static final byte[] DEPOSIT = (TransactionType.DEPOSIT + ",").getBytes(StandardCharsets.UTF_8);
+  private static final byte[] PAYMENT = (TransactionType.PAYMENT + ",").getBytes(StandardCharsets.UTF_8);
+
+  // The length of a date in YYYY-MM-DD format.
+  private static final int DATE_LENGTH = 10;
+
+  // Invariant: threadCount is positive, and chunkBytes is between 1 and MAX_CHUNK_BYTES.
+  private final int threadCount;
+  private final int chunkBytes;
+
+  /**
+   * Initializes an importer with one thread per core and the default chunk size.
+   */
+  public TransactionCsvImporter() {
+    this(Runtime.getRuntime().availableProcessors(), DEFAULT_CHUNK_BYTES);
+  }
+
+  /**
+   * Initializes an importer with the provided number of threads and chunk size.
+   * @param threadCount the number of chunks parsed at once
+   * @param chunkBytes the approximate number of bytes in each chunk
+   * @throws IllegalArgumentException if {@code threadCount} is not positive OR if
+   * {@code chunkBytes} is not between 1 byte and 1 GB.
+   */
+  public TransactionCsvImporter(int threadCount, int chunkBytes) throws IllegalArgumentException {
+    if (threadCount <= 0) {
+      throw new IllegalArgumentException("Thread count must be positive.");
+    }
+
+    if (chunkBytes <= 0 || chunkBytes > MAX_CHUNK_BYTES) {
+      throw new IllegalArgumentException("Chunk size must be between 1 byte and 1 GB.");
+    }
+
+    this.threadCount = threadCount;
+    this.chunkBytes = chunkBytes;
+  }
+
+  /**
+   * Reads a CSV file into columns of primitive values, without creating any transactions.
+   * @param filepath the path to the CSV file
+   * @return the transactions of the file, in the order of its rows
+   * @throws IllegalArgumentException if {@code filepath} is {@code null}.
+   * @throws IllegalStateException if the file cannot be read OR if it is not a transaction CSV
+   * file OR if any row is malformed.
+   */
+  public TransactionColumns importColumns(String filepath) throws IllegalArgumentException, IllegalStateException {
+    return TransactionColumns.concat(this.parseChunks(filepath, columns -> columns));
+  }
+
+  /**
+   * Reads a CSV file into transactions, with their merchants and categories, which are created
+   * concurrently for each chunk.
+   * @param filepath the path to the CSV file
+   * @return the transactions of the file, in the order of its rows
+   * @throws IllegalArgumentException if {@code filepath} is {@code null}.
+   * @throws IllegalStateException if the file cannot be read OR if it is not a transaction CSV
+   * file OR if any row is malformed.
+   */
+  public List<AbstractTransaction> importTransactions(String filepath) throws IllegalArgumentException, IllegalStateException {
+    List<AbstractTransaction> transactions = new ArrayList<>();
+    for (List<AbstractTransaction> chunk : this.parseChunks(filepath, TransactionColumns::toTransactions)) {
+      transactions.addAll(chunk);
+    }
+    return transactions;
+  }
+
+  // Parses every chunk of the file concurrently, finishing each with the provided function, and
+  // gets the results in the order of the file.
+  private <T> List<T> parseChunks(String filepath, Function<TransactionColumns, T> finish)
+    throws IllegalArgumentException, IllegalStateException {
+    if (filepath == null) {
+      throw new IllegalArgumentException("Filepath cannot be null.");
+    }
+
+    ExecutorService executor = Executors.newFixedThreadPool(this.threadCount);
+    try (FileChannel channel = FileChannel.open(Paths.get(filepath), StandardOpenOption.READ)) {
+      long size = channel.size();
+      long headerEnd = nextLineStart(channel, 0, size);
+      String header = readHeader(channel, headerEnd);
+      if (!header.equals(HEADER) && !header.equals(FLAGGED_HEADER)) {
+        throw new IllegalStateException("Not a transaction CSV file: " + filepath);
+      }
+      boolean flagged = header.equals(FLAGGED_HEADER);
+
+      List<Future<T>> chunks = new ArrayList<>();
+      long start = headerEnd;
+      while (start < size) {
+        long end = (size - start <= this.chunkBytes) ? size : nextLineStart(channel, start + this.chunkBytes, size);
+        MappedByteBuffer chunk = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+        long offset = start;
+        chunks.add(executor.submit(() -> finish.apply(parseChunk(chunk, offset, flagged))));
+        start = end;
+      }
+
+      List<T> results = new ArrayList<>();
+      for (Future<T> chunk : chunks) {
+        results.add(chunk.get());
+      }
+      return results;
+    } catch (IOException e) {
+      throw new IllegalStateException("Failed to read " + filepath + ".");
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw new IllegalStateException("Failed to read " + filepath + ": " + e.getCause().getMessage());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while reading " + filepath + ".");
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  // Reads the header row, which ends at the provided offset, without its line break.
+  private static String readHeader(FileChannel channel, long headerEnd) throws IOException, IllegalStateException {
+    if (headerEnd > SCAN_BYTES) {
+      throw new IllegalStateException("Header row is too long.");
+    }
+
+    ByteBuffer buffer = ByteBuffer.allocate((int) headerEnd);
+    while (buffer.hasRemaining() && channel.read(buffer, buffer.position()) >= 0) {
+      // Keep reading until the header is complete
+    }
+    String header = new String(buffer.array(), 0, buffer.position(), StandardCharsets.UTF_8);
+    return header.endsWith("\r\n") ? header.substring(0, header.length() - 2)
+      : header.endsWith("\n") ? header.substring(0, header.length() - 1) : header;
+  }
+
+  // Gets the offset of the first line starting at or after the provided offset, or the size of
+  // the file if there is none.
+  private static long nextLineStart(FileChannel channel, long from, long size) throws IOException {
+    if (from == 0) {
+      from = 1;
+    }
+
+    // A line starts at from if the byte before it ends a line
+    ByteBuffer buffer = ByteBuffer.allocate(SCAN_BYTES);
+    long position = from - 1;
+    while (position < size) {
+      buffer.clear();
+      int read = channel.read(buffer, position);
+      if (read <= 0) {
+        break;
+      }
+
+      for (int i = 0; i < read; i++) {
+        if (buffer.get(i) == '\n') {
+          return position + i + 1;
+        }
+      }
+      position += read;
+    }
+    return size;
+  }
+
+  // Parses every row of a chunk, which starts at the provided offset of the file.
+  private static TransactionColumns parseChunk(ByteBuffer chunk, long offset, boolean flagged) throws IllegalStateException {
+    TransactionColumns columns = new TransactionColumns(chunk.limit() / 48);
+    byte[] scratch = new byte[256];
+
+    int limit = chunk.limit();
+    int lineStart = 0;
+    while (lineStart < limit) {
+      int lineEnd = lineStart;
+      while (lineEnd < limit && chunk.get(lineEnd) != '\n') {
+        lineEnd++;
+      }
+
+      int end = (lineEnd > lineStart && chunk.get(lineEnd - 1) == '\r') ? lineEnd - 1 : lineEnd;
+      if (end > lineStart) {
+        scratch = parseRow(chunk, lineStart, end, flagged, columns, scratch, offset);
+      }
+      lineStart = lineEnd + 1;
+    }
+    return columns;
+  }
+
+  // Parses one row, adding it to the columns, and returns the scratch buffer for descriptions,
+  // which grows to fit the longest description.
+  private static byte[] parseRow(ByteBuffer chunk, int start, int end, boolean flagged, TransactionColumns columns,
+                                 byte[] scratch, long offset) throws IllegalStateException {
+    TransactionType type;
+    int dateStart;
+    if (startsWith(chunk, start, end, PAYMENT)) {
+      type = TransactionType.PAYMENT;
+      dateStart = start + PAYMENT.length;
+    } else if (startsWith(chunk, start, end, DEPOSIT)) {
+      type = TransactionType.DEPOSIT;
+      dateStart = start + DEPOSIT.length;
+    } else {
+      throw malformed(offset, start);
+    }
+
+    int dateEnd = dateStart + DATE_LENGTH;
+    if (dateEnd >= end || chunk.get(dateEnd) != ',' || chunk.get(dateStart + 4) != '-' || chunk.get(dateStart + 7) != '-') {
+      throw malformed(offset, start);
+    }
+
+    int epochDay;
+    try {
+      epochDay = (int) LocalDate.of(digits(chunk, dateStart, dateStart + 4, offset, start),
+        digits(chunk, dateStart + 5, dateStart + 7, offset, start),
+        digits(chunk, dateStart + 8, dateEnd, offset, start)).toEpochDay();
+    } catch (DateTimeException e) {
+      throw malformed(offset, start);
+    }
+
+    int amountEnd = flagged ? lastComma(chunk, dateEnd, end) : end;
+    int amountStart = lastComma(chunk, dateEnd, amountEnd);
+    if (amountEnd < 0 || amountStart < 0) {
+      throw malformed(offset, start);
+    }
+    long cents = parseCents(chunk, amountStart + 1, amountEnd, offset, start);
+
+    int length = amountStart - dateEnd - 1;
+    if (length > scratch.length) {
+      scratch = new byte[Math.max(length, 2 * scratch.length)];
+    }
+    chunk.get(dateEnd + 1, scratch, 0, length);
+    columns.add(type, epochDay, cents, new String(scratch, 0, length, StandardCharsets.UTF_8));
+    return scratch;
+  }
+
+  // Parses an amount formatted like $1234.56.
+  private static long parseCents(ByteBuffer chunk, int start, int end, long offset, int row) throws IllegalStateException {
+    int dot = end - 3;
+    if (end - start < 5 || chunk.get(start) != '$' || chunk.get(dot) != '.') {
+      throw malformed(offset, row);
+    }
+    return 100L * digits(chunk, start + 1, dot, offset, row) + digits(chunk, dot + 1, end, offset, row);
+  }
+
+  // Parses a run of decimal digits.
+  private static int digits(ByteBuffer chunk, int start, int end, long offset, int row) throws IllegalStateException {
+    if (end - start > 9) {
+      throw malformed(offset, row);
+    }
+
+    int value = 0;
+    for (int i = start; i < end; i++) {
+      int digit = chunk.get(i) - '0';
+      if (digit < 0 || digit > 9) {
+        throw malformed(offset, row);
+      }
+      value = 10 * value + digit;
+    }
+    return value;
+  }
+
+  // Gets the offset of the last comma after from and before end, or -1 if there is none.
+  private static int lastComma(ByteBuffer chunk, int from, int end) {
+    for (int i = end - 1; i > from; i--) {
+      if (chunk.get(i) == ',') {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  private static boolean startsWith(ByteBuffer chunk, int start, int end, byte[] prefix) {
+    if (end - start < prefix.length) {
+      return false;
+    }
+
+    for (int i = 0; i < prefix.length; i++) {
+      if (chunk.get(start + i) != prefix[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static IllegalStateException malformed(long offset, int row) {
+    return new IllegalStateException("Malformed row at byte " + (offset + row) + ".");
+  }
+}
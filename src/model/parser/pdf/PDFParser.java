@@ -1,5 +1,7 @@
 package model.parser.pdf;
 
+import model.parser.ProcessingBudget;
+
 /**
  * Parses a PDF file into its text content.
  */
@@ -18,4 +20,14 @@ public interface PDFParser {
    * the PDF.
    */
   String getTextContents() throws IllegalStateException;
+
+  /**
+   * Gets the text contents of the imported PDF, stopping once the provided budget is exceeded.
+   * The imported PDF is released whether or not its text is extracted successfully.
+   * @param budget the time and memory allowed for extracting the text
+   * @return the text contents of the PDF file imported using the {@code importFile} method.
+   * @throws IllegalStateException if a PDF has not been imported OR if there is an error parsing
+   * the PDF OR if {@code budget} is exceeded.
+   */
+  String getTextContents(ProcessingBudget budget) throws IllegalStateException;
 }
@@ -1,41 +1,92 @@
 package model.parser.pdf;
 
+import org.apache.pdfbox.io.MemoryUsageSetting;
 import org.apache.pdfbox.pdmodel.PDDocument;
 import org.apache.pdfbox.text.PDFTextStripper;
 
 import java.io.File;
 import java.io.IOException;
 
+import model.parser.ProcessingBudget;
+
 /**
  * Parses a PDF file using the Apache PDF Box library.
  */
 public class PDFParserImpl implements PDFParser {
-  private PDDocument pdDoc = null;
-  private PDFTextStripper pdfStripper = null;
+  static {
+    // Only text is extracted, so fonts which are not embedded never need a close system match
+    TextOnlyFontMapper.install();
+  }
+
+  // With a heap limit, PDF Box may keep this fraction of it in memory; the rest is left for the
+  // extracted text.
+  private static final int BUFFER_SHARE = 4;
+
+  private File statementFile = null;
 
   @Override
   public void importFile(String filepath) throws IllegalStateException {
-    File statementFile = new File(filepath);
-    try {
-      pdDoc = PDDocument.load(statementFile);
-      pdfStripper = new PDFTextStripper();
-    } catch (IOException e) {
+    File file = new File(filepath);
+    if (!file.isFile()) {
       throw new IllegalStateException("Failed to load PDF.");
     }
+
+    this.statementFile = file;
   }
 
   @Override
   public String getTextContents() throws IllegalStateException {
-    if (pdDoc == null || pdfStripper == null) {
+    return this.getTextContents(ProcessingBudget.unlimited());
+  }
+
+  @Override
+  public String getTextContents(ProcessingBudget budget) throws IllegalStateException {
+    if (this.statementFile == null) {
       throw new IllegalStateException("There is no PDF file to parse.");
     }
 
+    File file = this.statementFile;
+    this.statementFile = null;
+
+    // Past its share of the heap limit, PDF Box keeps the document in a temporary file instead
+    MemoryUsageSetting memoryUsage = MemoryUsageSetting.setupMainMemoryOnly();
+    if (budget.getMaxHeapBytes() > 0) {
+      long bufferBytes = Math.max(1, budget.getMaxHeapBytes() / BUFFER_SHARE);
+      budget.charge(bufferBytes);
+      memoryUsage = MemoryUsageSetting.setupMixed(bufferBytes);
+    }
+
+    PDDocument pdDoc;
+    try {
+      pdDoc = PDDocument.load(file, memoryUsage);
+    } catch (IOException e) {
+      throw new IllegalStateException("Failed to load PDF.");
+    }
+
     try {
-      String parsedText = pdfStripper.getText(pdDoc);
-      pdDoc.close();
-      return parsedText;
+      PDFTextStripper pdfStripper = new PDFTextStripper();
+      StringBuilder parsedText = new StringBuilder();
+
+      // Extract one page at a time so the budget is checked between pages
+      for (int page = 1; page <= pdDoc.getNumberOfPages(); page++) {
+        budget.checkpoint();
+        pdfStripper.setStartPage(page);
+        pdfStripper.setEndPage(page);
+        String pageText = pdfStripper.getText(pdDoc);
+        budget.charge((long) pageText.length() * Character.BYTES);
+        parsedText.append(pageText);
+      }
+
+      budget.checkpoint();
+      return parsedText.toString();
     } catch (IOException e) {
       throw new IllegalStateException("Failed to parse PDF.");
+    } finally {
+      try {
+        pdDoc.close();
+      } catch (IOException e) {
+        // The text has already been extracted or has already failed; nothing more to release
+      }
     }
   }
 }
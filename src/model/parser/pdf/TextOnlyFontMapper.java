@@ -0,0 +1,76 @@
+package model.parser.pdf;
+
+import org.apache.fontbox.FontBoxFont;
+import org.apache.fontbox.ttf.TTFParser;
+import org.apache.fontbox.ttf.TrueTypeFont;
+import org.apache.pdfbox.pdmodel.font.CIDFontMapping;
+import org.apache.pdfbox.pdmodel.font.FontMapper;
+import org.apache.pdfbox.pdmodel.font.FontMappers;
+import org.apache.pdfbox.pdmodel.font.FontMapping;
+import org.apache.pdfbox.pdmodel.font.PDCIDSystemInfo;
+import org.apache.pdfbox.pdmodel.font.PDFontDescriptor;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Substitutes the sans serif font bundled with PDF Box for every font a document uses but does
+ * not embed. PDF Box's own font mapper searches the fonts installed on the system for a better
+ * substitute, and the first search scans every installed font to build a cache, which takes
+ * seconds on a fresh machine. Substitutes only affect how glyphs are drawn, while extracted text
+ * comes from the document's own encodings and widths, so text extraction never needs that scan.
+ */
+final class TextOnlyFontMapper implements FontMapper {
+  // The fallback font PDF Box ships in its jar.
+  private static final String FALLBACK_FONT = "/org/apache/pdfbox/resources/ttf/LiberationSans-Regular.ttf";
+
+  private static boolean installed = false;
+
+  // The fallback font, loaded the first time a document needs a substitute.
+  private TrueTypeFont fallback;
+
+  private TextOnlyFontMapper() {
+  }
+
+  /**
+   * Makes PDF Box substitute the bundled font for every font which is not embedded, for the rest
+   * of the life of the JVM. Installing more than once has no further effect.
+   */
+  static synchronized void install() {
+    if (!installed) {
+      FontMappers.set(new TextOnlyFontMapper());
+      installed = true;
+    }
+  }
+
+  @Override
+  public FontMapping<TrueTypeFont> getTrueTypeFont(String baseFont, PDFontDescriptor fontDescriptor) {
+    return new FontMapping<>(this.getFallback(), true);
+  }
+
+  @Override
+  public FontMapping<FontBoxFont> getFontBoxFont(String baseFont, PDFontDescriptor fontDescriptor) {
+    return new FontMapping<>(this.getFallback(), true);
+  }
+
+  @Override
+  public CIDFontMapping getCIDFont(String baseFont, PDFontDescriptor fontDescriptor, PDCIDSystemInfo cidSystemInfo) {
+    return new CIDFontMapping(null, this.getFallback(), true);
+  }
+
+  // Gets the fallback font, loading it from the PDF Box jar the first time.
+  private synchronized TrueTypeFont getFallback() throws IllegalStateException {
+    if (this.fallback == null) {
+      try (InputStream font = FontMapper.class.getResourceAsStream(FALLBACK_FONT)) {
+        if (font == null) {
+          throw new IllegalStateException("Fallback font is missing from PDF Box.");
+        }
+        this.fallback = new TTFParser().parse(font);
+      } catch (IOException e) {
+        throw new IllegalStateException("Failed to load fallback font.");
+      }
+    }
+
+    return this.fallback;
+  }
+}
@@ -2,30 +2,61 @@ package model.parser.statement;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.regex.MatchResult;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
+import model.category.CategoryAutomaton;
+import model.category.TransactionCategory;
 import model.date.Date;
 import model.date.Month;
+import model.merchant.MerchantNormalizer;
+import model.parser.ProcessingBudget;
+import model.merchant.NormalizedDescription;
 import model.money.MoneyAmount;
+import model.query.TransactionQuery;
 import model.transactions.AbstractTransaction;
 import model.transactions.AbstractTransactionFactory;
 import model.transactions.Deposit;
 import model.transactions.Payment;
+import model.transactions.TransactionDateComparator;
+import model.transactions.TransactionType;
 
 /**
- * Represents a statement parser, including various functions universal to all parsers.
+ * Represents a statement parser, including various functions universal to all parsers. A
+ * document may contain several consecutive statements, such as an annual download; each
+ * statement begins at a date range which differs from the one before it, and the statements
+ * are parsed concurrently and their transactions merged in date order.
+ *
+ * <p>Subclasses only find the lines of the statement which may hold transactions; matching and
+ * decoding the lines is shared, either all at once by {@code receiveStatement} or one field at a
+ * time through the {@link TransactionCursor} returned by {@code openCursor}.
+ *
+ * <p>A filter is applied as early as it can be: statements whose period is outside its dates are
+ * not searched for transactions, lines of the wrong type are never matched, and the date and
+ * amount of a line are checked before its description is cleaned up.
  */
 public abstract class AbstractStatementParser implements StatementParser {
+  // Matches every transaction.
+  private static final TransactionQuery ALL = new TransactionQuery.Builder().build();
+
   protected String statement;
   protected boolean hasReceivedStatement;
   protected List<Deposit> deposits;
   protected List<Payment> payments;
   protected Date startDate;
   protected Date endDate;
+  protected ProcessingBudget budget;
+  protected TransactionQuery filter;
 
   protected AbstractStatementParser() {
     this.hasReceivedStatement = false;
+    this.budget = ProcessingBudget.unlimited();
+    this.filter = ALL;
     this.deposits = new ArrayList<>();
     this.payments = new ArrayList<>();
   }
@@ -34,54 +65,225 @@ public abstract class AbstractStatementParser implements StatementParser {
   protected abstract Pattern getTransactionPattern();
   protected abstract String[] getBannedStrings();
 
+  // Gets the normalizer mapping cleaned descriptions to canonical merchants.
+  protected MerchantNormalizer getMerchantNormalizer() {
+    return MerchantNormalizer.getDefault();
+  }
+
+  // Finds the category of a transaction from its description, both before and after cleanup.
+  protected TransactionCategory categorize(String rawDescription, String description) {
+    return CategoryAutomaton.getDefault().categorize(description);
+  }
+
   protected abstract Date fromDateRangeString(String dateRangeString) throws IllegalStateException;
-  protected abstract void parseStatement();
-
-  protected <T extends AbstractTransaction> T parseTransaction(String transactionString, AbstractTransactionFactory<T> factory) {
-    Matcher transactionMatcher = this.getTransactionPattern().matcher(transactionString);
-    if (transactionMatcher.find()) {
-      Month month = Month.asMonth(Integer.parseInt(transactionMatcher.group(1)));
-      int day = Integer.parseInt(transactionMatcher.group(2));
-      Date date = Date.withinRange(this.startDate, this.endDate, month, day);
-
-      String description = transactionMatcher.group(3).replace(",", " ");
-      for (String bannedPattern : this.getBannedStrings()) {
-        description = description.replaceAll(bannedPattern, "");
-      }
-      description = description.trim();
 
-      int dollars = Integer.parseInt(transactionMatcher.group(4).replaceAll(",", ""));
-      int cents = Integer.parseInt(transactionMatcher.group(5));
-      MoneyAmount amount = new MoneyAmount(dollars, cents);
+  // Finds the lines of the received statement which may hold transactions, in the order they
+  // appear, leaving out lines of a type the filter rejects.
+  protected abstract TransactionLines findTransactionLines();
 
-      return factory.make(date, description, amount);
-    } else {
-      return null;
+  // Determines whether the filter accepts transactions of the provided type.
+  protected boolean acceptsType(TransactionType type) {
+    return this.filter.getType() == null || this.filter.getType() == type;
+  }
+
+  // Creates a new parser of the same kind, used to parse one statement of a multi-statement document.
+  protected abstract AbstractStatementParser newSegmentParser();
+
+  // Creates the transaction of a line matched by the transaction pattern, cleaning up its description.
+  <T extends AbstractTransaction> T makeTransaction(MatchResult transactionMatch, AbstractTransactionFactory<T> factory) {
+    Month month = Month.asMonth(Integer.parseInt(transactionMatch.group(1)));
+    int day = Integer.parseInt(transactionMatch.group(2));
+    Date date = Date.withinRange(this.startDate, this.endDate, month, day);
+
+    String rawDescription = transactionMatch.group(3);
+    String description = rawDescription.replace(",", " ");
+    for (String bannedPattern : this.getBannedStrings()) {
+      description = description.replaceAll(bannedPattern, "");
     }
+    NormalizedDescription normalized = this.getMerchantNormalizer().normalize(description.trim());
+    TransactionCategory category = this.categorize(rawDescription, normalized.getDescription());
+
+    int dollars = Integer.parseInt(transactionMatch.group(4).replaceAll(",", ""));
+    int cents = Integer.parseInt(transactionMatch.group(5));
+    MoneyAmount amount = new MoneyAmount(dollars, cents);
+
+    return factory.make(date, normalized.getDescription(), amount, normalized.getMerchant(), category);
+  }
+
+  // Replaces every match of the regular expression, bounded by the budget of this parser.
+  protected String replaceAll(String text, String regex, String replacement) throws IllegalStateException {
+    this.budget.checkpoint();
+    return Pattern.compile(regex).matcher(this.budget.guard(text)).replaceAll(replacement);
   }
 
   @Override
   public void receiveStatement(String statement) throws IllegalArgumentException, IllegalStateException {
+    this.receiveStatement(statement, ProcessingBudget.unlimited());
+  }
+
+  @Override
+  public void receiveStatement(String statement, ProcessingBudget budget) throws IllegalArgumentException, IllegalStateException {
+    this.receiveStatement(statement, budget, ALL);
+  }
+
+  @Override
+  public void receiveStatement(String statement, ProcessingBudget budget, TransactionQuery filter) throws IllegalArgumentException, IllegalStateException {
+    List<Integer> boundaries = this.receive(statement, budget, filter);
+    if (boundaries.size() == 1) {
+      this.parseStatement();
+    } else {
+      this.parseSegments(boundaries);
+    }
+  }
+
+  @Override
+  public TransactionCursor openCursor(String statement, ProcessingBudget budget) throws IllegalArgumentException, IllegalStateException {
+    return this.openCursor(statement, budget, ALL);
+  }
+
+  @Override
+  public TransactionCursor openCursor(String statement, ProcessingBudget budget, TransactionQuery filter) throws IllegalArgumentException, IllegalStateException {
+    List<Integer> boundaries = this.receive(statement, budget, filter);
+    List<TransactionCursor.Segment> segments = new ArrayList<>();
+    if (boundaries.size() == 1) {
+      if (this.periodMatchesFilter()) {
+        segments.add(new TransactionCursor.Segment(this, this.findTransactionLines()));
+      }
+    } else {
+      for (int i = 0; i < boundaries.size(); i++) {
+        int end = (i + 1 < boundaries.size()) ? boundaries.get(i + 1) : this.statement.length();
+        AbstractStatementParser parser = this.newSegmentParser();
+        parser.receive(this.statement.substring(boundaries.get(i), end), budget, filter);
+        if (parser.periodMatchesFilter()) {
+          segments.add(new TransactionCursor.Segment(parser, parser.findTransactionLines()));
+        }
+      }
+    }
+
+    return new TransactionCursor(segments, filter);
+  }
+
+  // Saves the statement and finds its date range, returning the offset at which each statement of
+  // the document begins.
+  private List<Integer> receive(String statement, ProcessingBudget budget, TransactionQuery filter) throws IllegalArgumentException, IllegalStateException {
     if (statement == null || statement.length() == 0) {
       throw new IllegalArgumentException("Statement cannot be empty.");
     }
 
+    if (budget == null) {
+      throw new IllegalArgumentException("Budget cannot be null.");
+    }
+
+    if (filter == null) {
+      throw new IllegalArgumentException("Filter cannot be null.");
+    }
+
     if (this.hasReceivedStatement) {
       throw new IllegalArgumentException("Already received statement.");
     }
 
     this.statement = statement;
     this.hasReceivedStatement = true;
+    this.budget = budget;
+    this.filter = filter;
+
+    // Every page of a statement repeats its date range, so a statement begins wherever the range changes
+    List<Integer> boundaries = new ArrayList<>();
+    String previousRange = null;
+    Matcher dateRangeMatcher = this.getDateRangePattern().matcher(budget.guard(statement));
+    while (dateRangeMatcher.find()) {
+      if (dateRangeMatcher.groupCount() != 2) {
+        throw new IllegalStateException("Cannot find date range in statement.");
+      }
 
-    Matcher dateRangeMatcher = this.getDateRangePattern().matcher(statement);
-    if(!dateRangeMatcher.find() || dateRangeMatcher.groupCount() != 2) {
+      String range = dateRangeMatcher.group(1) + " - " + dateRangeMatcher.group(2);
+      if (!range.equals(previousRange)) {
+        if (boundaries.isEmpty()) {
+          this.startDate = this.fromDateRangeString(dateRangeMatcher.group(1));
+          this.endDate = this.fromDateRangeString(dateRangeMatcher.group(2));
+        }
+        boundaries.add(dateRangeMatcher.start());
+        previousRange = range;
+      }
+    }
+
+    if (boundaries.isEmpty()) {
       throw new IllegalStateException("Cannot find date range in statement.");
     }
 
-    this.startDate = this.fromDateRangeString(dateRangeMatcher.group(1));
-    this.endDate = this.fromDateRangeString(dateRangeMatcher.group(2));
+    // Anything before the first date range belongs to the first statement
+    boundaries.set(0, 0);
+    return boundaries;
+  }
+
+  // Parses every transaction of a statement which the filter accepts.
+  private void parseStatement() throws IllegalStateException {
+    if (!this.periodMatchesFilter()) {
+      return;
+    }
+
+    // Only the description prefix needs the cleaned description, so it is checked last
+    boolean checkDescription = this.filter.getDescriptionPrefix() != null;
+    TransactionCursor cursor = new TransactionCursor(List.of(new TransactionCursor.Segment(this, this.findTransactionLines())), this.filter);
+    while (cursor.next()) {
+      if (cursor.getType() == TransactionType.DEPOSIT) {
+        Deposit deposit = cursor.materialize(new Deposit.DepositFactory());
+        if (!checkDescription || this.filter.matches(deposit)) {
+          this.deposits.add(deposit);
+        }
+      } else {
+        Payment payment = cursor.materialize(new Payment.PaymentFactory());
+        if (!checkDescription || this.filter.matches(payment)) {
+          this.payments.add(payment);
+        }
+      }
+    }
+  }
+
+  // Determines whether any day of the statement period is within the dates of the filter.
+  private boolean periodMatchesFilter() {
+    return !this.filter.hasDateRange()
+      || (this.startDate.toEpochDay() <= this.filter.toEpochDay() && this.endDate.toEpochDay() >= this.filter.fromEpochDay());
+  }
+
+  // Parses each statement starting at the provided offsets with its own parser, concurrently, and
+  // merges their transactions in date order.
+  private void parseSegments(List<Integer> boundaries) throws IllegalStateException {
+    int threads = Math.min(boundaries.size(), Runtime.getRuntime().availableProcessors());
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+    try {
+      List<Future<AbstractStatementParser>> segments = new ArrayList<>();
+      for (int i = 0; i < boundaries.size(); i++) {
+        int end = (i + 1 < boundaries.size()) ? boundaries.get(i + 1) : this.statement.length();
+        String segment = this.statement.substring(boundaries.get(i), end);
+        segments.add(executor.submit(() -> {
+          AbstractStatementParser parser = this.newSegmentParser();
+          parser.receiveStatement(segment, this.budget, this.filter);
+          return parser;
+        }));
+      }
+
+      for (Future<AbstractStatementParser> segment : segments) {
+        AbstractStatementParser parser = segment.get();
+        this.deposits.addAll(parser.deposits);
+        this.payments.addAll(parser.payments);
+        this.endDate = parser.endDate;
+      }
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw new IllegalStateException("Failed to parse statement: " + e.getCause().getMessage());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while parsing statement.");
+    } finally {
+      executor.shutdownNow();
+    }
 
-    this.parseStatement();
+    this.deposits.sort(new TransactionDateComparator());
+    this.payments.sort(new TransactionDateComparator());
   }
 
   @Override
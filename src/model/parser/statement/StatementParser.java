@@ -2,6 +2,8 @@ package model.parser.statement;
 
 import java.util.List;
 
+import model.parser.ProcessingBudget;
+import model.query.TransactionQuery;
 import model.transactions.Deposit;
 import model.transactions.Payment;
 
@@ -18,6 +20,63 @@ public interface StatementParser {
    */
   void receiveStatement(String statement) throws IllegalArgumentException, IllegalStateException;
 
+  /**
+   * Receives a statement to parse, saving its text contents, and stopping once the provided
+   * budget is exceeded.
+   * @param statement the text contents of a statement to parse.
+   * @param budget the time and memory allowed for parsing the statement
+   * @throws IllegalArgumentException if the provided statement is {@code null} OR if the provided
+   * statement is empty OR if the provided budget is {@code null}
+   * @throws IllegalStateException if there is an error parsing the statement text contents OR if
+   * {@code budget} is exceeded
+   */
+  void receiveStatement(String statement, ProcessingBudget budget) throws IllegalArgumentException, IllegalStateException;
+
+  /**
+   * Receives a statement to parse, saving only the transactions which match the provided
+   * filter, and stopping once the provided budget is exceeded. The filter is applied while
+   * parsing, so transactions it rejects cost little more than finding them.
+   * @param statement the text contents of a statement to parse.
+   * @param budget the time and memory allowed for parsing the statement
+   * @param filter the transactions to keep
+   * @throws IllegalArgumentException if the provided statement is {@code null} OR if the provided
+   * statement is empty OR if the provided budget or filter is {@code null}
+   * @throws IllegalStateException if there is an error parsing the statement text contents OR if
+   * {@code budget} is exceeded
+   */
+  void receiveStatement(String statement, ProcessingBudget budget, TransactionQuery filter) throws IllegalArgumentException, IllegalStateException;
+
+  /**
+   * Receives a statement to parse lazily, returning a cursor over its transactions in the order
+   * they appear rather than parsing them all. The deposits and payments of this parser stay
+   * empty.
+   * @param statement the text contents of a statement to parse.
+   * @param budget the time and memory allowed for parsing the statement
+   * @return a cursor over the transactions of the statement
+   * @throws IllegalArgumentException if the provided statement is {@code null} OR if the provided
+   * statement is empty OR if the provided budget is {@code null} OR if a statement was already
+   * received
+   * @throws IllegalStateException if there is an error finding the transactions of the statement
+   * OR if {@code budget} is exceeded
+   */
+  TransactionCursor openCursor(String statement, ProcessingBudget budget) throws IllegalArgumentException, IllegalStateException;
+
+  /**
+   * Receives a statement to parse lazily, returning a cursor over only the transactions whose
+   * type, date, and amount match the provided filter. The description prefix of the filter is
+   * not applied, since it needs the cleaned description of each transaction.
+   * @param statement the text contents of a statement to parse.
+   * @param budget the time and memory allowed for parsing the statement
+   * @param filter the transactions to visit
+   * @return a cursor over the matching transactions of the statement
+   * @throws IllegalArgumentException if the provided statement is {@code null} OR if the provided
+   * statement is empty OR if the provided budget or filter is {@code null} OR if a statement
+   * was already received
+   * @throws IllegalStateException if there is an error finding the transactions of the statement
+   * OR if {@code budget} is exceeded
+   */
+  TransactionCursor openCursor(String statement, ProcessingBudget budget, TransactionQuery filter) throws IllegalArgumentException, IllegalStateException;
+
   /**
    * Gets all the deposits mentioned on the statement provided via the {@code receiveStatement}
    * method.
@@ -0,0 +1,227 @@
+package model.parser.statement;
+
+import java.util.List;
+import java.util.regex.Matcher;
+
+import model.date.Date;
+import model.date.Month;
+import model.query.TransactionQuery;
+import model.transactions.AbstractTransaction;
+import model.transactions.AbstractTransactionFactory;
+import model.transactions.Deposit;
+import model.transactions.Payment;
+import model.transactions.TransactionType;
+
+/**
+ * Iterates over the transactions of a statement in the order they appear, without creating them.
+ * Each transaction is a line of the statement's text; its fields are decoded from the text only
+ * when they are requested, and the full transaction, with its cleaned description, merchant, and
+ * category, is only created by {@link #toTransaction()}. Counting the transactions of a statement
+ * or summing their amounts therefore creates almost no objects.
+ *
+ * <p>A cursor starts before the first transaction; {@link #next()} must be called before the
+ * fields of a transaction are read. A cursor may skip the transactions whose type, date, or
+ * amount do not match a filter, deciding from the raw fields alone.
+ */
+public class TransactionCursor {
+  private static final AbstractTransactionFactory<Deposit> DEPOSITS = new Deposit.DepositFactory();
+  private static final AbstractTransactionFactory<Payment> PAYMENTS = new Payment.PaymentFactory();
+
+  // Invariant: segments is not null, and holds each statement of the document with the parser
+  // which received it.
+  private final List<Segment> segments;
+
+  // Invariant: filter is not null.
+  private final TransactionQuery filter;
+
+  // The position of the cursor: the segment, and the line within it.
+  private int segment;
+  private int line;
+
+  // Invariant: matcher is positioned on the current line, or null before the first segment.
+  private Matcher matcher;
+  private boolean onTransaction;
+
+  TransactionCursor(List<Segment> segments, TransactionQuery filter) {
+    this.segments = segments;
+    this.filter = filter;
+    this.segment = -1;
+    this.line = -1;
+  }
+
+  /**
+   * Moves to the next transaction.
+   * @return whether there is another transaction
+   * @throws IllegalArgumentException if the date of a line checked against the filter is not
+   * valid within the statement period.
+   * @throws IllegalStateException if the budget of the statement is exceeded.
+   */
+  public boolean next() throws IllegalArgumentException, IllegalStateException {
+    while (this.segment < this.segments.size()) {
+      if (this.segment >= 0) {
+        Segment current = this.segments.get(this.segment);
+        while (++this.line < current.lines.size()) {
+          current.parser.budget.checkpoint();
+          this.matcher.region(current.lines.startOf(this.line), current.lines.endOf(this.line));
+          if (this.matcher.find() && this.matchesFilter(current)) {
+            this.onTransaction = true;
+            return true;
+          }
+        }
+      }
+
+      if (++this.segment < this.segments.size()) {
+        Segment current = this.segments.get(this.segment);
+        this.matcher = current.parser.getTransactionPattern().matcher(current.parser.budget.guard(current.lines.getText()));
+        this.line = -1;
+      }
+    }
+
+    this.onTransaction = false;
+    return false;
+  }
+
+  /**
+   * Gets whether the current transaction is a deposit or a payment.
+   * @return the type of the transaction
+   * @throws IllegalStateException if the cursor is not on a transaction.
+   */
+  public TransactionType getType() throws IllegalStateException {
+    this.checkOnTransaction();
+    return this.current().lines.typeOf(this.line);
+  }
+
+  /**
+   * Gets the date of the current transaction as a number of days since 1970-01-01.
+   * @return the epoch day of the transaction
+   * @throws IllegalStateException if the cursor is not on a transaction OR if the date is not
+   * valid within the statement period.
+   */
+  public int getEpochDay() throws IllegalStateException {
+    this.checkOnTransaction();
+    try {
+      return this.epochDay();
+    } catch (IllegalArgumentException e) {
+      throw new IllegalStateException("Invalid transaction date: " + e.getMessage());
+    }
+  }
+
+  /**
+   * Gets the date of the current transaction.
+   * @return the date of the transaction
+   * @throws IllegalStateException if the cursor is not on a transaction OR if the date is not
+   * valid within the statement period.
+   */
+  public Date getDate() throws IllegalStateException {
+    return Date.fromEpochDay(this.getEpochDay());
+  }
+
+  /**
+   * Gets the amount of the current transaction in cents.
+   * @return the number of cents
+   * @throws IllegalStateException if the cursor is not on a transaction.
+   */
+  public long getCents() throws IllegalStateException {
+    this.checkOnTransaction();
+    return this.cents();
+  }
+
+  /**
+   * Gets the description of the current transaction as printed on the statement, before it is
+   * cleaned up.
+   * @return the raw description
+   * @throws IllegalStateException if the cursor is not on a transaction.
+   */
+  public String getRawDescription() throws IllegalStateException {
+    this.checkOnTransaction();
+    return this.matcher.group(3);
+  }
+
+  /**
+   * Creates the current transaction, with its cleaned description, merchant, and category.
+   * @return a {@code Deposit} or a {@code Payment}
+   * @throws IllegalStateException if the cursor is not on a transaction OR if the transaction
+   * is not valid.
+   */
+  public AbstractTransaction toTransaction() throws IllegalStateException {
+    try {
+      if (this.getType() == TransactionType.DEPOSIT) {
+        return this.materialize(DEPOSITS);
+      }
+      return this.materialize(PAYMENTS);
+    } catch (IllegalArgumentException e) {
+      throw new IllegalStateException("Invalid transaction: " + e.getMessage());
+    }
+  }
+
+  // Creates the current transaction with the provided factory.
+  <T extends AbstractTransaction> T materialize(AbstractTransactionFactory<T> factory) throws IllegalArgumentException {
+    this.checkOnTransaction();
+    return this.current().parser.makeTransaction(this.matcher, factory);
+  }
+
+  // Determines whether the type, date, and amount of the matched line satisfy the filter.
+  private boolean matchesFilter(Segment current) throws IllegalArgumentException {
+    TransactionType type = this.filter.getType();
+    if (type != null && current.lines.typeOf(this.line) != type) {
+      return false;
+    }
+
+    if (this.filter.hasDateRange()) {
+      int epochDay = this.epochDay();
+      if (epochDay < this.filter.fromEpochDay() || epochDay > this.filter.toEpochDay()) {
+        return false;
+      }
+    }
+
+    if (this.filter.hasAmountRange()) {
+      long cents = this.cents();
+      return cents >= this.filter.minCents() && cents <= this.filter.maxCents();
+    }
+
+    return true;
+  }
+
+  private int epochDay() throws IllegalArgumentException {
+    AbstractStatementParser parser = this.current().parser;
+    return Date.epochDayWithinRange(parser.startDate, parser.endDate, Month.asMonth((int) this.digits(1)), (int) this.digits(2));
+  }
+
+  private long cents() {
+    return 100 * this.digits(4) + this.digits(5);
+  }
+
+  // Parses the digits of a group of the current line, skipping thousands separators.
+  private long digits(int group) {
+    CharSequence text = this.current().lines.getText();
+    long value = 0;
+    for (int i = this.matcher.start(group); i < this.matcher.end(group); i++) {
+      char c = text.charAt(i);
+      if (c != ',') {
+        value = 10 * value + (c - '0');
+      }
+    }
+    return value;
+  }
+
+  private Segment current() {
+    return this.segments.get(this.segment);
+  }
+
+  private void checkOnTransaction() throws IllegalStateException {
+    if (!this.onTransaction) {
+      throw new IllegalStateException("Cursor is not on a transaction.");
+    }
+  }
+
+  // One statement of a document, with the parser which received it and its transaction lines.
+  static class Segment {
+    private final AbstractStatementParser parser;
+    private final TransactionLines lines;
+
+    Segment(AbstractStatementParser parser, TransactionLines lines) {
+      this.parser = parser;
+      this.lines = lines;
+    }
+  }
+}
@@ -0,0 +1,134 @@
+package model.parser.statement;
+
+import java.util.Arrays;
+
+import model.transactions.TransactionType;
+
+/**
+ * The lines of a statement which may hold transactions, kept as offsets into the text prepared by
+ * a statement parser rather than as separate strings, along with whether each line is in the
+ * deposits or the payments of the statement.
+ */
+public final class TransactionLines {
+  // Invariant: text is not null.
+  private final CharSequence text;
+
+  // Invariant: each array holds at least size entries, and starts[i] <= ends[i] <= text.length().
+  private int[] starts;
+  private int[] ends;
+  private TransactionType[] types;
+  private int size;
+
+  /**
+   * Initializes an empty set of lines over the provided text.
+   * @param text the prepared text of the statement
+   * @throws IllegalArgumentException if the provided {@code text} is {@code null}.
+   */
+  public TransactionLines(CharSequence text) throws IllegalArgumentException {
+    if (text == null) {
+      throw new IllegalArgumentException("Text cannot be null.");
+    }
+
+    this.text = text;
+    this.starts = new int[64];
+    this.ends = new int[64];
+    this.types = new TransactionType[64];
+  }
+
+  /**
+   * Adds one line.
+   * @param start the offset of the first character of the line
+   * @param end the offset after the last character of the line
+   * @param type whether the line is a deposit or a payment
+   * @throws IllegalArgumentException if the offsets are not within the text OR if {@code type}
+   * is {@code null}.
+   */
+  public void add(int start, int end, TransactionType type) throws IllegalArgumentException {
+    if (start < 0 || start > end || end > this.text.length()) {
+      throw new IllegalArgumentException("Line is not within the text.");
+    }
+
+    if (type == null) {
+      throw new IllegalArgumentException("Type cannot be null.");
+    }
+
+    if (this.size == this.starts.length) {
+      this.starts = Arrays.copyOf(this.starts, 2 * this.size);
+      this.ends = Arrays.copyOf(this.ends, 2 * this.size);
+      this.types = Arrays.copyOf(this.types, 2 * this.size);
+    }
+
+    this.starts[this.size] = start;
+    this.ends[this.size] = end;
+    this.types[this.size] = type;
+    this.size++;
+  }
+
+  /**
+   * Adds every newline-separated line between two offsets, all of the same type.
+   * @param start the offset where the first line begins
+   * @param end the offset where the last line ends
+   * @param type whether the lines are deposits or payments
+   * @throws IllegalArgumentException if the offsets are not within the text OR if {@code type}
+   * is {@code null}.
+   */
+  public void addLines(int start, int end, TransactionType type) throws IllegalArgumentException {
+    int lineStart = start;
+    for (int i = start; i < end; i++) {
+      if (this.text.charAt(i) == '\n') {
+        this.add(lineStart, i, type);
+        lineStart = i + 1;
+      }
+    }
+    this.add(lineStart, end, type);
+  }
+
+  /**
+   * Determines whether a line contains the provided string.
+   * @param start the offset of the first character of the line
+   * @param end the offset after the last character of the line
+   * @param target the string to find
+   * @return whether the line contains {@code target}
+   */
+  public boolean contains(int start, int end, String target) {
+    for (int i = start; i + target.length() <= end; i++) {
+      int matched = 0;
+      while (matched < target.length() && this.text.charAt(i + matched) == target.charAt(matched)) {
+        matched++;
+      }
+      if (matched == target.length()) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Gets the prepared text of the statement.
+   * @return the text
+   */
+  public CharSequence getText() {
+    return this.text;
+  }
+
+  /**
+   * Gets the number of lines.
+   * @return the number of lines
+   */
+  public int size() {
+    return this.size;
+  }
+
+  // The offsets and type of a line, read by the cursor.
+  int startOf(int line) {
+    return this.starts[line];
+  }
+
+  int endOf(int line) {
+    return this.ends[line];
+  }
+
+  TransactionType typeOf(int line) {
+    return this.types[line];
+  }
+}
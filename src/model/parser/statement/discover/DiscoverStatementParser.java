@@ -2,16 +2,21 @@ package model.parser.statement.discover;
 
 import java.util.regex.Pattern;
 
+import model.category.CategoryAutomaton;
+import model.category.CategoryRuleSet;
+import model.category.TransactionCategory;
 import model.date.Date;
 import model.date.Month;
 import model.parser.statement.AbstractStatementParser;
-import model.transactions.Deposit;
-import model.transactions.Payment;
+import model.parser.statement.TransactionLines;
+import model.transactions.TransactionType;
 
 /**
  * Parses the text contents of a Discover statement.
  */
 public class DiscoverStatementParser extends AbstractStatementParser {
+  // Finds the category labels Discover prints alongside each transaction.
+  private static final CategoryAutomaton CATEGORY_LABELS = categoryLabels();
 
   /**
    * Initializes a new {@code DiscoverStatementParser} instance.
@@ -59,6 +64,32 @@ public class DiscoverStatementParser extends AbstractStatementParser {
     };
   }
 
+  @Override
+  protected TransactionCategory categorize(String rawDescription, String description) {
+    TransactionCategory category = CATEGORY_LABELS.categorize(rawDescription);
+    if (category == TransactionCategory.UNCATEGORIZED) {
+      return super.categorize(rawDescription, description);
+    }
+
+    return category;
+  }
+
+  // Compiles the labels of every category, matched exactly as printed on the statement.
+  private static CategoryAutomaton categoryLabels() {
+    CategoryRuleSet labels = new CategoryRuleSet(false);
+    for (TransactionCategory category : TransactionCategory.values()) {
+      if (category != TransactionCategory.UNCATEGORIZED) {
+        labels.addKeyword(category.getLabel(), category);
+      }
+    }
+    return labels.compile();
+  }
+
+  @Override
+  protected AbstractStatementParser newSegmentParser() {
+    return new DiscoverStatementParser();
+  }
+
   @Override
   protected Date fromDateRangeString(String dateRangeString) throws IllegalStateException {
     String[] parts = dateRangeString.split("/");
@@ -74,31 +105,34 @@ public class DiscoverStatementParser extends AbstractStatementParser {
   }
 
   @Override
-  protected void parseStatement() {
+  protected TransactionLines findTransactionLines() {
     // Statement info is between these two markers
     int startIndex = this.statement.indexOf("DATE PAYMENTS AND CREDITS AMOUNT");
     int endIndex = this.statement.indexOf("TOTAL FEES FOR THIS PERIOD");
+    if (startIndex < 0 || endIndex < startIndex) {
+      throw new IllegalStateException("Cannot find transaction details in statement.");
+    }
+
+    String transactionDetails = this.statement.substring(startIndex, endIndex).replaceAll("\n", " ");
+    transactionDetails = this.replaceAll(transactionDetails, "(\\d{2}/\\d{2})", "\n$0");
+    transactionDetails = this.replaceAll(transactionDetails,
+      "PREVIOUS BALANCE [\\w\\W]* EXPIRES BALANCE SUBJECT TO INTEREST RATE INTEREST CHARGE", "");
+
+    // Credits are printed as negative amounts
+    TransactionLines lines = new TransactionLines(transactionDetails);
+    int lineStart = 0;
+    while (lineStart <= transactionDetails.length()) {
+      int lineEnd = transactionDetails.indexOf('\n', lineStart);
+      if (lineEnd < 0) {
+        lineEnd = transactionDetails.length();
+      }
 
-    String transactionDetails =
-      this.statement.substring(startIndex, endIndex)
-        .replaceAll("\n", " ")
-        .replaceAll("(\\d{2}/\\d{2})", "\n$0")
-        .replaceAll("PREVIOUS BALANCE [\\w\\W]* EXPIRES BALANCE SUBJECT TO INTEREST RATE INTEREST CHARGE", "");
-
-    String[] transactionLines = transactionDetails.split("\n");
-
-    for (String transactionLine : transactionLines) {
-      if (transactionLine.contains("-$")) {
-        Deposit deposit = this.parseTransaction(transactionLine, new Deposit.DepositFactory());
-        if (deposit != null) {
-          this.deposits.add(deposit);
-        }
-      } else {
-        Payment payment = this.parseTransaction(transactionLine, new Payment.PaymentFactory());
-        if (payment != null) {
-          this.payments.add(payment);
-        }
+      TransactionType type = lines.contains(lineStart, lineEnd, "-$") ? TransactionType.DEPOSIT : TransactionType.PAYMENT;
+      if (this.acceptsType(type)) {
+        lines.add(lineStart, lineEnd, type);
       }
+      lineStart = lineEnd + 1;
     }
+    return lines;
   }
 }
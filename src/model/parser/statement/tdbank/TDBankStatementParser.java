@@ -1,7 +1,5 @@
 package model.parser.statement.tdbank;
 
-import java.util.ArrayList;
-import java.util.List;
 import java.util.regex.MatchResult;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -9,10 +7,8 @@ import java.util.regex.Pattern;
 import model.date.Date;
 import model.date.Month;
 import model.parser.statement.AbstractStatementParser;
-import model.transactions.AbstractTransaction;
-import model.transactions.AbstractTransactionFactory;
-import model.transactions.Deposit;
-import model.transactions.Payment;
+import model.parser.statement.TransactionLines;
+import model.transactions.TransactionType;
 
 /**
  * Parses the text contents of a TD Bank statement.
@@ -44,6 +40,11 @@ public class TDBankStatementParser extends AbstractStatementParser {
     };
   }
 
+  @Override
+  protected AbstractStatementParser newSegmentParser() {
+    return new TDBankStatementParser();
+  }
+
   @Override
   protected Date fromDateRangeString(String dateRangeString) throws IllegalStateException {
     String[] parts = dateRangeString.split(" ");
@@ -76,44 +77,35 @@ public class TDBankStatementParser extends AbstractStatementParser {
   }
 
   @Override
-  protected void parseStatement() {
+  protected TransactionLines findTransactionLines() {
     // Statement info is between these two markers
     int startIndex = this.statement.indexOf("DAILY ACCOUNT ACTIVITY");
     int endIndex = this.statement.indexOf("DAILY BALANCE SUMMARY");
+    if (startIndex < 0 || endIndex < startIndex) {
+      throw new IllegalStateException("Cannot find transaction details in statement.");
+    }
 
-    String transactionDetails =
-      this.statement.substring(startIndex, endIndex)
-        .replaceAll("POSTING DATE DESCRIPTION AMOUNT\n", "")
-        .replaceAll("DAILY ACCOUNT\\s+", "")
-        .replaceAll("Subtotal: \\d{1,3}?,?\\d{1,3}?,?\\d{1,3}.\\d{2}\n", "")
-        .replaceAll("\n", " ")
-        .replaceAll("(\\d{0,3},?\\d{0,3},?\\d{1,3}\\.\\d{2})", "$0\n")
-        .replaceAll("\\w*? ?Deposits", "");
+    String transactionDetails = this.statement.substring(startIndex, endIndex)
+      .replaceAll("POSTING DATE DESCRIPTION AMOUNT\n", "")
+      .replaceAll("DAILY ACCOUNT\\s+", "");
+    transactionDetails = this.replaceAll(transactionDetails, "Subtotal: \\d{1,3}?,?\\d{1,3}?,?\\d{1,3}.\\d{2}\n", "")
+      .replaceAll("\n", " ");
+    transactionDetails = this.replaceAll(transactionDetails, "(\\d{0,3},?\\d{0,3},?\\d{1,3}\\.\\d{2})", "$0\n");
+    transactionDetails = this.replaceAll(transactionDetails, "\\w*? ?Deposits", "");
 
     Pattern paymentHeaderPattern = Pattern.compile("\\w*? ?Payments");
-    Matcher paymentHeaderMatcher = paymentHeaderPattern.matcher(transactionDetails);
+    Matcher paymentHeaderMatcher = paymentHeaderPattern.matcher(this.budget.guard(transactionDetails));
     paymentHeaderMatcher.find();
     MatchResult paymentsHeader = paymentHeaderMatcher.toMatchResult();
 
-    String depositsDetails = transactionDetails.substring(0, paymentsHeader.start()).trim();
-    String paymentsDetails = transactionDetails.substring(paymentsHeader.end()).trim();
-
-    this.deposits = this.transactionStringAsList(depositsDetails, new Deposit.DepositFactory());
-    this.payments = this.transactionStringAsList(paymentsDetails, new Payment.PaymentFactory());
-  }
-
-  // Parses a string of transactions into a list of transactions
-  private <T extends AbstractTransaction> List<T> transactionStringAsList(String transactionsString, AbstractTransactionFactory<T> factory) {
-    List<T> transactions = new ArrayList<>();
-    String[] transactionLines = transactionsString.split("\n");
-
-    for (String transactionLine : transactionLines) {
-      T item = this.parseTransaction(transactionLine, factory);
-      if (item != null) {
-        transactions.add(item);
-      }
+    // Deposits come before the payments header, and payments after it
+    TransactionLines lines = new TransactionLines(transactionDetails);
+    if (this.acceptsType(TransactionType.DEPOSIT)) {
+      lines.addLines(0, paymentsHeader.start(), TransactionType.DEPOSIT);
     }
-
-    return transactions;
+    if (this.acceptsType(TransactionType.PAYMENT)) {
+      lines.addLines(paymentsHeader.end(), transactionDetails.length(), TransactionType.PAYMENT);
+    }
+    return lines;
   }
 }
@@ -0,0 +1,229 @@
+package model.query;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import model.transactions.AbstractTransaction;
+import model.transactions.TransactionDateComparator;
+
+/**
+ * Answers {@code TransactionQuery}s over a fixed set of transactions using sorted array indexes
+ * on date, amount, and description, so that a query only scans the narrowest matching range of
+ * one index rather than every transaction.
+ */
+public class TransactionIndex {
+  // Invariant: transactions is not null and contains no null elements.
+  private final AbstractTransaction[] transactions;
+
+  // Invariant: dateOrder holds the positions of transactions sorted by date, and dateKeys[i] is
+  // the epoch day of transactions[dateOrder[i]].
+  private final int[] dateOrder;
+  private final long[] dateKeys;
+
+  // Invariant: amountOrder holds the positions of transactions sorted by amount, and
+  // amountKeys[i] is the amount in cents of transactions[amountOrder[i]].
+  private final int[] amountOrder;
+  private final long[] amountKeys;
+
+  // Invariant: descriptionOrder holds the positions of transactions sorted by upper case
+  // description, and descriptionKeys[i] is the upper case description of
+  // transactions[descriptionOrder[i]].
+  private final int[] descriptionOrder;
+  private final String[] descriptionKeys;
+
+  /**
+   * Builds the indexes over the provided transactions.
+   * @param transactions the transactions to index
+   * @throws IllegalArgumentException if {@code transactions} is {@code null} or contains
+   * {@code null}.
+   */
+  public TransactionIndex(List<? extends AbstractTransaction> transactions) throws IllegalArgumentException {
+    if (transactions == null) {
+      throw new IllegalArgumentException("Transactions cannot be null.");
+    }
+
+    this.transactions = transactions.toArray(new AbstractTransaction[0]);
+    int size = this.transactions.length;
+    for (AbstractTransaction transaction : this.transactions) {
+      if (transaction == null) {
+        throw new IllegalArgumentException("Transactions cannot contain null.");
+      }
+    }
+
+    long[] dates = new long[size];
+    long[] amounts = new long[size];
+    String[] descriptions = new String[size];
+    for (int i = 0; i < size; i++) {
+      dates[i] = this.transactions[i].getDate().toEpochDay();
+      amounts[i] = this.transactions[i].getAmount().getTotalCents();
+      descriptions[i] = this.transactions[i].getDescription().toUpperCase();
+    }
+
+    this.dateOrder = sortedOrder(size, (a, b) -> Long.compare(dates[a], dates[b]));
+    this.dateKeys = permute(dates, this.dateOrder);
+    this.amountOrder = sortedOrder(size, (a, b) -> Long.compare(amounts[a], amounts[b]));
+    this.amountKeys = permute(amounts, this.amountOrder);
+    this.descriptionOrder = sortedOrder(size, (a, b) -> descriptions[a].compareTo(descriptions[b]));
+    this.descriptionKeys = new String[size];
+    for (int i = 0; i < size; i++) {
+      this.descriptionKeys[i] = descriptions[this.descriptionOrder[i]];
+    }
+  }
+
+  /**
+   * Finds all indexed transactions matching the provided query.
+   * @param query the query to run
+   * @return the matching transactions, in the same order as exported statements
+   * @throws IllegalArgumentException if the provided {@code query} is {@code null}.
+   */
+  public List<AbstractTransaction> query(TransactionQuery query) throws IllegalArgumentException {
+    if (query == null) {
+      throw new IllegalArgumentException("Query cannot be null.");
+    }
+
+    // Pick whichever index narrows the candidates the most
+    int[] order = null;
+    int low = 0;
+    int high = this.transactions.length;
+
+    if (query.hasDateRange()) {
+      int dateLow = lowerBound(this.dateKeys, query.fromEpochDay());
+      int dateHigh = upperBound(this.dateKeys, query.toEpochDay());
+      if (dateHigh - dateLow < high - low) {
+        order = this.dateOrder;
+        low = dateLow;
+        high = dateHigh;
+      }
+    }
+
+    if (query.hasAmountRange()) {
+      int amountLow = lowerBound(this.amountKeys, query.minCents());
+      int amountHigh = upperBound(this.amountKeys, query.maxCents());
+      if (order == null || amountHigh - amountLow < high - low) {
+        order = this.amountOrder;
+        low = amountLow;
+        high = amountHigh;
+      }
+    }
+
+    String prefix = query.getDescriptionPrefix();
+    if (prefix != null) {
+      int prefixLow = lowerBound(this.descriptionKeys, prefix);
+      int prefixHigh = lowerBound(this.descriptionKeys, prefix + Character.MAX_VALUE);
+      if (order == null || prefixHigh - prefixLow < high - low) {
+        order = this.descriptionOrder;
+        low = prefixLow;
+        high = prefixHigh;
+      }
+    }
+
+    List<AbstractTransaction> results = new ArrayList<>();
+    for (int i = low; i < high; i++) {
+      AbstractTransaction candidate = this.transactions[order == null ? i : order[i]];
+      if (query.matches(candidate)) {
+        results.add(candidate);
+      }
+    }
+
+    results.sort(new TransactionDateComparator());
+    return results;
+  }
+
+  /**
+   * Gets the number of indexed transactions.
+   * @return the number of transactions
+   */
+  public int size() {
+    return this.transactions.length;
+  }
+
+  // Compares two positions in the transactions array without boxing them.
+  private interface PositionComparator {
+    int compare(int a, int b);
+  }
+
+  // Returns the positions 0 to size - 1 stably sorted by the provided comparator.
+  private static int[] sortedOrder(int size, PositionComparator comparator) {
+    int[] order = new int[size];
+    for (int i = 0; i < size; i++) {
+      order[i] = i;
+    }
+
+    int[] buffer = new int[size];
+    for (int width = 1; width < size; width *= 2) {
+      for (int start = 0; start < size - width; start += 2 * width) {
+        int middle = start + width;
+        int end = Math.min(start + 2 * width, size);
+        int left = start;
+        int right = middle;
+        int out = start;
+        while (left < middle && right < end) {
+          buffer[out++] = comparator.compare(order[left], order[right]) <= 0 ? order[left++] : order[right++];
+        }
+        while (left < middle) {
+          buffer[out++] = order[left++];
+        }
+        while (right < end) {
+          buffer[out++] = order[right++];
+        }
+        System.arraycopy(buffer, start, order, start, end - start);
+      }
+    }
+
+    return order;
+  }
+
+  // Returns the keys rearranged into the provided order.
+  private static long[] permute(long[] keys, int[] order) {
+    long[] sorted = new long[keys.length];
+    for (int i = 0; i < order.length; i++) {
+      sorted[i] = keys[order[i]];
+    }
+    return sorted;
+  }
+
+  // Returns the first index whose key is at least the provided key.
+  private static int lowerBound(long[] keys, long key) {
+    int low = 0;
+    int high = keys.length;
+    while (low < high) {
+      int middle = (low + high) >>> 1;
+      if (keys[middle] < key) {
+        low = middle + 1;
+      } else {
+        high = middle;
+      }
+    }
+    return low;
+  }
+
+  // Returns the first index whose key is greater than the provided key.
+  private static int upperBound(long[] keys, long key) {
+    int low = 0;
+    int high = keys.length;
+    while (low < high) {
+      int middle = (low + high) >>> 1;
+      if (keys[middle] <= key) {
+        low = middle + 1;
+      } else {
+        high = middle;
+      }
+    }
+    return low;
+  }
+
+  // Returns the first index whose key is at least the provided key.
+  private static int lowerBound(String[] keys, String key) {
+    int low = 0;
+    int high = keys.length;
+    while (low < high) {
+      int middle = (low + high) >>> 1;
+      if (keys[middle].compareTo(key) < 0) {
+        low = middle + 1;
+      } else {
+        high = middle;
+      }
+    }
+    return low;
+  }
+}
@@ -0,0 +1,221 @@
+package model.query;
+
+import model.date.Date;
+import model.money.MoneyAmount;
+import model.transactions.AbstractTransaction;
+import model.transactions.TransactionType;
+
+/**
+ * Represents a filter over transactions, such as "all payments over $500 to merchants starting
+ * with AMZN between two dates". Every criterion is optional; an empty query matches every
+ * transaction.
+ */
+public class TransactionQuery {
+  // Each of these is null when the corresponding criterion is not used.
+  private final TransactionType type;
+  private final Date fromDate;
+  private final Date toDate;
+  private final MoneyAmount minAmount;
+  private final MoneyAmount maxAmount;
+
+  // Invariant: descriptionPrefix is either null or upper case.
+  private final String descriptionPrefix;
+
+  private TransactionQuery(Builder builder) {
+    this.type = builder.type;
+    this.fromDate = builder.fromDate;
+    this.toDate = builder.toDate;
+    this.minAmount = builder.minAmount;
+    this.maxAmount = builder.maxAmount;
+    this.descriptionPrefix = builder.descriptionPrefix;
+  }
+
+  /**
+   * Does the provided transaction satisfy every criterion of this query?
+   * @param transaction the transaction to check
+   * @return whether the transaction matches this query
+   * @throws IllegalArgumentException if the provided {@code transaction} is {@code null}.
+   */
+  public boolean matches(AbstractTransaction transaction) throws IllegalArgumentException {
+    if (transaction == null) {
+      throw new IllegalArgumentException("Transaction cannot be null.");
+    }
+
+    if (this.type != null && transaction.getType() != this.type) {
+      return false;
+    }
+
+    if (this.hasDateRange()) {
+      int epochDay = transaction.getDate().toEpochDay();
+      if (epochDay < this.fromEpochDay() || epochDay > this.toEpochDay()) {
+        return false;
+      }
+    }
+
+    if (this.hasAmountRange()) {
+      long cents = transaction.getAmount().getTotalCents();
+      if (cents < this.minCents() || cents > this.maxCents()) {
+        return false;
+      }
+    }
+
+    return this.descriptionPrefix == null
+      || transaction.getDescription().toUpperCase().startsWith(this.descriptionPrefix);
+  }
+
+  /**
+   * Gets the type of transaction this query is restricted to.
+   * @return the type of transaction, or {@code null} if any type matches
+   */
+  public TransactionType getType() {
+    return this.type;
+  }
+
+  /**
+   * Is this query restricted to a range of dates?
+   * @return whether either date bound is set
+   */
+  public boolean hasDateRange() {
+    return this.fromDate != null || this.toDate != null;
+  }
+
+  /**
+   * Gets the earliest matching date as an epoch day.
+   * @return the inclusive lower date bound, or {@code Integer.MIN_VALUE} if there is none
+   */
+  public int fromEpochDay() {
+    return this.fromDate == null ? Integer.MIN_VALUE : this.fromDate.toEpochDay();
+  }
+
+  /**
+   * Gets the latest matching date as an epoch day.
+   * @return the inclusive upper date bound, or {@code Integer.MAX_VALUE} if there is none
+   */
+  public int toEpochDay() {
+    return this.toDate == null ? Integer.MAX_VALUE : this.toDate.toEpochDay();
+  }
+
+  /**
+   * Is this query restricted to a range of amounts?
+   * @return whether either amount bound is set
+   */
+  public boolean hasAmountRange() {
+    return this.minAmount != null || this.maxAmount != null;
+  }
+
+  /**
+   * Gets the smallest matching amount in cents.
+   * @return the inclusive lower amount bound, or {@code Long.MIN_VALUE} if there is none
+   */
+  public long minCents() {
+    return this.minAmount == null ? Long.MIN_VALUE : this.minAmount.getTotalCents();
+  }
+
+  /**
+   * Gets the largest matching amount in cents.
+   * @return the inclusive upper amount bound, or {@code Long.MAX_VALUE} if there is none
+   */
+  public long maxCents() {
+    return this.maxAmount == null ? Long.MAX_VALUE : this.maxAmount.getTotalCents();
+  }
+
+  /**
+   * Gets the upper case prefix matching descriptions must start with.
+   * @return the description prefix, or {@code null} if any description matches
+   */
+  public String getDescriptionPrefix() {
+    return this.descriptionPrefix;
+  }
+
+  /**
+   * Builder class for assembling {@code TransactionQuery} instances one criterion at a time.
+   */
+  public static class Builder {
+    private TransactionType type = null;
+    private Date fromDate = null;
+    private Date toDate = null;
+    private MoneyAmount minAmount = null;
+    private MoneyAmount maxAmount = null;
+    private String descriptionPrefix = null;
+
+    /**
+     * Restricts the query to one type of transaction.
+     * @param type the type of transaction to match
+     * @return this builder
+     */
+    public Builder type(TransactionType type) {
+      this.type = type;
+      return this;
+    }
+
+    /**
+     * Restricts the query to transactions on or after the provided date.
+     * @param fromDate the inclusive lower date bound
+     * @return this builder
+     */
+    public Builder from(Date fromDate) {
+      this.fromDate = fromDate;
+      return this;
+    }
+
+    /**
+     * Restricts the query to transactions on or before the provided date.
+     * @param toDate the inclusive upper date bound
+     * @return this builder
+     */
+    public Builder to(Date toDate) {
+      this.toDate = toDate;
+      return this;
+    }
+
+    /**
+     * Restricts the query to transactions of at least the provided amount.
+     * @param minAmount the inclusive lower amount bound
+     * @return this builder
+     */
+    public Builder minAmount(MoneyAmount minAmount) {
+      this.minAmount = minAmount;
+      return this;
+    }
+
+    /**
+     * Restricts the query to transactions of at most the provided amount.
+     * @param maxAmount the inclusive upper amount bound
+     * @return this builder
+     */
+    public Builder maxAmount(MoneyAmount maxAmount) {
+      this.maxAmount = maxAmount;
+      return this;
+    }
+
+    /**
+     * Restricts the query to transactions whose description starts with the provided prefix,
+     * ignoring case.
+     * @param descriptionPrefix the prefix to match
+     * @return this builder
+     */
+    public Builder descriptionPrefix(String descriptionPrefix) {
+      this.descriptionPrefix = (descriptionPrefix == null || descriptionPrefix.isEmpty())
+        ? null : descriptionPrefix.toUpperCase();
+      return this;
+    }
+
+    /**
+     * Creates the query described by this builder.
+     * @return the query
+     * @throws IllegalArgumentException if a lower bound is greater than its upper bound.
+     */
+    public TransactionQuery build() throws IllegalArgumentException {
+      if (this.fromDate != null && this.toDate != null && this.fromDate.toEpochDay() > this.toDate.toEpochDay()) {
+        throw new IllegalArgumentException("Start date cannot be after end date.");
+      }
+
+      if (this.minAmount != null && this.maxAmount != null
+        && this.minAmount.getTotalCents() > this.maxAmount.getTotalCents()) {
+        throw new IllegalArgumentException("Minimum amount cannot be greater than maximum amount.");
+      }
+
+      return new TransactionQuery(this);
+    }
+  }
+}
@@ -0,0 +1,71 @@
+package model.recurring;
+
+import java.time.LocalDate;
+
+/**
+ * Represents how often a recurring charge is made.
+ */
+public enum Cadence {
+  WEEKLY("Weekly", 6, 8),
+  MONTHLY("Monthly", 27, 33),
+  ANNUAL("Annual", 358, 372);
+
+  // Invariant: name is not null.
+  private final String name;
+
+  // Invariant: 0 < minDays <= maxDays.
+  private final int minDays;
+  private final int maxDays;
+
+  /**
+   * Initialize a cadence with the given name and the range of days between its charges.
+   * @param name the name of the cadence
+   * @param minDays the fewest days between two charges
+   * @param maxDays the most days between two charges
+   */
+  Cadence(String name, int minDays, int maxDays) {
+    this.name = name;
+    this.minDays = minDays;
+    this.maxDays = maxDays;
+  }
+
+  /**
+   * Determines whether two charges the provided number of days apart are one period apart.
+   * @param days the days between the charges
+   * @return whether the interval fits this cadence
+   */
+  public boolean fits(int days) {
+    return days >= this.minDays && days <= this.maxDays;
+  }
+
+  /**
+   * Gets the epoch day one period after the provided epoch day, keeping the day of the month for
+   * monthly and annual charges where the month has it.
+   * @param epochDay the epoch day of a charge
+   * @return the epoch day of the next charge
+   */
+  public long next(long epochDay) {
+    LocalDate date = LocalDate.ofEpochDay(epochDay);
+    switch (this) {
+      case WEEKLY:
+        return date.plusWeeks(1).toEpochDay();
+      case MONTHLY:
+        return date.plusMonths(1).toEpochDay();
+      default:
+        return date.plusYears(1).toEpochDay();
+    }
+  }
+
+  /**
+   * Gets the most days between two charges of any cadence.
+   * @return the longest interval
+   */
+  static int longestInterval() {
+    return ANNUAL.maxDays;
+  }
+
+  @Override
+  public String toString() {
+    return this.name;
+  }
+}
@@ -0,0 +1,91 @@
+package model.recurring;
+
+import model.date.Date;
+import model.money.MoneyAmount;
+
+/**
+ * Represents a charge which was made to one merchant for about the same amount at a regular
+ * cadence.
+ */
+public class RecurringCharge {
+  // Invariant: none of the fields are null, and first <= last < nextExpected.
+  private final String merchant;
+  private final Cadence cadence;
+  private final MoneyAmount amount;
+  private final int occurrences;
+  private final Date first;
+  private final Date last;
+  private final Date nextExpected;
+
+  RecurringCharge(String merchant, Cadence cadence, MoneyAmount amount, int occurrences, Date first, Date last, Date nextExpected) {
+    this.merchant = merchant;
+    this.cadence = cadence;
+    this.amount = amount;
+    this.occurrences = occurrences;
+    this.first = first;
+    this.last = last;
+    this.nextExpected = nextExpected;
+  }
+
+  /**
+   * Gets the canonical name of the merchant charging.
+   * @return the merchant name
+   */
+  public String getMerchant() {
+    return this.merchant;
+  }
+
+  /**
+   * Gets how often the charge is made.
+   * @return the cadence
+   */
+  public Cadence getCadence() {
+    return this.cadence;
+  }
+
+  /**
+   * Gets the amount of the latest charge.
+   * @return the amount
+   */
+  public MoneyAmount getAmount() {
+    return this.amount;
+  }
+
+  /**
+   * Gets the number of times the charge was made.
+   * @return the number of charges
+   */
+  public int getOccurrences() {
+    return this.occurrences;
+  }
+
+  /**
+   * Gets the date of the earliest charge.
+   * @return the first date
+   */
+  public Date getFirst() {
+    return this.first;
+  }
+
+  /**
+   * Gets the date of the latest charge.
+   * @return the last date
+   */
+  public Date getLast() {
+    return this.last;
+  }
+
+  /**
+   * Gets the date the next charge is expected, one period after the latest charge.
+   * @return the next expected date
+   */
+  public Date getNextExpected() {
+    return this.nextExpected;
+  }
+
+  @Override
+  public String toString() {
+    return this.merchant + "," + this.cadence + "," + this.amount + "," + this.occurrences + ","
+      + this.first + "," + this.last + "," + this.nextExpected;
+  }
+}
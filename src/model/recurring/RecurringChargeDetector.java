@@ -0,0 +1,248 @@
+package model.recurring;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import model.date.Date;
+import model.merchant.Merchant;
+import model.money.MoneyAmount;
+import model.transactions.Payment;
+
+/**
+ * Finds recurring charges, such as subscriptions and bills, in a single streaming pass over
+ * payments. Payments are grouped by merchant and by amount band, so charges to one merchant
+ * within about ten percent of each other fall in the same group, and each group keeps only
+ * running counts of the intervals between its charges that fit each {@link Cadence}. A group is
+ * recurring once at least three quarters of its intervals fit one cadence, with at least three
+ * charges, or two charges of exactly the same amount for an annual cadence. Charges to one group
+ * on the same day count once.
+ *
+ * <p>Payments must be accepted newest first, as ordered by {@code TransactionDateComparator}.
+ * A group is closed, and reported if it is recurring, once no earlier charge could be one
+ * period before its earliest charge, so memory is bounded by the groups charged within the
+ * longest period rather than by the length of the history. If more than the maximum number of
+ * groups are open at once, groups with a single charge are dropped, and then the groups which
+ * have gone longest without an earlier charge are closed early.
+ */
+public class RecurringChargeDetector {
+  /**
+   * The default maximum number of groups open at once.
+   */
+  public static final int DEFAULT_MAX_GROUPS = 1_000_000;
+
+  private static final double LOG_BAND_WIDTH = Math.log(1.1);
+  private static final double MIN_FIT_RATIO = 0.75;
+  private static final int MIN_OCCURRENCES = 3;
+  private static final int MIN_ANNUAL_OCCURRENCES = 2;
+
+  // An odd multiplier spreading group keys across hash buckets without making two keys equal.
+  private static final long KEY_MIX = 0x9E3779B97F4A7C15L;
+
+  private static final Cadence[] CADENCES = Cadence.values();
+
+  // Invariant: maxGroups is positive.
+  private final int maxGroups;
+
+  // Invariant: groups holds the open groups keyed by merchant id and amount band, least recently
+  // charged first, so the first group has the latest earliest charge. recurring holds the
+  // recurring charges of the closed groups.
+  private final Map<Long, Group> groups;
+  private final List<RecurringCharge> recurring;
+
+  // The earliest epoch day accepted so far.
+  private int currentDay;
+  private boolean started;
+  private boolean finished;
+
+  /**
+   * Initializes a {@code RecurringChargeDetector} with the default maximum number of groups.
+   */
+  public RecurringChargeDetector() {
+    this(DEFAULT_MAX_GROUPS);
+  }
+
+  /**
+   * Initializes a {@code RecurringChargeDetector} which keeps at most the provided number of
+   * groups open at once.
+   * @param maxGroups the maximum number of open groups
+   * @throws IllegalArgumentException if {@code maxGroups} is not positive.
+   */
+  public RecurringChargeDetector(int maxGroups) throws IllegalArgumentException {
+    if (maxGroups <= 0) {
+      throw new IllegalArgumentException("Maximum groups must be positive.");
+    }
+
+    this.maxGroups = maxGroups;
+    this.groups = new LinkedHashMap<>(16, 0.75f, true);
+    this.recurring = new ArrayList<>();
+  }
+
+  /**
+   * Adds a payment to the detector.
+   * @param payment the payment, no later than every payment accepted before it
+   * @throws IllegalArgumentException if {@code payment} is {@code null} OR if it is later than
+   * a payment accepted before it.
+   * @throws IllegalStateException if the recurring charges were already reported.
+   */
+  public void accept(Payment payment) throws IllegalArgumentException, IllegalStateException {
+    if (payment == null) {
+      throw new IllegalArgumentException("Payment cannot be null.");
+    }
+
+    if (this.finished) {
+      throw new IllegalStateException("Recurring charges were already reported.");
+    }
+
+    int day = payment.getDate().toEpochDay();
+    if (this.started && day > this.currentDay) {
+      throw new IllegalArgumentException("Payments must be accepted newest first.");
+    }
+    if (this.started && day < this.currentDay) {
+      this.currentDay = day;
+      this.sweep();
+    }
+    this.started = true;
+    this.currentDay = day;
+
+    long cents = payment.getAmount().getTotalCents();
+    Merchant merchant = payment.getMerchant();
+    long key = (((long) merchant.getId() << 32) | (bandOf(cents) & 0xFFFFFFFFL)) * KEY_MIX;
+    Group group = this.groups.get(key);
+    if (group == null) {
+      this.groups.put(key, new Group(merchant, day, cents));
+    } else {
+      group.add(day, cents);
+    }
+
+    if (this.groups.size() > this.maxGroups) {
+      this.shed();
+    }
+  }
+
+  /**
+   * Closes every group and gets the recurring charges found, ordered by merchant and then by
+   * cadence. No further payments may be accepted afterwards.
+   * @return the recurring charges
+   */
+  public List<RecurringCharge> getRecurringCharges() {
+    if (!this.finished) {
+      this.finished = true;
+      for (Group group : this.groups.values()) {
+        this.close(group);
+      }
+      this.groups.clear();
+      this.recurring.sort(Comparator.comparing(RecurringCharge::getMerchant).thenComparing(RecurringCharge::getCadence));
+    }
+
+    return new ArrayList<>(this.recurring);
+  }
+
+  /**
+   * Writes the recurring charges as CSV with a header row, closing every group.
+   * @param destination the destination of the report
+   * @throws IOException if the report cannot be written.
+   */
+  public void writeCsv(Appendable destination) throws IOException {
+    destination.append("merchant,cadence,amount,occurrences,first,last,next_expected\n");
+    for (RecurringCharge charge : this.getRecurringCharges()) {
+      destination.append(charge.toString()).append('\n');
+    }
+  }
+
+  // Closes the groups which no earlier charge could continue, which come first.
+  private void sweep() {
+    Iterator<Group> open = this.groups.values().iterator();
+    while (open.hasNext()) {
+      Group group = open.next();
+      if (group.earliestDay - this.currentDay <= Cadence.longestInterval()) {
+        return;
+      }
+
+      this.close(group);
+      open.remove();
+    }
+  }
+
+  // Brings the open groups under the maximum, dropping single charges and then closing the
+  // groups which have gone longest without an earlier charge.
+  private void shed() {
+    this.groups.values().removeIf(group -> group.occurrences == 1);
+
+    Iterator<Group> open = this.groups.values().iterator();
+    while (this.groups.size() > this.maxGroups / 2) {
+      this.close(open.next());
+      open.remove();
+    }
+  }
+
+  // Reports a group if its intervals fit a cadence.
+  private void close(Group group) {
+    int intervals = group.occurrences - 1;
+    Cadence best = null;
+    for (Cadence cadence : CADENCES) {
+      if (best == null || group.fits[cadence.ordinal()] > group.fits[best.ordinal()]) {
+        best = cadence;
+      }
+    }
+
+    int minOccurrences = (best == Cadence.ANNUAL && group.sameAmount) ? MIN_ANNUAL_OCCURRENCES : MIN_OCCURRENCES;
+    if (intervals == 0 || group.occurrences < minOccurrences || group.fits[best.ordinal()] < MIN_FIT_RATIO * intervals) {
+      return;
+    }
+
+    this.recurring.add(new RecurringCharge(group.merchant.getName(), best, MoneyAmount.ofCents(group.latestCents),
+      group.occurrences, Date.fromEpochDay(group.earliestDay), Date.fromEpochDay(group.latestDay),
+      Date.fromEpochDay(best.next(group.latestDay))));
+  }
+
+  // Gets the band of an amount, so that amounts within about ten percent share a band.
+  private static int bandOf(long cents) {
+    return (cents <= 0) ? 0 : (int) Math.floor(Math.log(cents) / LOG_BAND_WIDTH);
+  }
+
+  // The charges to one merchant in one amount band, as running counts.
+  private static class Group {
+    // The merchant is kept, not just its name, so its id is not reused while the group is open.
+    private final Merchant merchant;
+    private final int latestDay;
+    private final long latestCents;
+    private int earliestDay;
+    private int occurrences;
+    private boolean sameAmount;
+
+    // The number of intervals between consecutive charges which fit each cadence.
+    private final int[] fits;
+
+    private Group(Merchant merchant, int day, long cents) {
+      this.merchant = merchant;
+      this.latestDay = day;
+      this.latestCents = cents;
+      this.earliestDay = day;
+      this.occurrences = 1;
+      this.sameAmount = true;
+      this.fits = new int[CADENCES.length];
+    }
+
+    // Adds a charge no later than the earliest charge so far.
+    private void add(int day, long cents) {
+      int interval = this.earliestDay - day;
+      if (interval == 0) {
+        return;
+      }
+
+      this.sameAmount &= cents == this.latestCents;
+      for (Cadence cadence : CADENCES) {
+        if (cadence.fits(interval)) {
+          this.fits[cadence.ordinal()]++;
+        }
+      }
+      this.earliestDay = day;
+      this.occurrences++;
+    }
+  }
+}
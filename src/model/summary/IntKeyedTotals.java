@@ -0,0 +1,126 @@
+package model.summary;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing hash map from non-negative {@code int} keys to a fixed number of {@code long}
+ * accumulators, so that running totals can be kept for millions of transactions without boxing
+ * keys or values.
+ */
+class IntKeyedTotals {
+  private static final int EMPTY = -1;
+
+  // Invariant: width is positive.
+  private final int width;
+
+  // Invariant: keys.length is a power of two, and values.length == keys.length * width.
+  private int[] keys;
+  private long[] values;
+  private int size;
+
+  /**
+   * Initializes an empty map whose keys each hold {@code width} accumulators.
+   * @param width the number of accumulators per key
+   */
+  IntKeyedTotals(int width) {
+    this.width = width;
+    this.keys = new int[16];
+    this.values = new long[16 * width];
+    Arrays.fill(this.keys, EMPTY);
+  }
+
+  /**
+   * Adds to one accumulator of a key, creating the key with all-zero accumulators if needed.
+   * @param key the non-negative key
+   * @param slot the index of the accumulator, less than the width of this map
+   * @param amount the amount to add
+   * @throws ArithmeticException if the accumulator overflows.
+   */
+  void add(int key, int slot, long amount) throws ArithmeticException {
+    int index = this.indexOf(key);
+    this.values[index * this.width + slot] = Math.addExact(this.values[index * this.width + slot], amount);
+  }
+
+  /**
+   * Gets the value of one accumulator of a key.
+   * @param key the key
+   * @param slot the index of the accumulator
+   * @return the value of the accumulator, or 0 if the key is not present
+   */
+  long get(int key, int slot) {
+    int mask = this.keys.length - 1;
+    for (int index = mix(key) & mask; this.keys[index] != EMPTY; index = (index + 1) & mask) {
+      if (this.keys[index] == key) {
+        return this.values[index * this.width + slot];
+      }
+    }
+    return 0;
+  }
+
+  /**
+   * Gets every key present in this map, in ascending order.
+   * @return the sorted keys
+   */
+  int[] sortedKeys() {
+    int[] present = new int[this.size];
+    int count = 0;
+    for (int key : this.keys) {
+      if (key != EMPTY) {
+        present[count++] = key;
+      }
+    }
+    Arrays.sort(present);
+    return present;
+  }
+
+  // Finds the slot of a key, inserting it if it is not present.
+  private int indexOf(int key) {
+    int mask = this.keys.length - 1;
+    int index = mix(key) & mask;
+    while (this.keys[index] != EMPTY) {
+      if (this.keys[index] == key) {
+        return index;
+      }
+      index = (index + 1) & mask;
+    }
+
+    if (2 * (this.size + 1) > this.keys.length) {
+      this.grow();
+      return this.indexOf(key);
+    }
+
+    this.keys[index] = key;
+    this.size++;
+    return index;
+  }
+
+  // Doubles the capacity of this map, reinserting every key.
+  private void grow() {
+    int[] oldKeys = this.keys;
+    long[] oldValues = this.values;
+
+    this.keys = new int[oldKeys.length * 2];
+    this.values = new long[this.keys.length * this.width];
+    Arrays.fill(this.keys, EMPTY);
+
+    int mask = this.keys.length - 1;
+    for (int oldIndex = 0; oldIndex < oldKeys.length; oldIndex++) {
+      if (oldKeys[oldIndex] == EMPTY) {
+        continue;
+      }
+
+      int index = mix(oldKeys[oldIndex]) & mask;
+      while (this.keys[index] != EMPTY) {
+        index = (index + 1) & mask;
+      }
+      this.keys[index] = oldKeys[oldIndex];
+      System.arraycopy(oldValues, oldIndex * this.width, this.values, index * this.width, this.width);
+    }
+  }
+
+  // Spreads the bits of a key so that sequential keys do not cluster.
+  private static int mix(int key) {
+    int hash = key * 0x9E3779B9;
+    return hash ^ (hash >>> 16);
+  }
+}
@@ -0,0 +1,404 @@
+package model.summary;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import model.date.Date;
+import model.date.Month;
+import model.money.MoneyAmount;
+import model.transactions.AbstractTransaction;
+import model.transactions.Deposit;
+import model.transactions.Payment;
+import model.transactions.TransactionType;
+
+/**
+ * Keeps monthly totals per account and type of transaction across statements, along with each
+ * account's year-to-date and trailing twelve month totals. The rolling totals are maintained as
+ * statements are recorded: months entering the window are added and months leaving it are
+ * subtracted, so recording a statement costs time proportional to the months it covers and
+ * reading a rolling total costs constant time. The window of an account ends at the latest month
+ * recorded for it.
+ *
+ * <p>The store is saved as a log with one row per recorded statement,
+ * {@code statement,<id>,<account>} followed by {@code <YYYY-MM>,<type>,<total>,<count>} for each
+ * month and type it covers, which is only ever appended to. Saving a statement therefore costs
+ * time proportional to the statement, and a store kept in memory catches up with statements
+ * saved by other processes by reading only the rows they appended, with {@link #refresh(String)}.
+ * A row left incomplete by a save which never finished is ignored, and cut off by the next save.
+ */
+public class RollingSummaryStore {
+  // Totals are kept as a cents slot and a count slot for each type of transaction.
+  private static final TransactionType[] TYPES = TransactionType.values();
+  private static final int WIDTH = 2 * TYPES.length;
+
+  // The number of months in the trailing window.
+  private static final int WINDOW = 12;
+
+  // The fields of a row before its months, and the fields of each month.
+  private static final int ROW_FIELDS = 3;
+  private static final int MONTH_FIELDS = 4;
+
+  // Invariant: accounts, statements, and unsavedRows are not null, and unsavedRows holds the rows
+  // of the statements recorded since the store was last saved.
+  private final Map<String, AccountTotals> accounts;
+  private final Set<String> statements;
+  private final List<String> unsavedRows;
+
+  // The length in bytes of the complete rows of the saved store which have been read.
+  private long savedLength;
+
+  /**
+   * Initializes an empty {@code RollingSummaryStore}.
+   */
+  public RollingSummaryStore() {
+    this.accounts = new HashMap<>();
+    this.statements = new HashSet<>();
+    this.unsavedRows = new ArrayList<>();
+    this.savedLength = 0;
+  }
+
+  /**
+   * Loads a store saved by {@link #save(String)}, or creates an empty store if there is no file
+   * at the provided path.
+   * @param filepath the path of the saved store
+   * @return the store
+   * @throws IllegalArgumentException if {@code filepath} is {@code null}.
+   * @throws IllegalStateException if the file cannot be read or is malformed.
+   */
+  public static RollingSummaryStore load(String filepath) throws IllegalArgumentException, IllegalStateException {
+    RollingSummaryStore store = new RollingSummaryStore();
+    store.refresh(filepath);
+    return store;
+  }
+
+  /**
+   * Records the statements saved at the provided path since this store last read or saved it,
+   * reading only the rows appended since. If the file is shorter than what was read, it has been
+   * replaced, and the store is read again from the start.
+   * @param filepath the path of the saved store
+   * @throws IllegalArgumentException if {@code filepath} is {@code null}.
+   * @throws IllegalStateException if the store has unsaved statements OR if the file cannot be
+   * read or is malformed.
+   */
+  public void refresh(String filepath) throws IllegalArgumentException, IllegalStateException {
+    if (filepath == null) {
+      throw new IllegalArgumentException("Filepath cannot be null.");
+    }
+
+    if (!this.unsavedRows.isEmpty()) {
+      throw new IllegalStateException("Cannot refresh a summary with unsaved statements.");
+    }
+
+    if (!Paths.get(filepath).toFile().exists()) {
+      return;
+    }
+
+    ByteBuffer appended;
+    try (FileChannel channel = FileChannel.open(Paths.get(filepath), StandardOpenOption.READ)) {
+      long size = channel.size();
+      if (size < this.savedLength) {
+        this.accounts.clear();
+        this.statements.clear();
+        this.savedLength = 0;
+      }
+
+      appended = ByteBuffer.allocate(Math.toIntExact(size - this.savedLength));
+      while (appended.hasRemaining() && channel.read(appended, this.savedLength + appended.position()) >= 0) {
+        // Read until the buffer is full or the file ends
+      }
+    } catch (IOException | ArithmeticException e) {
+      throw new IllegalStateException("Failed to read summary " + filepath + ".");
+    }
+
+    // Only complete rows are read; an incomplete last row is left for the save which cuts it off
+    int end = appended.position();
+    while (end > 0 && appended.get(end - 1) != '\n') {
+      end--;
+    }
+
+    String rows = new String(appended.array(), 0, end, StandardCharsets.UTF_8);
+    try {
+      for (String row : rows.split("\n")) {
+        if (!row.isEmpty()) {
+          this.replay(row);
+        }
+      }
+    } catch (IllegalArgumentException e) {
+      throw new IllegalStateException("Malformed summary " + filepath + ": " + e.getMessage());
+    }
+    this.savedLength += end;
+  }
+
+  /**
+   * Appends the rows of the statements recorded since the store was last saved to the file at
+   * the provided path, and makes them durable. The file is expected to hold no more complete rows
+   * than were read, so it is refreshed first while locked against other writers.
+   * @param filepath the path of the saved store
+   * @throws IllegalArgumentException if {@code filepath} is {@code null}.
+   * @throws IllegalStateException if the file cannot be written.
+   */
+  public void save(String filepath) throws IllegalArgumentException, IllegalStateException {
+    if (filepath == null) {
+      throw new IllegalArgumentException("Filepath cannot be null.");
+    }
+
+    if (this.unsavedRows.isEmpty()) {
+      return;
+    }
+
+    StringBuilder rows = new StringBuilder();
+    for (String row : this.unsavedRows) {
+      rows.append(row).append('\n');
+    }
+
+    ByteBuffer bytes = ByteBuffer.wrap(rows.toString().getBytes(StandardCharsets.UTF_8));
+    try (FileChannel channel = FileChannel.open(Paths.get(filepath), StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+      // Drop the incomplete row of a save which never finished
+      channel.truncate(this.savedLength);
+      channel.position(this.savedLength);
+      while (bytes.hasRemaining()) {
+        channel.write(bytes);
+      }
+      channel.force(true);
+    } catch (IOException e) {
+      throw new IllegalStateException("Failed to write summary " + filepath + ".");
+    }
+
+    this.savedLength += bytes.capacity();
+    this.unsavedRows.clear();
+  }
+
+  /**
+   * Records the transactions of one statement of an account, unless a statement with the same id
+   * was already recorded.
+   * @param account the name of the account
+   * @param statementId an identifier unique to the statement, such as a hash of its file
+   * @param deposits the deposits of the statement
+   * @param payments the payments of the statement
+   * @return whether the statement was recorded, as opposed to already having been recorded
+   * @throws IllegalArgumentException if any argument is {@code null} OR if either list contains
+   * {@code null} OR if the account or statement id is empty or contains a comma or line break.
+   * @throws ArithmeticException if a total overflows.
+   */
+  public boolean record(String account, String statementId, List<Deposit> deposits, List<Payment> payments)
+    throws IllegalArgumentException, ArithmeticException {
+    checkName(account, "Account");
+    checkName(statementId, "Statement id");
+
+    if (deposits == null || payments == null) {
+      throw new IllegalArgumentException("Transactions cannot be null.");
+    }
+
+    // Total the statement by month first, so each month enters the window once
+    TreeMap<Integer, long[]> statementMonths = new TreeMap<>();
+    List<AbstractTransaction> transactions = new ArrayList<>(deposits.size() + payments.size());
+    transactions.addAll(deposits);
+    transactions.addAll(payments);
+    for (AbstractTransaction transaction : transactions) {
+      if (transaction == null) {
+        throw new IllegalArgumentException("Transaction cannot be null.");
+      }
+
+      long[] totals = statementMonths.computeIfAbsent(monthKey(transaction.getDate()), key -> new long[WIDTH]);
+      int slot = 2 * transaction.getType().ordinal();
+      totals[slot] = Math.addExact(totals[slot], transaction.getAmount().getTotalCents());
+      totals[slot + 1]++;
+    }
+
+    if (!this.apply(account, statementId, statementMonths)) {
+      return false;
+    }
+
+    StringBuilder row = new StringBuilder("statement,").append(statementId).append(',').append(account);
+    for (Map.Entry<Integer, long[]> month : statementMonths.entrySet()) {
+      for (TransactionType type : TYPES) {
+        int slot = 2 * type.ordinal();
+        if (month.getValue()[slot + 1] > 0) {
+          row.append(',').append(formatMonth(month.getKey())).append(',').append(type)
+            .append(',').append(MoneyAmount.formatCents(month.getValue()[slot]))
+            .append(',').append(month.getValue()[slot + 1]);
+        }
+      }
+    }
+    this.unsavedRows.add(row.toString());
+    return true;
+  }
+
+  /**
+   * Gets the total of a type of transaction in the calendar year of the latest month of an
+   * account, up to and including that month.
+   * @param account the name of the account
+   * @param type the type of transaction
+   * @return the total, which is zero for an unknown account
+   */
+  public MoneyAmount getYearToDate(String account, TransactionType type) {
+    AccountTotals totals = this.accounts.get(account);
+    return MoneyAmount.ofCents(totals == null ? 0 : totals.yearToDate[2 * type.ordinal()]);
+  }
+
+  /**
+   * Gets the total of a type of transaction in the twelve months ending with the latest month of
+   * an account.
+   * @param account the name of the account
+   * @param type the type of transaction
+   * @return the total, which is zero for an unknown account
+   */
+  public MoneyAmount getTrailingTwelveMonths(String account, TransactionType type) {
+    AccountTotals totals = this.accounts.get(account);
+    return MoneyAmount.ofCents(totals == null ? 0 : totals.trailing[2 * type.ordinal()]);
+  }
+
+  /**
+   * Gets the total of a type of transaction in one month of an account.
+   * @param account the name of the account
+   * @param year the year of the month
+   * @param month the month
+   * @param type the type of transaction
+   * @return the total, which is zero for an unknown account or month
+   */
+  public MoneyAmount getMonth(String account, int year, Month month, TransactionType type) {
+    AccountTotals totals = this.accounts.get(account);
+    long[] monthTotals = (totals == null) ? null : totals.months.get(year * 12 + month.getIndex() - 1);
+    return MoneyAmount.ofCents(monthTotals == null ? 0 : monthTotals[2 * type.ordinal()]);
+  }
+
+  /**
+   * Gets the first day of the latest month recorded for an account.
+   * @param account the name of the account
+   * @return the first day of the month, or {@code null} for an unknown account
+   */
+  public Date getLatestMonth(String account) {
+    AccountTotals totals = this.accounts.get(account);
+    if (totals == null || totals.months.isEmpty()) {
+      return null;
+    }
+    return new Date(totals.latestMonth / 12, Month.asMonth(totals.latestMonth % 12 + 1), 1);
+  }
+
+  // Gets the totals of an account, creating them if necessary.
+  private AccountTotals accountTotals(String account) {
+    return this.accounts.computeIfAbsent(account, name -> new AccountTotals());
+  }
+
+  // Adds the monthly totals of a statement to its account, unless the statement was already
+  // recorded. Returns whether it was added.
+  private boolean apply(String account, String statementId, TreeMap<Integer, long[]> statementMonths) {
+    if (!this.statements.add(statementId)) {
+      return false;
+    }
+
+    AccountTotals totals = this.accountTotals(account);
+    for (Map.Entry<Integer, long[]> month : statementMonths.entrySet()) {
+      totals.add(month.getKey(), month.getValue());
+    }
+    return true;
+  }
+
+  // Records the statement of a saved row.
+  private void replay(String row) throws IllegalArgumentException {
+    String[] fields = row.split(",");
+    if (fields.length < ROW_FIELDS || !fields[0].equals("statement") || (fields.length - ROW_FIELDS) % MONTH_FIELDS != 0) {
+      throw new IllegalArgumentException("Malformed summary row: " + row);
+    }
+
+    TreeMap<Integer, long[]> statementMonths = new TreeMap<>();
+    for (int field = ROW_FIELDS; field < fields.length; field += MONTH_FIELDS) {
+      long[] totals = statementMonths.computeIfAbsent(parseMonth(fields[field]), key -> new long[WIDTH]);
+      int slot = 2 * TransactionType.fromName(fields[field + 1]).ordinal();
+      totals[slot] = MoneyAmount.parse(fields[field + 2]).getTotalCents();
+      totals[slot + 1] = Long.parseLong(fields[field + 3]);
+    }
+    this.apply(fields[2], fields[1], statementMonths);
+  }
+
+  // Parses a month written as YYYY-MM into its key.
+  private static int parseMonth(String month) throws IllegalArgumentException {
+    return monthKey(Date.parse(month + "-01"));
+  }
+
+  // Formats the key of a month as YYYY-MM.
+  private static String formatMonth(int month) {
+    return String.format("%04d-%02d", month / 12, month % 12 + 1);
+  }
+
+  // Gets the key of the month of a date: year * 12 + (month - 1).
+  private static int monthKey(Date date) {
+    return date.getYear() * 12 + date.getMonth().getIndex() - 1;
+  }
+
+  // Rejects names which cannot be saved in a CSV row.
+  private static void checkName(String name, String description) throws IllegalArgumentException {
+    if (name == null || name.isEmpty()) {
+      throw new IllegalArgumentException(description + " cannot be empty.");
+    }
+
+    if (name.contains(",") || name.contains("\n") || name.contains("\r")) {
+      throw new IllegalArgumentException(description + " cannot contain commas or line breaks.");
+    }
+  }
+
+  // Adds the totals of one array into another.
+  private static void addInto(long[] totals, long[] delta, int sign) {
+    for (int i = 0; i < WIDTH; i++) {
+      totals[i] = Math.addExact(totals[i], sign * delta[i]);
+    }
+  }
+
+  // The monthly and rolling totals of one account.
+  private static class AccountTotals {
+    private final TreeMap<Integer, long[]> months = new TreeMap<>();
+    private final long[] trailing = new long[WIDTH];
+    private final long[] yearToDate = new long[WIDTH];
+    private int latestMonth = Integer.MIN_VALUE;
+
+    // Adds the totals of a month, moving the window forward if the month is the latest.
+    private void add(int month, long[] delta) {
+      addInto(this.months.computeIfAbsent(month, key -> new long[WIDTH]), delta, 1);
+
+      if (month > this.latestMonth) {
+        this.advanceTo(month);
+      }
+
+      if (month > this.latestMonth - WINDOW) {
+        addInto(this.trailing, delta, 1);
+      }
+
+      if (month / 12 == this.latestMonth / 12) {
+        addInto(this.yearToDate, delta, 1);
+      }
+    }
+
+    // Moves the window to end at a later month, retiring the months which fall out of it.
+    private void advanceTo(int month) {
+      if (this.latestMonth == Integer.MIN_VALUE || month - this.latestMonth >= WINDOW) {
+        Arrays.fill(this.trailing, 0);
+      } else {
+        for (int retired = this.latestMonth - WINDOW + 1; retired <= month - WINDOW; retired++) {
+          long[] totals = this.months.get(retired);
+          if (totals != null) {
+            addInto(this.trailing, totals, -1);
+          }
+        }
+      }
+
+      // Every month recorded so far precedes the new month, so none is in a later year
+      if (this.latestMonth == Integer.MIN_VALUE || month / 12 != this.latestMonth / 12) {
+        Arrays.fill(this.yearToDate, 0);
+      }
+
+      this.latestMonth = month;
+    }
+  }
+}
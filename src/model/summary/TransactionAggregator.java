@@ -0,0 +1,158 @@
+package model.summary;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import model.merchant.Merchant;
+import model.money.MoneyAmount;
+import model.transactions.AbstractTransaction;
+import model.transactions.TransactionType;
+
+/**
+ * Computes deposit and payment totals per month, per merchant, and overall in a single
+ * streaming pass over transactions. Totals are kept as {@code long} cents in primitive-keyed
+ * hash maps, so transactions are never retained or boxed.
+ */
+public class TransactionAggregator {
+  // Accumulators kept for each key.
+  private static final int DEPOSIT_CENTS = 0;
+  private static final int DEPOSIT_COUNT = 1;
+  private static final int PAYMENT_CENTS = 2;
+  private static final int PAYMENT_COUNT = 3;
+  private static final int WIDTH = 4;
+
+  // Keyed by year * 12 + (month - 1).
+  private final IntKeyedTotals months;
+
+  // Keyed by merchant id.
+  private final IntKeyedTotals merchants;
+
+  // Invariant: merchantsById[id] is the merchant with that id, for every id in merchants, and the
+  // first merchantCount entries of merchantOrder are those ids in order of first appearance.
+  private Merchant[] merchantsById;
+  private int[] merchantOrder;
+  private int merchantCount;
+
+  private final long[] totals;
+
+  /**
+   * Initializes an empty {@code TransactionAggregator}.
+   */
+  public TransactionAggregator() {
+    this.months = new IntKeyedTotals(WIDTH);
+    this.merchants = new IntKeyedTotals(WIDTH);
+    this.merchantsById = new Merchant[64];
+    this.merchantOrder = new int[64];
+    this.totals = new long[WIDTH];
+  }
+
+  /**
+   * Adds a transaction to the totals.
+   * @param transaction the transaction to add
+   * @throws IllegalArgumentException if the provided {@code transaction} is {@code null}.
+   * @throws ArithmeticException if a total overflows.
+   */
+  public void accept(AbstractTransaction transaction) throws IllegalArgumentException, ArithmeticException {
+    if (transaction == null) {
+      throw new IllegalArgumentException("Transaction cannot be null.");
+    }
+
+    boolean isDeposit = transaction.getType() == TransactionType.DEPOSIT;
+    int centsSlot = isDeposit ? DEPOSIT_CENTS : PAYMENT_CENTS;
+    int countSlot = isDeposit ? DEPOSIT_COUNT : PAYMENT_COUNT;
+    long cents = transaction.getAmount().getTotalCents();
+
+    int monthKey = transaction.getDate().getYear() * 12 + transaction.getDate().getMonth().getIndex() - 1;
+    this.months.add(monthKey, centsSlot, cents);
+    this.months.add(monthKey, countSlot, 1);
+
+    Merchant merchant = transaction.getMerchant();
+    this.rememberMerchant(merchant);
+    this.merchants.add(merchant.getId(), centsSlot, cents);
+    this.merchants.add(merchant.getId(), countSlot, 1);
+
+    this.totals[centsSlot] = Math.addExact(this.totals[centsSlot], cents);
+    this.totals[countSlot]++;
+  }
+
+  /**
+   * Writes the totals as CSV rows with the columns
+   * {@code section,key,deposits,deposit_count,payments,payment_count,net}: one row per month in
+   * chronological order, one row per merchant in order of first appearance, then an overall row.
+   * @param destination where to write the rows
+   * @throws IOException if writing to {@code destination} fails.
+   */
+  public void writeCsv(Appendable destination) throws IOException {
+    destination.append("section,key,deposits,deposit_count,payments,payment_count,net\n");
+
+    for (int monthKey : this.months.sortedKeys()) {
+      String key = String.format("%04d-%02d", monthKey / 12, monthKey % 12 + 1);
+      appendRow(destination, "month", key, this.months, monthKey);
+    }
+
+    for (int i = 0; i < this.merchantCount; i++) {
+      int merchantId = this.merchantOrder[i];
+      appendRow(destination, "merchant", this.merchantsById[merchantId].getName(), this.merchants, merchantId);
+    }
+
+    appendRow(destination, "total", "all", this.totals[DEPOSIT_CENTS], this.totals[DEPOSIT_COUNT],
+      this.totals[PAYMENT_CENTS], this.totals[PAYMENT_COUNT]);
+  }
+
+  /**
+   * Gets the sum of all deposits added so far.
+   * @return the total deposits in cents
+   */
+  public long getDepositCents() {
+    return this.totals[DEPOSIT_CENTS];
+  }
+
+  /**
+   * Gets the sum of all payments added so far.
+   * @return the total payments in cents
+   */
+  public long getPaymentCents() {
+    return this.totals[PAYMENT_CENTS];
+  }
+
+  /**
+   * Gets the number of transactions added so far.
+   * @return the number of transactions
+   */
+  public long getTransactionCount() {
+    return this.totals[DEPOSIT_COUNT] + this.totals[PAYMENT_COUNT];
+  }
+
+  // Keeps the merchant so its name can be written later, in order of first appearance.
+  private void rememberMerchant(Merchant merchant) {
+    int id = merchant.getId();
+    if (id >= this.merchantsById.length) {
+      this.merchantsById = Arrays.copyOf(this.merchantsById, Math.max(id + 1, 2 * this.merchantsById.length));
+    }
+
+    if (this.merchantsById[id] == null) {
+      if (this.merchantCount == this.merchantOrder.length) {
+        this.merchantOrder = Arrays.copyOf(this.merchantOrder, 2 * this.merchantCount);
+      }
+      this.merchantOrder[this.merchantCount++] = id;
+    }
+    this.merchantsById[id] = merchant;
+  }
+
+  // Writes the row of one key of the provided totals.
+  private static void appendRow(Appendable destination, String section, String key, IntKeyedTotals totals, int totalsKey) throws IOException {
+    appendRow(destination, section, key, totals.get(totalsKey, DEPOSIT_CENTS), totals.get(totalsKey, DEPOSIT_COUNT),
+      totals.get(totalsKey, PAYMENT_CENTS), totals.get(totalsKey, PAYMENT_COUNT));
+  }
+
+  // Writes one row of totals.
+  private static void appendRow(Appendable destination, String section, String key, long depositCents, long depositCount, long paymentCents, long paymentCount) throws IOException {
+    destination.append(section).append(',')
+      .append(key).append(',')
+      .append(MoneyAmount.formatCents(depositCents)).append(',')
+      .append(Long.toString(depositCount)).append(',')
+      .append(MoneyAmount.formatCents(paymentCents)).append(',')
+      .append(Long.toString(paymentCount)).append(',')
+      .append(MoneyAmount.formatCents(Math.subtractExact(depositCents, paymentCents))).append('\n');
+  }
+}
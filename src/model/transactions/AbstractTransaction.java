@@ -2,7 +2,11 @@ package model.transactions;
 
 import java.util.Objects;
 
+import model.category.CategoryAutomaton;
+import model.category.TransactionCategory;
 import model.date.Date;
+import model.merchant.Merchant;
+import model.merchant.MerchantNormalizer;
 import model.money.MoneyAmount;
 
 /**
@@ -18,11 +22,19 @@ public abstract class AbstractTransaction {
   // Invariant: amount is not null.
   private final MoneyAmount amount;
 
+  // Invariant: merchant is not null.
+  private final Merchant merchant;
+
+  // Invariant: category is not null.
+  private final TransactionCategory category;
+
   // Invariant: type is not null.
   protected TransactionType type;
 
   /**
-   * Initializes a new monetary transaction according to the provided parameters.
+   * Initializes a new monetary transaction according to the provided parameters, finding its
+   * merchant with the default {@code MerchantNormalizer} and its category with the default
+   * {@code CategoryAutomaton}.
    * @param type the kind of this transaction
    * @param date the date on which this transaction occurred
    * @param description a description of this transaction
@@ -30,6 +42,22 @@ public abstract class AbstractTransaction {
    * @throws IllegalArgumentException if any of the provided arguments is {@code null}.
    */
   protected AbstractTransaction(TransactionType type, Date date, String description, MoneyAmount amount) throws IllegalArgumentException {
+    this(type, date, description, amount,
+      description == null ? null : MerchantNormalizer.getDefault().normalize(description).getMerchant(),
+      description == null ? null : CategoryAutomaton.getDefault().categorize(description));
+  }
+
+  /**
+   * Initializes a new monetary transaction according to the provided parameters.
+   * @param type the kind of this transaction
+   * @param date the date on which this transaction occurred
+   * @param description a description of this transaction
+   * @param amount the amount of money exchanged
+   * @param merchant the canonical merchant of this transaction
+   * @param category the spending category of this transaction
+   * @throws IllegalArgumentException if any of the provided arguments is {@code null}.
+   */
+  protected AbstractTransaction(TransactionType type, Date date, String description, MoneyAmount amount, Merchant merchant, TransactionCategory category) throws IllegalArgumentException {
     if (type == null) {
       throw new IllegalArgumentException("Type cannot be null.");
     }
@@ -46,10 +74,20 @@ public abstract class AbstractTransaction {
       throw new IllegalArgumentException("Amount cannot be null");
     }
 
+    if (merchant == null) {
+      throw new IllegalArgumentException("Merchant cannot be null");
+    }
+
+    if (category == null) {
+      throw new IllegalArgumentException("Category cannot be null");
+    }
+
     this.type = type;
     this.date = date;
     this.description = (description.length() == 0) ? "Unknown" : description;
     this.amount = amount;
+    this.merchant = merchant;
+    this.category = category;
   }
 
   /**
@@ -60,6 +98,46 @@ public abstract class AbstractTransaction {
     return this.date;
   }
 
+  /**
+   * Gets the kind of this transaction.
+   * @return the type of this transaction
+   */
+  public TransactionType getType() {
+    return this.type;
+  }
+
+  /**
+   * Gets the description of this transaction.
+   * @return the description of this transaction
+   */
+  public String getDescription() {
+    return this.description;
+  }
+
+  /**
+   * Gets the amount of money exchanged in this transaction.
+   * @return the amount of this transaction
+   */
+  public MoneyAmount getAmount() {
+    return this.amount;
+  }
+
+  /**
+   * Gets the canonical merchant of this transaction.
+   * @return the merchant of this transaction
+   */
+  public Merchant getMerchant() {
+    return this.merchant;
+  }
+
+  /**
+   * Gets the spending category of this transaction.
+   * @return the category of this transaction
+   */
+  public TransactionCategory getCategory() {
+    return this.category;
+  }
+
   @Override
   public String toString() {
     return this.type + "," + this.date + "," + this.description + "," + this.amount;
@@ -1,6 +1,10 @@
 package model.transactions;
 
+import model.category.CategoryAutomaton;
+import model.category.TransactionCategory;
 import model.date.Date;
+import model.merchant.Merchant;
+import model.merchant.MerchantNormalizer;
 import model.money.MoneyAmount;
 
 /**
@@ -8,14 +12,36 @@ import model.money.MoneyAmount;
  * @param <T> the type of transaction this factory class generates
  */
 public abstract class AbstractTransactionFactory<T extends AbstractTransaction> {
+  /**
+   * Creates an instance of some type of monetary transaction, depending on the parameter type,
+   * finding its merchant with the default {@code MerchantNormalizer} and its category with the
+   * default {@code CategoryAutomaton}.
+   * @param date the date on which this transaction occurred
+   * @param description a description of this transaction
+   * @param amount the amount of money exchanged
+   * @return an instance of a monetary transaction
+   * @throws IllegalArgumentException if any of the provided parameters are null or invalid,
+   * according to those class requirements
+   */
+  public T make(Date date, String description, MoneyAmount amount) throws IllegalArgumentException {
+    if (description == null) {
+      throw new IllegalArgumentException("Description cannot be null");
+    }
+
+    return this.make(date, description, amount, MerchantNormalizer.getDefault().normalize(description).getMerchant(),
+      CategoryAutomaton.getDefault().categorize(description));
+  }
+
   /**
    * Creates an instance of some type of monetary transaction, depending on the parameter type.
    * @param date the date on which this transaction occurred
    * @param description a description of this transaction
    * @param amount the amount of money exchanged
+   * @param merchant the canonical merchant of this transaction
+   * @param category the spending category of this transaction
    * @return an instance of a monetary transaction
    * @throws IllegalArgumentException if any of the provided parameters are null or invalid,
    * according to those class requirements
    */
-  public abstract T make(Date date, String description, MoneyAmount amount) throws IllegalArgumentException ;
+  public abstract T make(Date date, String description, MoneyAmount amount, Merchant merchant, TransactionCategory category) throws IllegalArgumentException ;
 }
@@ -1,14 +1,16 @@
 package model.transactions;
 
+import model.category.TransactionCategory;
 import model.date.Date;
+import model.merchant.Merchant;
 import model.money.MoneyAmount;
 
 /**
  * Represents a deposit into an account.
  */
 public class Deposit extends AbstractTransaction {
-  private Deposit(Date date, String description, MoneyAmount amount) {
-    super(TransactionType.DEPOSIT, date, description, amount);
+  private Deposit(Date date, String description, MoneyAmount amount, Merchant merchant, TransactionCategory category) {
+    super(TransactionType.DEPOSIT, date, description, amount, merchant, category);
   }
 
   /**
@@ -16,8 +18,8 @@ public class Deposit extends AbstractTransaction {
    */
   public static class DepositFactory extends AbstractTransactionFactory<Deposit> {
     @Override
-    public Deposit make(Date date, String description, MoneyAmount amount) throws IllegalArgumentException {
-      return new Deposit(date, description, amount);
+    public Deposit make(Date date, String description, MoneyAmount amount, Merchant merchant, TransactionCategory category) throws IllegalArgumentException {
+      return new Deposit(date, description, amount, merchant, category);
     }
   }
 }
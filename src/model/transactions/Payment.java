@@ -1,6 +1,8 @@
 package model.transactions;
 
+import model.category.TransactionCategory;
 import model.date.Date;
+import model.merchant.Merchant;
 import model.money.MoneyAmount;
 
 /**
@@ -12,13 +14,17 @@ public class Payment extends AbstractTransaction {
     super(TransactionType.PAYMENT, date, description, amount);
   }
 
+  private Payment(Date date, String description, MoneyAmount amount, Merchant merchant, TransactionCategory category) {
+    super(TransactionType.PAYMENT, date, description, amount, merchant, category);
+  }
+
   /**
    * Factory class for instantiating {@code Payment} instances.
    */
   public static class PaymentFactory extends AbstractTransactionFactory<Payment> {
     @Override
-    public Payment make(Date date, String description, MoneyAmount amount) throws IllegalArgumentException {
-      return new Payment(date, description, amount);
+    public Payment make(Date date, String description, MoneyAmount amount, Merchant merchant, TransactionCategory category) throws IllegalArgumentException {
+      return new Payment(date, description, amount, merchant, category);
     }
   }
 }
@@ -18,6 +18,22 @@ public enum TransactionType {
     this.name = name;
   }
 
+  /**
+   * Finds the {@code TransactionType} with the given name, ignoring case.
+   * @param name the name of the type, such as {@code payment}
+   * @return the corresponding type of transaction
+   * @throws IllegalArgumentException if no type of transaction has the given name.
+   */
+  public static TransactionType fromName(String name) throws IllegalArgumentException {
+    for (TransactionType type : TransactionType.values()) {
+      if (type.name.equalsIgnoreCase(name)) {
+        return type;
+      }
+    }
+
+    throw new IllegalArgumentException("Unknown transaction type: " + name);
+  }
+
   @Override
   public String toString() {
     return this.name;
@@ -0,0 +1,237 @@
+package model.transfer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import model.transactions.AbstractTransaction;
+import model.transactions.TransactionType;
+
+/**
+ * Pairs transfers between accounts: a payment out of one account and a deposit of the same
+ * amount into another account within a few days of it, such as a payment to a credit card and
+ * the credit on the card. Each transaction is numbered in the order it is added, starting at 0,
+ * and is part of at most one pair.
+ *
+ * <p>Transactions are held in primitive arrays. Matching indexes the deposits by amount, sorted
+ * by date, so each payment only looks at deposits of its own amount within the window rather
+ * than at every deposit.
+ */
+public class TransferMatcher {
+  private static final int UNMATCHED = -1;
+
+  // Invariant: each array holds at least size entries, one per transaction in the order added,
+  // and partners holds the number of the other transaction in its pair, or UNMATCHED.
+  private int[] days;
+  private long[] cents;
+  private int[] accounts;
+  private boolean[] deposits;
+  private int[] partners;
+  private int size;
+  private int matchCount;
+
+  // Invariant: accountIndex maps each account name to its position in accountNames.
+  private final Map<String, Integer> accountIndex;
+  private final List<String> accountNames;
+
+  /**
+   * Initializes a {@code TransferMatcher} with no transactions.
+   */
+  public TransferMatcher() {
+    this.days = new int[16];
+    this.cents = new long[16];
+    this.accounts = new int[16];
+    this.deposits = new boolean[16];
+    this.partners = new int[16];
+    this.accountIndex = new HashMap<>();
+    this.accountNames = new ArrayList<>();
+  }
+
+  /**
+   * Adds a transaction of the provided account.
+   * @param account the name of the account the transaction belongs to
+   * @param transaction the transaction
+   * @return the number of the transaction
+   * @throws IllegalArgumentException if either argument is {@code null}.
+   * @throws IllegalStateException if there are too many transactions to number.
+   */
+  public int add(String account, AbstractTransaction transaction) throws IllegalArgumentException, IllegalStateException {
+    if (account == null) {
+      throw new IllegalArgumentException("Account cannot be null.");
+    }
+
+    if (transaction == null) {
+      throw new IllegalArgumentException("Transaction cannot be null.");
+    }
+
+    if (this.size == Integer.MAX_VALUE - 8) {
+      throw new IllegalStateException("Too many transactions.");
+    }
+
+    if (this.size == this.days.length) {
+      int capacity = (int) Math.min(Integer.MAX_VALUE - 8, 2L * this.size);
+      this.days = Arrays.copyOf(this.days, capacity);
+      this.cents = Arrays.copyOf(this.cents, capacity);
+      this.accounts = Arrays.copyOf(this.accounts, capacity);
+      this.deposits = Arrays.copyOf(this.deposits, capacity);
+      this.partners = Arrays.copyOf(this.partners, capacity);
+    }
+
+    Integer index = this.accountIndex.get(account);
+    if (index == null) {
+      index = this.accountNames.size();
+      this.accountIndex.put(account, index);
+      this.accountNames.add(account);
+    }
+
+    int id = this.size++;
+    this.days[id] = transaction.getDate().toEpochDay();
+    this.cents[id] = transaction.getAmount().getTotalCents();
+    this.accounts[id] = index;
+    this.deposits[id] = transaction.getType() == TransactionType.DEPOSIT;
+    this.partners[id] = UNMATCHED;
+    return id;
+  }
+
+  /**
+   * Pairs each payment with an unpaired deposit of the same amount into a different account at
+   * most {@code windowDays} days before or after it, replacing any earlier pairing. Payments are
+   * paired in date order, each with the closest such deposit, preferring the earlier of two
+   * equally close deposits.
+   * @param windowDays the most days between a payment and its deposit
+   * @return the number of pairs
+   * @throws IllegalArgumentException if {@code windowDays} is negative.
+   */
+  public int match(int windowDays) throws IllegalArgumentException {
+    if (windowDays < 0) {
+      throw new IllegalArgumentException("Window cannot be negative.");
+    }
+
+    Arrays.fill(this.partners, 0, this.size, UNMATCHED);
+    this.matchCount = 0;
+
+    // Index the deposits by amount, each bucket sorted by date and then number
+    Map<Long, Bucket> buckets = new HashMap<>();
+    long[] payments = new long[this.size];
+    int paymentCount = 0;
+    for (int id = 0; id < this.size; id++) {
+      if (this.deposits[id]) {
+        buckets.computeIfAbsent(this.cents[id], amount -> new Bucket()).add(keyOf(this.days[id], id));
+      } else {
+        payments[paymentCount++] = keyOf(this.days[id], id);
+      }
+    }
+    for (Bucket bucket : buckets.values()) {
+      Arrays.sort(bucket.keys, 0, bucket.size);
+    }
+    Arrays.sort(payments, 0, paymentCount);
+
+    for (int i = 0; i < paymentCount; i++) {
+      int payment = (int) payments[i];
+      Bucket bucket = buckets.get(this.cents[payment]);
+      if (bucket == null) {
+        continue;
+      }
+
+      int day = this.days[payment];
+      int best = UNMATCHED;
+      long bestDistance = Long.MAX_VALUE;
+      for (int j = bucket.lowerBound(keyOf(day - windowDays, 0)); j < bucket.size; j++) {
+        int depositDay = (int) (bucket.keys[j] >> 32);
+        if (depositDay > day + windowDays) {
+          break;
+        }
+
+        int deposit = (int) bucket.keys[j];
+        long distance = Math.abs((long) depositDay - day);
+        if (this.partners[deposit] == UNMATCHED && this.accounts[deposit] != this.accounts[payment]
+          && distance < bestDistance) {
+          best = deposit;
+          bestDistance = distance;
+        }
+      }
+
+      if (best != UNMATCHED) {
+        this.partners[payment] = best;
+        this.partners[best] = payment;
+        this.matchCount++;
+      }
+    }
+
+    return this.matchCount;
+  }
+
+  /**
+   * Determines whether the transaction with the provided number was paired by the last match.
+   * @param id the number of the transaction
+   * @return whether the transaction is part of a transfer
+   */
+  public boolean isMatched(long id) {
+    return id >= 0 && id < this.size && this.partners[(int) id] != UNMATCHED;
+  }
+
+  /**
+   * Gets the other transaction in the pair of the transaction with the provided number.
+   * @param id the number of the transaction
+   * @return the number of the other transaction, or -1 if the transaction is not paired
+   * @throws IllegalArgumentException if no transaction has the provided number.
+   */
+  public int partnerOf(int id) throws IllegalArgumentException {
+    if (id < 0 || id >= this.size) {
+      throw new IllegalArgumentException("No transaction numbered " + id + ".");
+    }
+
+    return this.partners[id];
+  }
+
+  /**
+   * Gets the number of pairs found by the last match.
+   * @return the number of pairs
+   */
+  public int getMatchCount() {
+    return this.matchCount;
+  }
+
+  /**
+   * Gets the number of transactions added.
+   * @return the number of transactions
+   */
+  public int size() {
+    return this.size;
+  }
+
+  // Orders transactions by date and then by number.
+  private static long keyOf(int day, int id) {
+    return ((long) day << 32) | id;
+  }
+
+  // The sort keys of the deposits of one amount.
+  private static class Bucket {
+    private long[] keys = new long[4];
+    private int size;
+
+    private void add(long key) {
+      if (this.size == this.keys.length) {
+        this.keys = Arrays.copyOf(this.keys, 2 * this.size);
+      }
+      this.keys[this.size++] = key;
+    }
+
+    // Finds the position of the first key not less than the provided key.
+    private int lowerBound(long key) {
+      int low = 0;
+      int high = this.size;
+      while (low < high) {
+        int middle = (low + high) >>> 1;
+        if (this.keys[middle] < key) {
+          low = middle + 1;
+        } else {
+          high = middle;
+        }
+      }
+      return low;
+    }
+  }
+}
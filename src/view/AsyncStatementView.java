@@ -0,0 +1,205 @@
+package view;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Displays the progress of many statements being processed at once, without making the threads
+ * processing them wait on the destination. Events are queued and written by a background thread
+ * in batches, with the commentary on each file kept together and written a whole line at a time,
+ * so that the lines of different files never interleave. In quiet mode, only the results of
+ * files and notices about the run are displayed.
+ *
+ * <p>Commentary is dropped, and the number dropped reported, if the writer falls too far
+ * behind; results and notices are never dropped. The view must be closed to display every
+ * remaining event.
+ */
+public class AsyncStatementView implements StatementView, Closeable {
+  // The most events written to the destination at once.
+  private static final int MAX_BATCH = 1024;
+
+  // Commentary is dropped while this many events are waiting to be written.
+  private static final int MAX_PENDING = 10000;
+
+  // Queued by close to stop the writer once every earlier event is written.
+  private static final ProgressEvent CLOSE = ProgressEvent.notice("");
+
+  // Invariant: destination is not null.
+  private final Appendable destination;
+
+  private final boolean quiet;
+
+  // Invariant: events is not null, and CLOSE is queued at most once.
+  private final LinkedBlockingQueue<ProgressEvent> events;
+  private final AtomicLong dropped;
+  private final Thread writer;
+
+  // The first error writing to the destination, reported to the next caller.
+  private volatile IOException failure;
+  private volatile boolean closed;
+
+  /**
+   * Initializes an {@code AsyncStatementView} with the provided {@code Appendable}, and starts
+   * its writer.
+   * @param destination the destination of text transmissions from this view
+   * @param quiet whether to display only the results of files and notices about the run
+   * @throws IllegalArgumentException if the provided {@code destination} is {@code null}.
+   */
+  public AsyncStatementView(Appendable destination, boolean quiet) throws IllegalArgumentException {
+    if (destination == null) {
+      throw new IllegalArgumentException("Destination cannot be null.");
+    }
+
+    this.destination = destination;
+    this.quiet = quiet;
+    this.events = new LinkedBlockingQueue<>();
+    this.dropped = new AtomicLong();
+    this.writer = new Thread(this::writeEvents, "statement-view-writer");
+    this.writer.setDaemon(true);
+    this.writer.start();
+  }
+
+  @Override
+  public void renderMessage(String message) throws IOException {
+    this.renderEvent(ProgressEvent.notice(message));
+  }
+
+  /**
+   * Queues an event to be displayed, without waiting for it to be written.
+   * @param event the event to be displayed to the user
+   * @throws IOException if an earlier event could not be written to the destination.
+   * @throws IllegalStateException if this view has been closed.
+   */
+  @Override
+  public void renderEvent(ProgressEvent event) throws IOException, IllegalStateException {
+    if (event == null) {
+      throw new IllegalArgumentException("Event cannot be null.");
+    }
+
+    if (this.closed) {
+      throw new IllegalStateException("View has been closed.");
+    }
+
+    if (this.failure != null) {
+      throw new IOException("Transmission of the message to the destination failed");
+    }
+
+    if (event.getKind() == ProgressEvent.Kind.PROGRESS) {
+      if (this.quiet) {
+        return;
+      }
+
+      if (this.events.size() >= MAX_PENDING) {
+        this.dropped.incrementAndGet();
+        return;
+      }
+    }
+
+    this.events.add(event);
+  }
+
+  /**
+   * Writes every queued event and stops the writer. Events rendered afterwards are rejected.
+   */
+  @Override
+  public void close() {
+    if (this.closed) {
+      return;
+    }
+
+    this.closed = true;
+    this.events.add(CLOSE);
+
+    try {
+      this.writer.join();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  // Writes batches of events until the view is closed.
+  private void writeEvents() {
+    List<ProgressEvent> batch = new ArrayList<>();
+    // The commentary on each file since its last complete line, so lines of files never interleave
+    Map<String, StringBuilder> partialLines = new LinkedHashMap<>();
+    boolean closing = false;
+
+    while (!closing) {
+      batch.clear();
+      try {
+        batch.add(this.events.take());
+      } catch (InterruptedException e) {
+        return;
+      }
+      this.events.drainTo(batch, MAX_BATCH - 1);
+
+      // Keep the events of each file together, in the order their files first appear
+      Map<String, StringBuilder> text = new LinkedHashMap<>();
+      for (ProgressEvent event : batch) {
+        if (event == CLOSE) {
+          closing = true;
+          continue;
+        }
+
+        StringBuilder builder = text.computeIfAbsent(event.getSource(), source -> new StringBuilder());
+        if (event.getKind() == ProgressEvent.Kind.PROGRESS) {
+          StringBuilder partial = partialLines.computeIfAbsent(event.getSource(), source -> new StringBuilder());
+          partial.append(event.getMessage());
+          int lineEnd = partial.lastIndexOf("\n") + 1;
+          builder.append(partial, 0, lineEnd);
+          partial.delete(0, lineEnd);
+          continue;
+        }
+
+        // A result ends the commentary on its file
+        StringBuilder partial = partialLines.remove(event.getSource());
+        if (partial != null) {
+          builder.append(partial);
+        }
+        builder.append(event.getMessage());
+        if (this.quiet && !event.getMessage().endsWith("\n")) {
+          builder.append('\n');
+        }
+      }
+
+      if (closing) {
+        for (Map.Entry<String, StringBuilder> partial : partialLines.entrySet()) {
+          text.computeIfAbsent(partial.getKey(), source -> new StringBuilder()).append(partial.getValue());
+        }
+      }
+
+      long droppedCount = this.dropped.getAndSet(0);
+      if (droppedCount > 0) {
+        text.computeIfAbsent(null, source -> new StringBuilder())
+          .append("\n(").append(droppedCount).append(" progress message(s) dropped)\n");
+      }
+
+      this.write(text.values());
+    }
+  }
+
+  // Writes text to the destination in one pass, remembering the first error.
+  private void write(Iterable<StringBuilder> text) {
+    if (this.failure != null) {
+      return;
+    }
+
+    try {
+      for (StringBuilder builder : text) {
+        this.destination.append(builder);
+      }
+      if (this.destination instanceof Flushable) {
+        ((Flushable) this.destination).flush();
+      }
+    } catch (IOException e) {
+      this.failure = e;
+    }
+  }
+}
@@ -0,0 +1,54 @@
+package view;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Writes files by writing a temporary file beside each one and renaming it into place once it is
+ * complete, so that a file at the final path is never a partial export.
+ */
+final class AtomicFile {
+  private AtomicFile() {
+  }
+
+  /**
+   * Gets the temporary path to which the contents of the provided file are written.
+   * @param filepath the final path of the file
+   * @return the temporary path
+   */
+  static String temporaryFor(String filepath) {
+    return filepath + ".tmp";
+  }
+
+  /**
+   * Makes the temporary file of the provided file durable and renames it into place, replacing
+   * any earlier version of the file.
+   * @param filepath the final path of the file
+   * @throws IOException if the temporary file cannot be synced or renamed.
+   */
+  static void commit(String filepath) throws IOException {
+    Path temporary = Paths.get(temporaryFor(filepath));
+    try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+      channel.force(true);
+    }
+    Files.move(temporary, Paths.get(filepath), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+  }
+
+  /**
+   * Deletes the temporary file of the provided file, if there is one, leaving the file itself
+   * untouched.
+   * @param filepath the final path of the file
+   */
+  static void discard(String filepath) {
+    try {
+      Files.deleteIfExists(Paths.get(temporaryFor(filepath)));
+    } catch (IOException e) {
+      // A leftover temporary file is never mistaken for the file itself
+    }
+  }
+}
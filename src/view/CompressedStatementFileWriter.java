@@ -0,0 +1,223 @@
+package view;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+import model.summary.TransactionAggregator;
+import model.transactions.AbstractTransaction;
+
+/**
+ * Writes the contents of a statement to a gzip-compressed CSV file. Rows are grouped into
+ * fixed-size blocks which are compressed concurrently, each into its own gzip member; the
+ * members are written in order, and their concatenation is a standard {@code .csv.gz} file
+ * readable by any gzip tool. Like {@code StatementFileWriter}, it may also write an uncompressed
+ * summary of the statement's totals.
+ */
+public class CompressedStatementFileWriter implements StatementExporter {
+  /**
+   * The default number of uncompressed bytes in each block.
+   */
+  public static final int DEFAULT_BLOCK_SIZE = 256 * 1024;
+
+  private static final byte[] GZIP_HEADER = {
+    0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, (byte) 0xff
+  };
+
+  // Invariant: filepath is not null.
+  private final String filepath;
+
+  // Null when no summary is written.
+  private final StatementSummaryWriter summaryWriter;
+
+  // Invariant: blockSize and threadCount are positive.
+  private final int blockSize;
+  private final int threadCount;
+
+  /**
+   * Initializes a new {@code CompressedStatementFileWriter} to export a statement to the provided
+   * filepath, compressing blocks of the default size on every available core.
+   * @param filepath the path to the file which will be written
+   * @throws IllegalArgumentException if the provided {@code filepath} is {@code null}.
+   */
+  public CompressedStatementFileWriter(String filepath) throws IllegalArgumentException {
+    this(filepath, null);
+  }
+
+  /**
+   * Initializes a new {@code CompressedStatementFileWriter} to export a statement to the provided
+   * filepath, along with a summary of its totals computed while the statement is written,
+   * compressing blocks of the default size on every available core.
+   * @param filepath the path to the file which will be written
+   * @param summaryFilepath the path to the summary file which will be written, or {@code null}
+   *                        to write no summary
+   * @throws IllegalArgumentException if the provided {@code filepath} is {@code null}.
+   */
+  public CompressedStatementFileWriter(String filepath, String summaryFilepath) throws IllegalArgumentException {
+    this(filepath, summaryFilepath, DEFAULT_BLOCK_SIZE, Runtime.getRuntime().availableProcessors());
+  }
+
+  /**
+   * Initializes a new {@code CompressedStatementFileWriter} to export a statement to the provided
+   * filepath.
+   * @param filepath the path to the file which will be written
+   * @param blockSize the number of uncompressed bytes in each block
+   * @param threadCount the number of blocks compressed at once
+   * @throws IllegalArgumentException if the provided {@code filepath} is {@code null} OR if
+   * {@code blockSize} or {@code threadCount} is not positive.
+   */
+  public CompressedStatementFileWriter(String filepath, int blockSize, int threadCount) throws IllegalArgumentException {
+    this(filepath, null, blockSize, threadCount);
+  }
+
+  /**
+   * Initializes a new {@code CompressedStatementFileWriter} to export a statement to the provided
+   * filepath, along with a summary of its totals unless {@code summaryFilepath} is {@code null}.
+   * @param filepath the path to the file which will be written
+   * @param summaryFilepath the path to the summary file which will be written, or {@code null}
+   *                        to write no summary
+   * @param blockSize the number of uncompressed bytes in each block
+   * @param threadCount the number of blocks compressed at once
+   * @throws IllegalArgumentException if the provided {@code filepath} is {@code null} OR if
+   * {@code blockSize} or {@code threadCount} is not positive.
+   */
+  public CompressedStatementFileWriter(String filepath, String summaryFilepath, int blockSize, int threadCount)
+    throws IllegalArgumentException {
+    if (filepath == null) {
+      throw new IllegalArgumentException("Filepath cannot be null.");
+    }
+
+    if (blockSize <= 0) {
+      throw new IllegalArgumentException("Block size must be positive.");
+    }
+
+    if (threadCount <= 0) {
+      throw new IllegalArgumentException("Thread count must be positive.");
+    }
+
+    this.filepath = filepath;
+    this.summaryWriter = (summaryFilepath == null) ? null : new StatementSummaryWriter(summaryFilepath);
+    this.blockSize = blockSize;
+    this.threadCount = threadCount;
+  }
+
+  @Override
+  public void write(List<AbstractTransaction> transactions) throws IllegalStateException {
+    ExecutorService compressors = Executors.newFixedThreadPool(this.threadCount);
+    TransactionAggregator aggregator = (this.summaryWriter == null) ? null : new TransactionAggregator();
+
+    try (OutputStream out = new BufferedOutputStream(new FileOutputStream(AtomicFile.temporaryFor(this.filepath)))) {
+      // Bound the number of blocks in flight so memory use does not grow with the statement
+      Deque<Future<byte[]>> pending = new ArrayDeque<>();
+      ByteArrayOutputStream block = new ByteArrayOutputStream(this.blockSize);
+
+      appendRow(block, "type,date,description,amount\n");
+      for (AbstractTransaction transaction : transactions) {
+        appendRow(block, transaction.toString() + "\n");
+        if (aggregator != null) {
+          aggregator.accept(transaction);
+        }
+
+        if (block.size() >= this.blockSize) {
+          byte[] contents = block.toByteArray();
+          pending.add(compressors.submit(() -> compressMember(contents)));
+          block.reset();
+
+          if (pending.size() >= 2 * this.threadCount) {
+            out.write(pending.remove().get());
+          }
+        }
+      }
+
+      if (block.size() > 0) {
+        byte[] contents = block.toByteArray();
+        pending.add(compressors.submit(() -> compressMember(contents)));
+      }
+
+      while (!pending.isEmpty()) {
+        out.write(pending.remove().get());
+      }
+    } catch (IOException | ExecutionException e) {
+      AtomicFile.discard(this.filepath);
+      throw new IllegalStateException("Writing to compressed file failed.");
+    } catch (InterruptedException e) {
+      AtomicFile.discard(this.filepath);
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while writing compressed file.");
+    } finally {
+      compressors.shutdownNow();
+    }
+
+    try {
+      AtomicFile.commit(this.filepath);
+    } catch (IOException e) {
+      AtomicFile.discard(this.filepath);
+      throw new IllegalStateException("Writing to compressed file failed.");
+    }
+
+    if (aggregator != null) {
+      this.summaryWriter.writeSummary(aggregator);
+    }
+  }
+
+  @Override
+  public String confirmationMessage() {
+    if (this.summaryWriter != null) {
+      return "Successfully exported as " + this.filepath + "\n" + this.summaryWriter.confirmationMessage();
+    }
+
+    return "Successfully exported as " + this.filepath;
+  }
+
+  // Appends a row to a block as UTF-8.
+  private static void appendRow(ByteArrayOutputStream block, String row) {
+    byte[] bytes = row.getBytes(StandardCharsets.UTF_8);
+    block.write(bytes, 0, bytes.length);
+  }
+
+  // Compresses a block into a complete gzip member: header, deflated data, CRC-32, and size.
+  private static byte[] compressMember(byte[] contents) {
+    ByteArrayOutputStream member = new ByteArrayOutputStream(contents.length / 4 + 64);
+    member.write(GZIP_HEADER, 0, GZIP_HEADER.length);
+
+    Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+    try {
+      deflater.setInput(contents);
+      deflater.finish();
+      byte[] buffer = new byte[64 * 1024];
+      while (!deflater.finished()) {
+        int length = deflater.deflate(buffer);
+        member.write(buffer, 0, length);
+      }
+    } finally {
+      deflater.end();
+    }
+
+    CRC32 crc = new CRC32();
+    crc.update(contents);
+    writeIntLittleEndian(member, (int) crc.getValue());
+    writeIntLittleEndian(member, contents.length);
+
+    return member.toByteArray();
+  }
+
+  // Writes a 32-bit value in little-endian byte order, as gzip requires.
+  private static void writeIntLittleEndian(ByteArrayOutputStream out, int value) {
+    out.write(value);
+    out.write(value >>> 8);
+    out.write(value >>> 16);
+    out.write(value >>> 24);
+  }
+}
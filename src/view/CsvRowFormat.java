@@ -0,0 +1,24 @@
+package view;
+
+import model.transactions.AbstractTransaction;
+
+/**
+ * Encodes transactions as rows of the {@code type,date,description,amount} CSV format written by
+ * {@code StatementFileWriter}.
+ */
+public class CsvRowFormat implements RowFormat {
+  @Override
+  public String header() {
+    return "type,date,description,amount\n";
+  }
+
+  @Override
+  public void encode(AbstractTransaction transaction, StringBuilder destination) {
+    destination.append(transaction.toString()).append('\n');
+  }
+
+  @Override
+  public String extension() {
+    return ".csv";
+  }
+}
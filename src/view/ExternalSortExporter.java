@@ -0,0 +1,415 @@
+package view;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.LongPredicate;
+
+import model.date.Date;
+import model.money.MoneyAmount;
+import model.transactions.AbstractTransaction;
+import model.transactions.TransactionType;
+
+/**
+ * Writes transactions to a CSV file in the same order as {@code TransactionDateComparator}, using
+ * memory bounded by the run size rather than by the number of transactions. Transactions are
+ * gathered into runs of a fixed size, each of which is sorted and spilled to a temporary file in
+ * a compact binary encoding, and the runs are then merged into the CSV file, a bounded number at
+ * a time. Transactions on the same date keep the order in which they were added.
+ *
+ * <p>The transactions of many statements may be consolidated into one file by adding each
+ * statement through {@link #accumulator()} and then calling {@link #finish()}. Each transaction
+ * is numbered in the order it was added, starting at 0, so that transactions identified by number
+ * elsewhere, such as transfers between accounts, can be flagged or left out of the file.
+ */
+public class ExternalSortExporter implements StatementExporter, Closeable {
+  /**
+   * The default number of transactions held in memory before a run is spilled.
+   */
+  public static final int DEFAULT_RUN_SIZE = 100000;
+
+  // The most runs merged at once, bounding the buffers open during a merge.
+  private static final int MAX_FAN_IN = 64;
+
+  private static final int BUFFER_SIZE = 64 * 1024;
+
+  // Invariant: filepath is not null.
+  private final String filepath;
+
+  // Invariant: runSize is positive.
+  private final int runSize;
+
+  // Invariant: tempDirectory is not null.
+  private final File tempDirectory;
+
+  // Invariant: run holds fewer than runSize transactions, and runs holds the spilled runs in the
+  // order they were created.
+  private final List<Record> run;
+  private final List<File> runs;
+  private File spillDirectory;
+  private long transactionCount;
+  private long excludedCount;
+  private boolean finished;
+
+  /**
+   * Initializes a new {@code ExternalSortExporter} to export to the provided filepath, spilling
+   * runs of the default size to the system temporary directory.
+   * @param filepath the path to the file which will be written
+   * @throws IllegalArgumentException if the provided {@code filepath} is {@code null}.
+   */
+  public ExternalSortExporter(String filepath) throws IllegalArgumentException {
+    this(filepath, DEFAULT_RUN_SIZE, new File(System.getProperty("java.io.tmpdir")));
+  }
+
+  /**
+   * Initializes a new {@code ExternalSortExporter} to export to the provided filepath.
+   * @param filepath the path to the file which will be written
+   * @param runSize the number of transactions held in memory before a run is spilled
+   * @param tempDirectory the directory in which runs are spilled
+   * @throws IllegalArgumentException if {@code filepath} or {@code tempDirectory} is
+   * {@code null} OR if {@code runSize} is not positive.
+   */
+  public ExternalSortExporter(String filepath, int runSize, File tempDirectory) throws IllegalArgumentException {
+    if (filepath == null) {
+      throw new IllegalArgumentException("Filepath cannot be null.");
+    }
+
+    if (runSize <= 0) {
+      throw new IllegalArgumentException("Run size must be positive.");
+    }
+
+    if (tempDirectory == null) {
+      throw new IllegalArgumentException("Temporary directory cannot be null.");
+    }
+
+    this.filepath = filepath;
+    this.runSize = runSize;
+    this.tempDirectory = tempDirectory;
+    this.run = new ArrayList<>();
+    this.runs = new ArrayList<>();
+  }
+
+  /**
+   * Adds the transactions and writes every transaction added so far to the file.
+   * @param transactions the transactions to be exported
+   * @throws IllegalStateException if the file was already written OR if there is an error
+   * spilling or writing.
+   */
+  @Override
+  public void write(List<AbstractTransaction> transactions) throws IllegalStateException {
+    this.add(transactions);
+    this.finish();
+  }
+
+  @Override
+  public String confirmationMessage() {
+    String excluded = (this.excludedCount == 0) ? "" : " leaving out " + this.excludedCount + " transfer(s)";
+    return "Successfully exported " + (this.transactionCount - this.excludedCount) + " transaction(s) as "
+      + this.filepath + excluded;
+  }
+
+  /**
+   * Gets an exporter which adds each statement it receives to this one without writing the file,
+   * so that several statements may be consolidated before {@link #finish()} is called.
+   * @return the exporter
+   */
+  public StatementExporter accumulator() {
+    return new StatementExporter() {
+      @Override
+      public void write(List<AbstractTransaction> transactions) throws IllegalStateException {
+        ExternalSortExporter.this.add(transactions);
+      }
+
+      @Override
+      public String confirmationMessage() {
+        return "Successfully added to " + ExternalSortExporter.this.filepath;
+      }
+    };
+  }
+
+  /**
+   * Adds transactions to be written, spilling a run whenever one is full.
+   * @param transactions the transactions to be added
+   * @throws IllegalArgumentException if {@code transactions} is {@code null} or contains
+   * {@code null}.
+   * @throws IllegalStateException if the file was already written OR if a run cannot be spilled.
+   */
+  public void add(List<AbstractTransaction> transactions) throws IllegalArgumentException, IllegalStateException {
+    if (transactions == null) {
+      throw new IllegalArgumentException("Transactions cannot be null.");
+    }
+
+    if (this.finished) {
+      throw new IllegalStateException("Already exported.");
+    }
+
+    for (AbstractTransaction transaction : transactions) {
+      if (transaction == null) {
+        throw new IllegalArgumentException("Transaction cannot be null.");
+      }
+
+      this.run.add(new Record(transaction, this.transactionCount));
+      this.transactionCount++;
+      if (this.run.size() >= this.runSize) {
+        this.spill();
+      }
+    }
+  }
+
+  /**
+   * Merges every transaction added so far into the file and removes the spilled runs.
+   * @throws IllegalStateException if the file was already written OR if there is an error
+   * spilling or writing.
+   */
+  public void finish() throws IllegalStateException {
+    this.finish(null, false);
+  }
+
+  /**
+   * Merges every transaction added so far into the file and removes the spilled runs, either
+   * flagging the transfers in a {@code transfer} column or leaving them out of the file.
+   * @param isTransfer whether the transaction with a number is a transfer, or {@code null} if
+   *                   no transaction is
+   * @param exclude whether to leave transfers out of the file rather than flag them
+   * @throws IllegalStateException if the file was already written OR if there is an error
+   * spilling or writing.
+   */
+  public void finish(LongPredicate isTransfer, boolean exclude) throws IllegalStateException {
+    if (this.finished) {
+      throw new IllegalStateException("Already exported.");
+    }
+    this.finished = true;
+
+    try {
+      if (!this.run.isEmpty()) {
+        this.spill();
+      }
+
+      // Merge groups of runs until few enough remain to be merged into the file at once
+      List<File> remaining = new ArrayList<>(this.runs);
+      while (remaining.size() > MAX_FAN_IN) {
+        List<File> merged = new ArrayList<>();
+        for (int start = 0; start < remaining.size(); start += MAX_FAN_IN) {
+          List<File> group = remaining.subList(start, Math.min(start + MAX_FAN_IN, remaining.size()));
+          File output = this.newRunFile();
+          try (RunWriter writer = new RunWriter(output)) {
+            merge(group, writer::append);
+          }
+          for (File input : group) {
+            Files.delete(input.toPath());
+          }
+          merged.add(output);
+        }
+        remaining = merged;
+      }
+
+      try (Writer writer = new BufferedWriter(new FileWriter(AtomicFile.temporaryFor(this.filepath)), BUFFER_SIZE)) {
+        boolean flag = isTransfer != null && !exclude;
+        writer.append(flag ? "type,date,description,amount,transfer\n" : "type,date,description,amount\n");
+        merge(remaining, record -> {
+          boolean transfer = isTransfer != null && isTransfer.test(record.sequence);
+          if (transfer && exclude) {
+            this.excludedCount++;
+          } else {
+            writer.append(record.toCsvRow());
+            if (flag) {
+              writer.append(transfer ? ",true" : ",false");
+            }
+            writer.append('\n');
+          }
+        });
+      }
+      AtomicFile.commit(this.filepath);
+    } catch (IOException e) {
+      AtomicFile.discard(this.filepath);
+      throw new IllegalStateException("Writing to file failed.");
+    } finally {
+      this.close();
+    }
+  }
+
+  /**
+   * Removes any spilled runs, discarding the transactions which were not yet written.
+   */
+  @Override
+  public void close() {
+    this.run.clear();
+    this.runs.clear();
+
+    if (this.spillDirectory != null) {
+      File[] files = this.spillDirectory.listFiles();
+      if (files != null) {
+        for (File file : files) {
+          file.delete();
+        }
+      }
+      this.spillDirectory.delete();
+      this.spillDirectory = null;
+    }
+  }
+
+  // Sorts the current run and writes it to a new run file.
+  private void spill() throws IllegalStateException {
+    // Later dates first, as in TransactionDateComparator; the sort is stable
+    this.run.sort((a, b) -> Integer.compare(b.epochDay, a.epochDay));
+
+    try {
+      File output = this.newRunFile();
+      try (RunWriter writer = new RunWriter(output)) {
+        for (Record record : this.run) {
+          writer.append(record);
+        }
+      }
+      this.runs.add(output);
+    } catch (IOException e) {
+      throw new IllegalStateException("Spilling transactions to disk failed.");
+    }
+
+    this.run.clear();
+  }
+
+  // Creates the file of the next run, in a directory of this exporter's own.
+  private File newRunFile() throws IOException {
+    if (this.spillDirectory == null) {
+      this.spillDirectory = Files.createTempDirectory(this.tempDirectory.toPath(), "statement-sort").toFile();
+    }
+    return File.createTempFile("run", ".bin", this.spillDirectory);
+  }
+
+  // Merges sorted runs, passing each record to the sink in order. Records on the same date are
+  // taken from earlier runs first, which keeps the order in which they were added.
+  private static void merge(List<File> runs, RecordSink sink) throws IOException {
+    List<RunReader> readers = new ArrayList<>();
+    PriorityQueue<RunReader> heads = new PriorityQueue<>(Math.max(1, runs.size()), (a, b) -> {
+      // Later dates first, as in TransactionDateComparator
+      int byDate = Integer.compare(b.head.epochDay, a.head.epochDay);
+      return (byDate != 0) ? byDate : Integer.compare(a.index, b.index);
+    });
+
+    try {
+      for (int i = 0; i < runs.size(); i++) {
+        RunReader reader = new RunReader(runs.get(i), i);
+        readers.add(reader);
+        if (reader.advance()) {
+          heads.add(reader);
+        }
+      }
+
+      while (!heads.isEmpty()) {
+        RunReader reader = heads.poll();
+        sink.accept(reader.head);
+        if (reader.advance()) {
+          heads.add(reader);
+        }
+      }
+    } finally {
+      for (RunReader reader : readers) {
+        reader.close();
+      }
+    }
+  }
+
+  // Receives records in sorted order.
+  private interface RecordSink {
+    void accept(Record record) throws IOException;
+  }
+
+  // The number of a transaction and the fields needed to write its row, as encoded in a run file.
+  private static class Record {
+    private final long sequence;
+    private final int epochDay;
+    private final TransactionType type;
+    private final long cents;
+    private final String description;
+
+    private Record(AbstractTransaction transaction, long sequence) {
+      this(sequence, transaction.getDate().toEpochDay(), transaction.getType(), transaction.getAmount().getTotalCents(),
+        transaction.getDescription());
+    }
+
+    private Record(long sequence, int epochDay, TransactionType type, long cents, String description) {
+      this.sequence = sequence;
+      this.epochDay = epochDay;
+      this.type = type;
+      this.cents = cents;
+      this.description = description;
+    }
+
+    // Formats the record exactly as AbstractTransaction.toString formats the transaction.
+    private String toCsvRow() {
+      return this.type + "," + Date.fromEpochDay(this.epochDay) + "," + this.description + ","
+        + MoneyAmount.formatCents(this.cents);
+    }
+  }
+
+  // Writes records to a run file: the epoch day, number, type, and cents of each, then its
+  // description.
+  private static class RunWriter implements Closeable {
+    private final DataOutputStream out;
+
+    private RunWriter(File file) throws IOException {
+      this.out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), BUFFER_SIZE));
+    }
+
+    private void append(Record record) throws IOException {
+      this.out.writeInt(record.epochDay);
+      this.out.writeLong(record.sequence);
+      this.out.writeByte(record.type.ordinal());
+      this.out.writeLong(record.cents);
+      this.out.writeUTF(record.description);
+    }
+
+    @Override
+    public void close() throws IOException {
+      this.out.close();
+    }
+  }
+
+  // Reads the records of a run file one at a time.
+  private static class RunReader implements Closeable {
+    private static final TransactionType[] TYPES = TransactionType.values();
+
+    private final DataInputStream in;
+    private final int index;
+    private Record head;
+
+    private RunReader(File file, int index) throws IOException {
+      this.in = new DataInputStream(new BufferedInputStream(new FileInputStream(file), BUFFER_SIZE));
+      this.index = index;
+    }
+
+    // Reads the next record into head, returning false at the end of the run.
+    private boolean advance() throws IOException {
+      int epochDay;
+      try {
+        epochDay = this.in.readInt();
+      } catch (EOFException e) {
+        this.head = null;
+        return false;
+      }
+
+      long sequence = this.in.readLong();
+      this.head = new Record(sequence, epochDay, TYPES[this.in.readByte()], this.in.readLong(), this.in.readUTF());
+      return true;
+    }
+
+    @Override
+    public void close() throws IOException {
+      this.in.close();
+    }
+  }
+}
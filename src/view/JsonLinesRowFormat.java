@@ -0,0 +1,57 @@
+package view;
+
+import model.transactions.AbstractTransaction;
+
+/**
+ * Encodes transactions as JSON Lines: one JSON object per line, holding the type, date,
+ * description, amount, merchant, and category of the transaction.
+ */
+public class JsonLinesRowFormat implements RowFormat {
+  @Override
+  public String header() {
+    return "";
+  }
+
+  @Override
+  public void encode(AbstractTransaction transaction, StringBuilder destination) {
+    long cents = transaction.getAmount().getTotalCents();
+
+    destination.append("{\"type\":");
+    appendString(transaction.getType().toString(), destination);
+    destination.append(",\"date\":");
+    appendString(transaction.getDate().toString(), destination);
+    destination.append(",\"description\":");
+    appendString(transaction.getDescription(), destination);
+    destination.append(",\"amount\":").append(cents / 100).append('.');
+    if (cents % 100 < 10) {
+      destination.append('0');
+    }
+    destination.append(cents % 100);
+    destination.append(",\"merchant\":");
+    appendString(transaction.getMerchant().getName(), destination);
+    destination.append(",\"category\":");
+    appendString(transaction.getCategory().getLabel(), destination);
+    destination.append("}\n");
+  }
+
+  @Override
+  public String extension() {
+    return ".jsonl";
+  }
+
+  // Appends a JSON string literal, escaping quotes, backslashes, and control characters.
+  private static void appendString(String value, StringBuilder destination) {
+    destination.append('"');
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      if (c == '"' || c == '\\') {
+        destination.append('\\').append(c);
+      } else if (c < 0x20) {
+        destination.append(String.format("\\u%04x", (int) c));
+      } else {
+        destination.append(c);
+      }
+    }
+    destination.append('"');
+  }
+}
@@ -0,0 +1,401 @@
+package view;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import model.transactions.AbstractTransaction;
+
+/**
+ * Merges the transactions of a statement into a running ledger file, which holds the
+ * transactions of many statements in chronological order. A sidecar index records the byte
+ * offset of the first row of each month, so only the rows from the earliest month of the new
+ * statement onward are read, merged, and rewritten in place; the rows before them are never
+ * touched, so a merge costs time proportional to the new statement and the months after its
+ * first, not to the ledger.
+ *
+ * <p>The merged tail is first written to a journal beside the ledger, along with the new index,
+ * and made durable. Only then is the ledger cut back to where the tail began and the tail
+ * appended. A merge interrupted after the journal is complete is finished by the next one, and
+ * one interrupted before leaves the ledger as it was.
+ *
+ * <p>The index also records an id for each statement merged, a hash of its rows, so merging the
+ * same statement again leaves the ledger unchanged.
+ *
+ * <p>The ledger is locked while a statement is merged, with a file lock against other processes
+ * and a monitor per ledger against other threads of this one, so several processes and threads
+ * may merge statements into the same ledger.
+ */
+public class LedgerFileWriter implements StatementExporter {
+  // A file lock is held by the whole process, so threads of this process merging into the same
+  // ledger are kept apart by a monitor for it.
+  private static final Map<Path, Object> MONITORS = new ConcurrentHashMap<>();
+
+  private static final String HEADER = "type,date,description,amount\n";
+
+  // The journal ends with the offset at which its tail replaces the ledger's and the tail's length.
+  private static final int TRAILER_BYTES = 2 * Long.BYTES;
+
+  // The size of the chunks in which the ledger is scanned when its index is rebuilt.
+  private static final int BUFFER_SIZE = 64 * 1024;
+
+  // Invariant: filepath is not null.
+  private final String filepath;
+
+  // Invariant: indexFilepath and journalFilepath are not null.
+  private final String indexFilepath;
+  private final String journalFilepath;
+
+  private int rowsWritten;
+  private boolean alreadyMerged;
+
+  /**
+   * Initializes a new {@code LedgerFileWriter} which merges statements into the ledger at the
+   * provided filepath, creating it if it does not exist. The index, the journal, and the lock file
+   * are kept next to the ledger, with {@code .idx}, {@code .journal}, and {@code .lock} appended to
+   * its name.
+   * @param filepath the path to the ledger file
+   * @throws IllegalArgumentException if the provided {@code filepath} is {@code null}.
+   */
+  public LedgerFileWriter(String filepath) throws IllegalArgumentException {
+    if (filepath == null) {
+      throw new IllegalArgumentException("Filepath cannot be null.");
+    }
+
+    this.filepath = filepath;
+    this.indexFilepath = filepath + ".idx";
+    this.journalFilepath = filepath + ".journal";
+  }
+
+  @Override
+  public void write(List<AbstractTransaction> transactions) throws IllegalStateException {
+    List<AbstractTransaction> newRows = new ArrayList<>(transactions);
+    newRows.sort(Comparator.comparingInt(transaction -> transaction.getDate().toEpochDay()));
+    this.rowsWritten = newRows.size();
+    this.alreadyMerged = false;
+
+    if (newRows.isEmpty()) {
+      return;
+    }
+
+    Path ledgerPath = Paths.get(this.filepath).toAbsolutePath().normalize();
+    synchronized (MONITORS.computeIfAbsent(ledgerPath, path -> new Object())) {
+      try (FileChannel lockFile = FileChannel.open(Paths.get(this.filepath + ".lock"),
+             StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+        FileLock lock = lockFile.lock();
+        try {
+          this.merge(ledgerPath, newRows);
+        } finally {
+          lock.release();
+        }
+      } catch (IOException e) {
+        throw new IllegalStateException("Failed to lock ledger " + this.filepath + ".");
+      }
+    }
+  }
+
+  // Merges the sorted, non-empty rows into the ledger, which is locked.
+  private void merge(Path ledgerPath, List<AbstractTransaction> newRows) throws IllegalStateException {
+    String statementId = statementIdOf(newRows);
+    try {
+      if (!Files.exists(ledgerPath)) {
+        // An index or journal left from an earlier ledger at this path describes other rows
+        Files.deleteIfExists(Paths.get(this.journalFilepath));
+        Files.deleteIfExists(Paths.get(this.indexFilepath));
+        Files.write(ledgerPath, HEADER.getBytes(StandardCharsets.UTF_8));
+      }
+
+      this.finishJournal();
+
+      try (FileChannel ledger = FileChannel.open(ledgerPath, StandardOpenOption.READ)) {
+        LedgerIndex index = this.readIndex(ledger);
+        if (index.statements.contains(statementId)) {
+          this.rowsWritten = 0;
+          this.alreadyMerged = true;
+          return;
+        }
+
+        // Everything from the earliest month of the new statement onward is merged
+        String firstMonth = monthOf(newRows.get(0).getDate().toString());
+        int keep = 0;
+        while (keep < index.months.size() && index.months.get(keep).month.compareTo(firstMonth) < 0) {
+          keep++;
+        }
+        long tailOffset = (keep < index.months.size()) ? index.months.get(keep).offset : ledger.size();
+        index.months.subList(keep, index.months.size()).clear();
+        index.statements.add(statementId);
+
+        this.writeJournal(ledger, tailOffset, newRows, index);
+      }
+
+      this.finishJournal();
+    } catch (IOException e) {
+      AtomicFile.discard(this.journalFilepath);
+      throw new IllegalStateException("Writing to ledger failed.");
+    }
+  }
+
+  @Override
+  public String confirmationMessage() {
+    if (this.alreadyMerged) {
+      return "Statement was already merged into " + this.filepath;
+    }
+
+    return "Successfully merged " + this.rowsWritten + " transaction(s) into " + this.filepath;
+  }
+
+  // Writes the journal of a merge: the rows from the tail offset onward merged with the new rows,
+  // then the index of the merged ledger, then the trailer. The index is completed with the
+  // offsets of the merged months.
+  private void writeJournal(FileChannel ledger, long tailOffset, List<AbstractTransaction> newRows,
+                            LedgerIndex index) throws IOException {
+    try (DataOutputStream journal = new DataOutputStream(new BufferedOutputStream(
+           new FileOutputStream(AtomicFile.temporaryFor(this.journalFilepath))))) {
+      BufferedReader tail = new BufferedReader(new InputStreamReader(
+        Channels.newInputStream(ledger.position(tailOffset)), StandardCharsets.UTF_8));
+      long length = mergeRows(tail, newRows, tailOffset, index.months, journal);
+
+      journal.write(index.format(length).getBytes(StandardCharsets.UTF_8));
+      journal.writeLong(tailOffset);
+      journal.writeLong(length - tailOffset);
+    }
+    AtomicFile.commit(this.journalFilepath);
+  }
+
+  // Applies the journal of an earlier merge, if there is one: replaces the index with the one in
+  // the journal, then cuts the ledger back to the tail offset and appends the merged tail.
+  // Applying a journal twice has the same result as applying it once.
+  private void finishJournal() throws IOException {
+    Path journalPath = Paths.get(this.journalFilepath);
+    if (!Files.exists(journalPath)) {
+      return;
+    }
+
+    try (FileChannel journal = FileChannel.open(journalPath, StandardOpenOption.READ);
+         FileChannel ledger = FileChannel.open(Paths.get(this.filepath), StandardOpenOption.WRITE)) {
+      long journalLength = journal.size();
+      ByteBuffer trailer = readFully(journal, journalLength - TRAILER_BYTES, TRAILER_BYTES);
+      long tailOffset = trailer.getLong();
+      long tailLength = trailer.getLong();
+      ByteBuffer index = readFully(journal, tailLength, (int) (journalLength - TRAILER_BYTES - tailLength));
+
+      try {
+        Files.write(Paths.get(AtomicFile.temporaryFor(this.indexFilepath)), index.array());
+        AtomicFile.commit(this.indexFilepath);
+      } catch (IOException e) {
+        AtomicFile.discard(this.indexFilepath);
+        throw e;
+      }
+
+      ledger.truncate(tailOffset);
+      ledger.position(tailOffset);
+      long copied = 0;
+      while (copied < tailLength) {
+        copied += journal.transferTo(copied, tailLength - copied, ledger);
+      }
+      ledger.force(true);
+    }
+
+    Files.delete(journalPath);
+  }
+
+  // Reads the provided number of bytes of a file from the provided position.
+  private static ByteBuffer readFully(FileChannel channel, long position, int length) throws IOException {
+    ByteBuffer buffer = ByteBuffer.allocate(length);
+    while (buffer.hasRemaining()) {
+      if (channel.read(buffer, position + buffer.position()) < 0) {
+        throw new IOException("Journal is truncated.");
+      }
+    }
+    buffer.flip();
+    return buffer;
+  }
+
+  // Merges the existing tail rows with the new rows by date, existing rows first among equal
+  // dates, recording the offset of each new month in the index. Returns the offset after the
+  // last row.
+  private static long mergeRows(BufferedReader tail, List<AbstractTransaction> newRows, long offset,
+                                List<MonthOffset> index, OutputStream merged) throws IOException {
+    String lastMonth = index.isEmpty() ? "" : index.get(index.size() - 1).month;
+
+    String tailRow = nextRow(tail);
+    int newPosition = 0;
+    while (tailRow != null || newPosition < newRows.size()) {
+      String row;
+      if (newPosition >= newRows.size()
+        || (tailRow != null && dateOf(tailRow).compareTo(newRows.get(newPosition).getDate().toString()) <= 0)) {
+        row = tailRow;
+        tailRow = nextRow(tail);
+      } else {
+        row = newRows.get(newPosition++).toString();
+      }
+
+      String month = monthOf(dateOf(row));
+      if (!month.equals(lastMonth)) {
+        index.add(new MonthOffset(month, offset));
+        lastMonth = month;
+      }
+
+      byte[] bytes = (row + "\n").getBytes(StandardCharsets.UTF_8);
+      merged.write(bytes);
+      offset += bytes.length;
+    }
+
+    return offset;
+  }
+
+  // Reads the next non-empty row of the tail, or null at its end.
+  private static String nextRow(BufferedReader tail) throws IOException {
+    String row;
+    do {
+      row = tail.readLine();
+    } while (row != null && row.isEmpty());
+    return row;
+  }
+
+  // Gets the id of a statement: the SHA-256 hash of its rows in date order.
+  private static String statementIdOf(List<AbstractTransaction> rows) throws IllegalStateException {
+    try {
+      MessageDigest digest = MessageDigest.getInstance("SHA-256");
+      for (AbstractTransaction row : rows) {
+        digest.update((row + "\n").getBytes(StandardCharsets.UTF_8));
+      }
+
+      StringBuilder hex = new StringBuilder(64);
+      for (byte b : digest.digest()) {
+        hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+      }
+      return hex.toString();
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 is not available.");
+    }
+  }
+
+  // Reads the index of the ledger, rebuilding the month offsets if the index is missing or does
+  // not match the ledger. The ids of the merged statements are kept either way.
+  private LedgerIndex readIndex(FileChannel ledger) throws IOException {
+    LedgerIndex index = new LedgerIndex();
+    Path indexPath = Paths.get(this.indexFilepath);
+    boolean matches = false;
+    if (Files.exists(indexPath)) {
+      List<String> lines = Files.readAllLines(indexPath, StandardCharsets.UTF_8);
+      matches = !lines.isEmpty() && lines.get(0).equals("length," + ledger.size());
+      for (String line : lines.subList(Math.min(1, lines.size()), lines.size())) {
+        String[] parts = line.split(",");
+        if (parts[0].equals("statement")) {
+          index.statements.add(parts[1]);
+        } else if (matches) {
+          index.months.add(new MonthOffset(parts[0], Long.parseLong(parts[1])));
+        }
+      }
+    }
+
+    if (!matches) {
+      rebuildMonths(ledger, index.months);
+    }
+    return index;
+  }
+
+  // Scans the whole ledger for the offset of the first row of each month.
+  private static void rebuildMonths(FileChannel ledger, List<MonthOffset> months) throws IOException {
+    InputStream in = Channels.newInputStream(ledger.position(0));
+    byte[] buffer = new byte[BUFFER_SIZE];
+    ByteArrayOutputStream line = new ByteArrayOutputStream();
+    String lastMonth = "";
+    long bufferOffset = 0;
+    long lineStart = 0;
+    boolean header = true;
+
+    int read;
+    while ((read = in.read(buffer)) >= 0) {
+      int start = 0;
+      for (int i = 0; i < read; i++) {
+        if (buffer[i] != '\n') {
+          continue;
+        }
+
+        line.write(buffer, start, i - start);
+        String row = line.toString(StandardCharsets.UTF_8).trim();
+        if (!header && !row.isEmpty()) {
+          String month = monthOf(dateOf(row));
+          if (!month.equals(lastMonth)) {
+            months.add(new MonthOffset(month, lineStart));
+            lastMonth = month;
+          }
+        }
+
+        header = false;
+        line.reset();
+        start = i + 1;
+        lineStart = bufferOffset + start;
+      }
+      line.write(buffer, start, read - start);
+      bufferOffset += read;
+    }
+  }
+
+  // Gets the date column, in YYYY-MM-DD format, of a ledger row.
+  private static String dateOf(String row) {
+    int start = row.indexOf(',') + 1;
+    return row.substring(start, row.indexOf(',', start));
+  }
+
+  // Gets the YYYY-MM month of a YYYY-MM-DD date.
+  private static String monthOf(String date) {
+    return date.substring(0, 7);
+  }
+
+  // The contents of the sidecar index: the offset of each month and the ids of the statements
+  // merged so far.
+  private static class LedgerIndex {
+    private final List<MonthOffset> months = new ArrayList<>();
+    private final Set<String> statements = new LinkedHashSet<>();
+
+    // Formats the index of a ledger of the provided length.
+    private String format(long ledgerLength) {
+      StringBuilder contents = new StringBuilder("length," + ledgerLength + "\n");
+      for (MonthOffset entry : this.months) {
+        contents.append(entry.month).append(',').append(entry.offset).append('\n');
+      }
+      for (String statement : this.statements) {
+        contents.append("statement,").append(statement).append('\n');
+      }
+      return contents.toString();
+    }
+  }
+
+  // An entry of the ledger index.
+  private static class MonthOffset {
+    private final String month;
+    private final long offset;
+
+    private MonthOffset(String month, long offset) {
+      this.month = month;
+      this.offset = offset;
+    }
+  }
+}
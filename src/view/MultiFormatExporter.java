@@ -0,0 +1,197 @@
+package view;
+
+import java.io.BufferedWriter;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import model.summary.TransactionAggregator;
+import model.transactions.AbstractTransaction;
+
+/**
+ * Exports a statement to several formats at once. The transactions are traversed a single time,
+ * encoding each one once per format and feeding an optional summary, while each output file is
+ * written concurrently by its own writer thread.
+ */
+public class MultiFormatExporter implements StatementExporter {
+  // Encoded text is handed to the writer threads in chunks of about this many characters.
+  private static final int CHUNK_SIZE = 64 * 1024;
+
+  // Chunks queued per output before the traversal waits for its writer to catch up.
+  private static final int MAX_PENDING_CHUNKS = 4;
+
+  // Invariant: basePath is not null.
+  private final String basePath;
+
+  // Invariant: formats is not null and contains no null elements.
+  private final List<RowFormat> formats;
+
+  private final boolean includeSummary;
+
+  /**
+   * Initializes a new {@code MultiFormatExporter}. Each format is written to {@code basePath}
+   * followed by the extension of the format, and the summary to {@code basePath} followed by
+   * {@code .summary.csv}.
+   * @param basePath the path of the output files, without an extension
+   * @param formats the formats to write
+   * @param includeSummary whether to also write monthly, per-merchant, and overall totals
+   * @throws IllegalArgumentException if {@code basePath} or {@code formats} is {@code null} OR
+   * if {@code formats} contains {@code null} OR if there is nothing to write.
+   */
+  public MultiFormatExporter(String basePath, List<RowFormat> formats, boolean includeSummary) throws IllegalArgumentException {
+    if (basePath == null) {
+      throw new IllegalArgumentException("Base path cannot be null.");
+    }
+
+    if (formats == null) {
+      throw new IllegalArgumentException("Formats cannot be null.");
+    }
+
+    for (RowFormat format : formats) {
+      if (format == null) {
+        throw new IllegalArgumentException("Formats cannot contain null.");
+      }
+    }
+
+    if (formats.isEmpty() && !includeSummary) {
+      throw new IllegalArgumentException("At least one output is required.");
+    }
+
+    this.basePath = basePath;
+    this.formats = List.copyOf(formats);
+    this.includeSummary = includeSummary;
+  }
+
+  @Override
+  public void write(List<AbstractTransaction> transactions) throws IllegalStateException {
+    List<Output> outputs = new ArrayList<>();
+    try {
+      for (RowFormat format : this.formats) {
+        outputs.add(new Output(this.basePath + format.extension(), format));
+      }
+
+      TransactionAggregator aggregator = this.includeSummary ? new TransactionAggregator() : null;
+
+      for (AbstractTransaction transaction : transactions) {
+        for (Output output : outputs) {
+          output.accept(transaction);
+        }
+        if (aggregator != null) {
+          aggregator.accept(transaction);
+        }
+      }
+
+      if (aggregator != null) {
+        new StatementSummaryWriter(this.basePath + ".summary.csv").writeSummary(aggregator);
+      }
+
+      for (Output output : outputs) {
+        output.finish();
+      }
+    } catch (IOException | ExecutionException e) {
+      throw new IllegalStateException("Writing to file failed.");
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while writing files.");
+    } finally {
+      for (Output output : outputs) {
+        output.close();
+      }
+    }
+  }
+
+  @Override
+  public String confirmationMessage() {
+    StringBuilder message = new StringBuilder("Successfully exported as");
+    for (RowFormat format : this.formats) {
+      message.append(' ').append(this.basePath).append(format.extension());
+    }
+    if (this.includeSummary) {
+      message.append(' ').append(this.basePath).append(".summary.csv");
+    }
+    return message.toString();
+  }
+
+  // One output file, with the buffer being encoded and the thread writing previous chunks.
+  private static class Output {
+    private final String filepath;
+    private final RowFormat format;
+    private final Writer writer;
+    private final ExecutorService writerThread;
+    private final Deque<Future<?>> pending;
+    private StringBuilder buffer;
+    private boolean committed;
+
+    private Output(String filepath, RowFormat format) throws IOException {
+      this.filepath = filepath;
+      this.format = format;
+      this.writer = new BufferedWriter(new FileWriter(AtomicFile.temporaryFor(filepath)));
+      this.writerThread = Executors.newSingleThreadExecutor();
+      this.pending = new ArrayDeque<>();
+      this.buffer = new StringBuilder(CHUNK_SIZE + 256).append(format.header());
+    }
+
+    // Encodes a transaction, handing the buffer to the writer thread once it is full.
+    private void accept(AbstractTransaction transaction) throws ExecutionException, InterruptedException {
+      this.format.encode(transaction, this.buffer);
+      if (this.buffer.length() >= CHUNK_SIZE) {
+        this.flushBuffer();
+      }
+    }
+
+    // Writes the remaining buffer, waits for every chunk to be written, and moves the file into place.
+    private void finish() throws IOException, ExecutionException, InterruptedException {
+      this.flushBuffer();
+      this.pending.add(this.writerThread.submit(() -> {
+        this.writer.close();
+        return null;
+      }));
+      while (!this.pending.isEmpty()) {
+        this.pending.remove().get();
+      }
+      AtomicFile.commit(this.filepath);
+      this.committed = true;
+    }
+
+    // Hands the buffer to the writer thread.
+    private void flushBuffer() throws ExecutionException, InterruptedException {
+      String chunk = this.buffer.toString();
+      this.buffer = new StringBuilder(CHUNK_SIZE + 256);
+      this.pending.add(this.writerThread.submit(() -> {
+        this.writer.write(chunk);
+        return null;
+      }));
+
+      if (this.pending.size() > MAX_PENDING_CHUNKS) {
+        this.pending.remove().get();
+      }
+    }
+
+    // Stops the writer thread, closing the file if it is still open and discarding it if it was
+    // never finished.
+    private void close() {
+      this.writerThread.shutdown();
+      try {
+        this.writerThread.awaitTermination(1, TimeUnit.MINUTES);
+        this.writer.close();
+      } catch (IOException e) {
+        // Already failing or finished; nothing more to report
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+
+      if (!this.committed) {
+        AtomicFile.discard(this.filepath);
+      }
+    }
+  }
+}
@@ -0,0 +1,96 @@
+package view;
+
+/**
+ * Represents one step in the progress of processing statements, as rendered by a
+ * {@code StatementView}. Each event is tagged with the file it concerns, so that views rendering
+ * many files at once can keep the events of each file together.
+ */
+public class ProgressEvent {
+  /**
+   * The kinds of progress event.
+   */
+  public enum Kind {
+    // A fragment of the running commentary on a file
+    PROGRESS,
+    // The result of a file which was processed successfully
+    SUCCEEDED,
+    // The result of a file which could not be processed
+    FAILED,
+    // A message about the run as a whole, such as a summary or a warning
+    NOTICE
+  }
+
+  // Invariant: kind and message are not null, and source is null only for notices.
+  private final Kind kind;
+  private final String source;
+  private final String message;
+
+  private ProgressEvent(Kind kind, String source, String message) throws IllegalArgumentException {
+    if (kind != Kind.NOTICE && source == null) {
+      throw new IllegalArgumentException("Source cannot be null.");
+    }
+
+    if (message == null) {
+      throw new IllegalArgumentException("Message cannot be null.");
+    }
+
+    this.kind = kind;
+    this.source = source;
+    this.message = message;
+  }
+
+  /**
+   * Creates an event carrying a fragment of the commentary on a file.
+   * @param source the filepath of the file
+   * @param message the fragment, exactly as it should be displayed
+   * @return the event
+   * @throws IllegalArgumentException if either argument is {@code null}.
+   */
+  public static ProgressEvent progress(String source, String message) throws IllegalArgumentException {
+    return new ProgressEvent(Kind.PROGRESS, source, message);
+  }
+
+  /**
+   * Creates an event reporting that a file was processed successfully.
+   * @param source the filepath of the file
+   * @param message the result, exactly as it should be displayed
+   * @return the event
+   * @throws IllegalArgumentException if either argument is {@code null}.
+   */
+  public static ProgressEvent succeeded(String source, String message) throws IllegalArgumentException {
+    return new ProgressEvent(Kind.SUCCEEDED, source, message);
+  }
+
+  /**
+   * Creates an event reporting that a file could not be processed.
+   * @param source the filepath of the file
+   * @param message the error, exactly as it should be displayed
+   * @return the event
+   * @throws IllegalArgumentException if either argument is {@code null}.
+   */
+  public static ProgressEvent failed(String source, String message) throws IllegalArgumentException {
+    return new ProgressEvent(Kind.FAILED, source, message);
+  }
+
+  /**
+   * Creates an event carrying a message about the run as a whole.
+   * @param message the message, exactly as it should be displayed
+   * @return the event
+   * @throws IllegalArgumentException if the message is {@code null}.
+   */
+  public static ProgressEvent notice(String message) throws IllegalArgumentException {
+    return new ProgressEvent(Kind.NOTICE, null, message);
+  }
+
+  public Kind getKind() {
+    return this.kind;
+  }
+
+  public String getSource() {
+    return this.source;
+  }
+
+  public String getMessage() {
+    return this.message;
+  }
+}
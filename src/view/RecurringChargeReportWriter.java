@@ -0,0 +1,55 @@
+package view;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+
+import model.recurring.RecurringChargeDetector;
+
+/**
+ * Writes the recurring charges found by a {@code RecurringChargeDetector} to a CSV file.
+ */
+public class RecurringChargeReportWriter {
+  // Invariant: filepath is not null.
+  private final String filepath;
+
+  /**
+   * Initializes a new {@code RecurringChargeReportWriter} to write a report to the provided
+   * filepath.
+   * @param filepath the path to the file which will be written
+   * @throws IllegalArgumentException if the provided {@code filepath} is {@code null}.
+   */
+  public RecurringChargeReportWriter(String filepath) throws IllegalArgumentException {
+    if (filepath == null) {
+      throw new IllegalArgumentException("Filepath cannot be null.");
+    }
+
+    this.filepath = filepath;
+  }
+
+  /**
+   * Writes the recurring charges of a detector which has already received every payment.
+   * @param detector the detector
+   * @throws IllegalStateException if there is an error writing the report.
+   */
+  public void writeReport(RecurringChargeDetector detector) throws IllegalStateException {
+    try {
+      try (BufferedWriter writer = new BufferedWriter(new FileWriter(new File(AtomicFile.temporaryFor(this.filepath))))) {
+        detector.writeCsv(writer);
+      }
+      AtomicFile.commit(this.filepath);
+    } catch (IOException e) {
+      AtomicFile.discard(this.filepath);
+      throw new IllegalStateException("Writing report to file failed.");
+    }
+  }
+
+  /**
+   * Gets a message confirming the report was written.
+   * @return the confirmation message
+   */
+  public String confirmationMessage() {
+    return "Successfully exported recurring charges as " + this.filepath;
+  }
+}
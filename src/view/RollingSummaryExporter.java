@@ -0,0 +1,135 @@
+package view;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import model.summary.RollingSummaryStore;
+import model.transactions.AbstractTransaction;
+import model.transactions.Deposit;
+import model.transactions.Payment;
+import model.transactions.TransactionType;
+
+/**
+ * Exports a statement with another exporter, then records it in a {@code RollingSummaryStore}
+ * so that the rolling totals of its account include it. The store is locked while it is updated,
+ * with a file lock against other processes and a monitor per store against other threads of this
+ * one, so several processes and threads may record statements in the same store.
+ *
+ * <p>Each store is loaded once per process and kept in memory, and before each statement is
+ * recorded it reads only the statements other processes have saved since, so recording a
+ * statement costs time proportional to the statement rather than to the history of the store.
+ */
+public class RollingSummaryExporter implements StatementExporter {
+  // The stores loaded by this process, by absolute path. A file lock is held by the whole process,
+  // so threads of this process updating the same store are kept apart by its monitor.
+  private static final Map<Path, RollingSummaryStore> STORES = new ConcurrentHashMap<>();
+
+  // Invariant: exporter, storeFilepath, account, and statementId are not null.
+  private final StatementExporter exporter;
+  private final String storeFilepath;
+  private final String account;
+  private final String statementId;
+
+  // Null until the statement is recorded.
+  private String summary;
+
+  /**
+   * Initializes a new {@code RollingSummaryExporter}.
+   * @param exporter the exporter which writes the statement itself
+   * @param storeFilepath the path of the store, which is created if it does not exist
+   * @param account the name of the account to which the statement belongs
+   * @param statementId an identifier unique to the statement, such as a hash of its file, so
+   *                    that a statement exported twice is only recorded once
+   * @throws IllegalArgumentException if any of the provided arguments is {@code null}.
+   */
+  public RollingSummaryExporter(StatementExporter exporter, String storeFilepath, String account, String statementId) throws IllegalArgumentException {
+    if (exporter == null) {
+      throw new IllegalArgumentException("Exporter cannot be null.");
+    }
+
+    if (storeFilepath == null) {
+      throw new IllegalArgumentException("Store filepath cannot be null.");
+    }
+
+    if (account == null || statementId == null) {
+      throw new IllegalArgumentException("Account and statement id cannot be null.");
+    }
+
+    this.exporter = exporter;
+    this.storeFilepath = storeFilepath;
+    this.account = account;
+    this.statementId = statementId;
+  }
+
+  @Override
+  public void write(List<AbstractTransaction> transactions) throws IllegalStateException {
+    this.exporter.write(transactions);
+
+    List<Deposit> deposits = new ArrayList<>();
+    List<Payment> payments = new ArrayList<>();
+    for (AbstractTransaction transaction : transactions) {
+      if (transaction instanceof Deposit) {
+        deposits.add((Deposit) transaction);
+      } else if (transaction instanceof Payment) {
+        payments.add((Payment) transaction);
+      }
+    }
+
+    Path storePath = Paths.get(this.storeFilepath).toAbsolutePath().normalize();
+    RollingSummaryStore store = STORES.computeIfAbsent(storePath, path -> new RollingSummaryStore());
+    synchronized (store) {
+      try (FileChannel lockFile = FileChannel.open(Paths.get(this.storeFilepath + ".lock"),
+             StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+        FileLock lock = lockFile.lock();
+        try {
+          this.record(store, deposits, payments);
+        } catch (IllegalStateException e) {
+          // The store in memory may no longer match the file, so the next statement reloads it
+          STORES.remove(storePath, store);
+          throw e;
+        } finally {
+          lock.release();
+        }
+      } catch (IOException e) {
+        throw new IllegalStateException("Failed to lock summary " + this.storeFilepath + ".");
+      }
+    }
+  }
+
+  // Records the statement in the store, which is locked, and describes its account's totals.
+  private void record(RollingSummaryStore store, List<Deposit> deposits, List<Payment> payments) throws IllegalStateException {
+    store.refresh(this.storeFilepath);
+
+    boolean recorded;
+    try {
+      recorded = store.record(this.account, this.statementId, deposits, payments);
+    } catch (IllegalArgumentException | ArithmeticException e) {
+      throw new IllegalStateException("Failed to record statement: " + e.getMessage());
+    }
+    store.save(this.storeFilepath);
+
+    this.summary = (recorded ? "Recorded statement in " : "Statement was already recorded in ")
+      + this.storeFilepath + "; " + this.account + " year to date " + store.getYearToDate(this.account, TransactionType.DEPOSIT) + " in, "
+      + store.getYearToDate(this.account, TransactionType.PAYMENT) + " out; trailing 12 months "
+      + store.getTrailingTwelveMonths(this.account, TransactionType.DEPOSIT) + " in, "
+      + store.getTrailingTwelveMonths(this.account, TransactionType.PAYMENT) + " out";
+  }
+
+  @Override
+  public String confirmationMessage() {
+    String message = this.exporter.confirmationMessage();
+    if (this.summary == null) {
+      return message;
+    }
+
+    return message + "\n" + this.summary;
+  }
+}
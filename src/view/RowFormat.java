@@ -0,0 +1,27 @@
+package view;
+
+import model.transactions.AbstractTransaction;
+
+/**
+ * Encodes transactions as the rows of some text output format.
+ */
+public interface RowFormat {
+  /**
+   * Gets the text written before the first row, such as a header line.
+   * @return the header, which may be empty
+   */
+  String header();
+
+  /**
+   * Appends the encoding of one transaction, including its line terminator.
+   * @param transaction the transaction to encode
+   * @param destination where the encoded row is appended
+   */
+  void encode(AbstractTransaction transaction, StringBuilder destination);
+
+  /**
+   * Gets the file extension of this format, such as {@code .csv}.
+   * @return the extension, including the leading dot
+   */
+  String extension();
+}
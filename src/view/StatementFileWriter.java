@@ -6,6 +6,7 @@ import java.io.FileWriter;
 import java.io.IOException;
 import java.util.List;
 
+import model.summary.TransactionAggregator;
 import model.transactions.AbstractTransaction;
 import model.transactions.Deposit;
 import model.transactions.Payment;
@@ -17,40 +18,71 @@ public class StatementFileWriter implements StatementExporter {
   // Invariant: filepath is not null.
   private final String filepath;
 
+  // Null when no summary is written.
+  private final StatementSummaryWriter summaryWriter;
+
   /**
    * Initializes a new {@code StatementFileWriter} to export a statement to the provided filepath.
    * @param filepath the path to the file which will be written
    * @throws IllegalArgumentException if the provided {@code filepath} is {@code null}.
    */
   public StatementFileWriter(String filepath) throws IllegalArgumentException {
+    this(filepath, null);
+  }
+
+  /**
+   * Initializes a new {@code StatementFileWriter} to export a statement to the provided filepath,
+   * along with a summary of its totals computed while the statement is written.
+   * @param filepath the path to the file which will be written
+   * @param summaryFilepath the path to the summary file which will be written, or {@code null}
+   *                        to write no summary
+   * @throws IllegalArgumentException if the provided {@code filepath} is {@code null}.
+   */
+  public StatementFileWriter(String filepath, String summaryFilepath) throws IllegalArgumentException {
     if (filepath == null) {
       throw new IllegalArgumentException("Filepath cannot be null.");
     }
 
     this.filepath = filepath;
+    this.summaryWriter = (summaryFilepath == null) ? null : new StatementSummaryWriter(summaryFilepath);
   }
 
   @Override
   public void write(List<AbstractTransaction> transactions) throws IllegalStateException {
     try {
-      File outFile = new File(this.filepath);
+      File outFile = new File(AtomicFile.temporaryFor(this.filepath));
       FileWriter fileWriter = new FileWriter(outFile);
       BufferedWriter writer = new BufferedWriter(fileWriter);
 
+      TransactionAggregator aggregator = (this.summaryWriter == null) ? null : new TransactionAggregator();
+
       writer.append("type,date,description,amount\n");
 
       for (AbstractTransaction transaction : transactions) {
         writer.append(transaction.toString() + "\n");
+        if (aggregator != null) {
+          aggregator.accept(transaction);
+        }
       }
 
       writer.close();
+      AtomicFile.commit(this.filepath);
+
+      if (aggregator != null) {
+        this.summaryWriter.writeSummary(aggregator);
+      }
     } catch (IOException e) {
+      AtomicFile.discard(this.filepath);
       throw new IllegalStateException("Writing to file failed.");
     }
   }
 
   @Override
   public String confirmationMessage() {
+    if (this.summaryWriter != null) {
+      return "Successfully exported as " + this.filepath + "\n" + this.summaryWriter.confirmationMessage();
+    }
+
     return "Successfully exported as " + this.filepath;
   }
 }
@@ -0,0 +1,92 @@
+package view;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import model.query.TransactionIndex;
+import model.query.TransactionQuery;
+import model.transactions.AbstractTransaction;
+
+/**
+ * Prints the transactions of a statement matching a query, rather than writing every
+ * transaction to a file. A statement is queried once, so its transactions are scanned in order
+ * rather than indexed. Transactions queried repeatedly, such as those of a ledger, are indexed
+ * once in a {@code TransactionIndex} and queried with {@link #print(TransactionIndex)} instead.
+ */
+public class StatementQueryPrinter implements StatementExporter {
+  // Invariant: query is not null.
+  private final TransactionQuery query;
+
+  // Invariant: destination is not null.
+  private final Appendable destination;
+
+  private int matchCount;
+  private long elapsedMillis;
+
+  /**
+   * Initializes a new {@code StatementQueryPrinter} which prints the results of the provided query.
+   * @param query the query to run against the statement
+   * @param destination the destination of the matching transactions
+   * @throws IllegalArgumentException if any of the provided arguments is {@code null}.
+   */
+  public StatementQueryPrinter(TransactionQuery query, Appendable destination) throws IllegalArgumentException {
+    if (query == null) {
+      throw new IllegalArgumentException("Query cannot be null.");
+    }
+
+    if (destination == null) {
+      throw new IllegalArgumentException("Destination cannot be null.");
+    }
+
+    this.query = query;
+    this.destination = destination;
+  }
+
+  @Override
+  public void write(List<AbstractTransaction> transactions) throws IllegalStateException {
+    long start = System.nanoTime();
+    List<AbstractTransaction> results = new ArrayList<>();
+    for (AbstractTransaction transaction : transactions) {
+      if (this.query.matches(transaction)) {
+        results.add(transaction);
+      }
+    }
+    this.printResults(results, start);
+  }
+
+  /**
+   * Prints the indexed transactions matching the query.
+   * @param index the index of the transactions to query
+   * @throws IllegalArgumentException if {@code index} is {@code null}.
+   * @throws IllegalStateException if printing fails.
+   */
+  public void print(TransactionIndex index) throws IllegalArgumentException, IllegalStateException {
+    if (index == null) {
+      throw new IllegalArgumentException("Index cannot be null.");
+    }
+
+    long start = System.nanoTime();
+    this.printResults(index.query(this.query), start);
+  }
+
+  // Prints the results of the query, found since the provided start time.
+  private void printResults(List<AbstractTransaction> results, long start) throws IllegalStateException {
+    this.elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+    this.matchCount = results.size();
+
+    try {
+      this.destination.append("\ntype,date,description,amount\n");
+      for (AbstractTransaction transaction : results) {
+        this.destination.append(transaction.toString()).append("\n");
+      }
+    } catch (IOException e) {
+      throw new IllegalStateException("Printing query results failed.");
+    }
+  }
+
+  @Override
+  public String confirmationMessage() {
+    return "Found " + this.matchCount + " matching transaction(s) in " + this.elapsedMillis + " ms.";
+  }
+}
@@ -0,0 +1,63 @@
+package view;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.List;
+
+import model.summary.TransactionAggregator;
+import model.transactions.AbstractTransaction;
+
+/**
+ * Writes monthly, per-merchant, and overall totals of a statement to a CSV file.
+ */
+public class StatementSummaryWriter implements StatementExporter {
+  // Invariant: filepath is not null.
+  private final String filepath;
+
+  /**
+   * Initializes a new {@code StatementSummaryWriter} to export a summary to the provided filepath.
+   * @param filepath the path to the file which will be written
+   * @throws IllegalArgumentException if the provided {@code filepath} is {@code null}.
+   */
+  public StatementSummaryWriter(String filepath) throws IllegalArgumentException {
+    if (filepath == null) {
+      throw new IllegalArgumentException("Filepath cannot be null.");
+    }
+
+    this.filepath = filepath;
+  }
+
+  @Override
+  public void write(List<AbstractTransaction> transactions) throws IllegalStateException {
+    TransactionAggregator aggregator = new TransactionAggregator();
+    for (AbstractTransaction transaction : transactions) {
+      aggregator.accept(transaction);
+    }
+
+    this.writeSummary(aggregator);
+  }
+
+  /**
+   * Writes the totals of an aggregator which has already received every transaction.
+   * @param aggregator the aggregated totals
+   * @throws IllegalStateException if there is an error writing the summary.
+   */
+  public void writeSummary(TransactionAggregator aggregator) throws IllegalStateException {
+    try {
+      try (BufferedWriter writer = new BufferedWriter(new FileWriter(new File(AtomicFile.temporaryFor(this.filepath))))) {
+        aggregator.writeCsv(writer);
+      }
+      AtomicFile.commit(this.filepath);
+    } catch (IOException e) {
+      AtomicFile.discard(this.filepath);
+      throw new IllegalStateException("Writing summary to file failed.");
+    }
+  }
+
+  @Override
+  public String confirmationMessage() {
+    return "Successfully exported summary as " + this.filepath;
+  }
+}
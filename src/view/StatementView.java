@@ -12,4 +12,13 @@ public interface StatementView {
    * @throws IOException if there is an error displaying the message.
    */
   void renderMessage(String message) throws IOException;
+
+  /**
+   * Render a progress event to the user. By default, the message of the event is rendered.
+   * @param event the event to be displayed to the user
+   * @throws IOException if there is an error displaying the event.
+   */
+  default void renderEvent(ProgressEvent event) throws IOException {
+    this.renderMessage(event.getMessage());
+  }
 }